@@ -0,0 +1,206 @@
+// Generated from RVM.g4 by ANTLR 4.8
+package rvm;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.*;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.*;
+
+@SuppressWarnings({"all", "warnings", "unchecked", "unused", "cast"})
+public class RVMLexer extends Lexer {
+	static { RuntimeMetaData.checkVersion("4.8", RuntimeMetaData.VERSION); }
+
+	protected static final DFA[] _decisionToDFA;
+	protected static final PredictionContextCache _sharedContextCache =
+		new PredictionContextCache();
+	public static final int
+		LI=1, MOV=2, ADD=3, SUB=4, MULT=5, DIV=6, SEQ=7, SLEQ=8, LOADW=9, LOADFP=10, 
+		LOADHP=11, STOREHP=12, BRANCH=13, BRANCHTRUE=14, PUSH=15, PUSHFP=16, ENTER=17, 
+		CALL=18, RET=19, RV=20, PRINT=21, HALT=22, COL=23, LABEL=24, INTEGER=25, 
+		COMMENT=26, WHITESP=27, ERR=28;
+	public static String[] channelNames = {
+		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
+	};
+
+	public static String[] modeNames = {
+		"DEFAULT_MODE"
+	};
+
+	private static String[] makeRuleNames() {
+		return new String[] {
+			"LI", "MOV", "ADD", "SUB", "MULT", "DIV", "SEQ", "SLEQ", "LOADW", "LOADFP", 
+			"LOADHP", "STOREHP", "BRANCH", "BRANCHTRUE", "PUSH", "PUSHFP", "ENTER", 
+			"CALL", "RET", "RV", "PRINT", "HALT", "COL", "LABEL", "INTEGER", "COMMENT", 
+			"WHITESP", "ERR"
+		};
+	}
+	public static final String[] ruleNames = makeRuleNames();
+
+	private static String[] makeLiteralNames() {
+		return new String[] {
+			null, "'li'", "'mov'", "'add'", "'sub'", "'mult'", "'div'", "'seq'", 
+			"'sleq'", "'lw'", "'lfp'", "'lhp'", "'shp'", "'b'", "'bt'", "'push'", 
+			"'pushfp'", "'enter'", "'call'", "'ret'", "'rv'", "'print'", "'halt'", 
+			"':'"
+		};
+	}
+	private static final String[] _LITERAL_NAMES = makeLiteralNames();
+	private static String[] makeSymbolicNames() {
+		return new String[] {
+			null, "LI", "MOV", "ADD", "SUB", "MULT", "DIV", "SEQ", "SLEQ", "LOADW", 
+			"LOADFP", "LOADHP", "STOREHP", "BRANCH", "BRANCHTRUE", "PUSH", "PUSHFP", 
+			"ENTER", "CALL", "RET", "RV", "PRINT", "HALT", "COL", "LABEL", "INTEGER", 
+			"COMMENT", "WHITESP", "ERR"
+		};
+	}
+	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
+	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
+
+	/**
+	 * @deprecated Use {@link #VOCABULARY} instead.
+	 */
+	@Deprecated
+	public static final String[] tokenNames;
+	static {
+		tokenNames = new String[_SYMBOLIC_NAMES.length];
+		for (int i = 0; i < tokenNames.length; i++) {
+			tokenNames[i] = VOCABULARY.getLiteralName(i);
+			if (tokenNames[i] == null) {
+				tokenNames[i] = VOCABULARY.getSymbolicName(i);
+			}
+
+			if (tokenNames[i] == null) {
+				tokenNames[i] = "<INVALID>";
+			}
+		}
+	}
+
+	@Override
+	@Deprecated
+	public String[] getTokenNames() {
+		return tokenNames;
+	}
+
+	@Override
+
+	public Vocabulary getVocabulary() {
+		return VOCABULARY;
+	}
+
+
+	public int lexicalErrors=0;
+
+
+	public RVMLexer(CharStream input) {
+		super(input);
+		_interp = new LexerATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
+	}
+
+	@Override
+	public String getGrammarFileName() { return "RVM.g4"; }
+
+	@Override
+	public String[] getRuleNames() { return ruleNames; }
+
+	@Override
+	public String getSerializedATN() { return _serializedATN; }
+
+	@Override
+	public String[] getChannelNames() { return channelNames; }
+
+	@Override
+	public String[] getModeNames() { return modeNames; }
+
+	@Override
+	public ATN getATN() { return _ATN; }
+
+	@Override
+	public void action(RuleContext _localctx, int ruleIndex, int actionIndex) {
+		switch (ruleIndex) {
+		case 27:
+			ERR_action((RuleContext)_localctx, actionIndex);
+			break;
+		}
+	}
+	private void ERR_action(RuleContext _localctx, int actionIndex) {
+		switch (actionIndex) {
+		case 0:
+			 System.out.println("Invalid char: "+ getText()); lexicalErrors++; 
+			break;
+		}
+	}
+
+	public static final String _serializedATN =
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2\36\u00c9\b\1\4\2"+
+		"\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4"+
+		"\13\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22"+
+		"\t\22\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31"+
+		"\t\31\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\3\2\3\2\3\2\3\3\3\3\3\3"+
+		"\3\3\3\4\3\4\3\4\3\4\3\5\3\5\3\5\3\5\3\6\3\6\3\6\3\6\3\6\3\7\3\7\3\7\3"+
+		"\7\3\b\3\b\3\b\3\b\3\t\3\t\3\t\3\t\3\t\3\n\3\n\3\n\3\13\3\13\3\13\3\13"+
+		"\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\r\3\16\3\16\3\17\3\17\3\17\3\20\3\20\3"+
+		"\20\3\20\3\20\3\21\3\21\3\21\3\21\3\21\3\21\3\21\3\22\3\22\3\22\3\22\3"+
+		"\22\3\22\3\23\3\23\3\23\3\23\3\23\3\24\3\24\3\24\3\24\3\25\3\25\3\25\3"+
+		"\26\3\26\3\26\3\26\3\26\3\26\3\27\3\27\3\27\3\27\3\27\3\30\3\30\3\31\3"+
+		"\31\7\31\u009e\n\31\f\31\16\31\u00a1\13\31\3\32\3\32\5\32\u00a5\n\32\3"+
+		"\32\3\32\7\32\u00a9\n\32\f\32\16\32\u00ac\13\32\5\32\u00ae\n\32\3\33\3"+
+		"\33\3\33\3\33\7\33\u00b4\n\33\f\33\16\33\u00b7\13\33\3\33\3\33\3\33\3"+
+		"\33\3\33\3\34\6\34\u00bf\n\34\r\34\16\34\u00c0\3\34\3\34\3\35\3\35\3\35"+
+		"\3\35\3\35\3\u00b5\2\36\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f"+
+		"\27\r\31\16\33\17\35\20\37\21!\22#\23%\24\'\25)\26+\27-\30/\31\61\32\63"+
+		"\33\65\34\67\359\36\3\2\5\4\2C\\c|\5\2\62;C\\c|\5\2\13\f\17\17\"\"\2\u00ce"+
+		"\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2"+
+		"\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2"+
+		"\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2!\3\2\2\2\2#\3\2"+
+		"\2\2\2%\3\2\2\2\2\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3\2\2\2\2/\3\2\2"+
+		"\2\2\61\3\2\2\2\2\63\3\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2\29\3\2\2\2\3;\3"+
+		"\2\2\2\5>\3\2\2\2\7B\3\2\2\2\tF\3\2\2\2\13J\3\2\2\2\rO\3\2\2\2\17S\3\2"+
+		"\2\2\21W\3\2\2\2\23\\\3\2\2\2\25_\3\2\2\2\27c\3\2\2\2\31g\3\2\2\2\33k"+
+		"\3\2\2\2\35m\3\2\2\2\37p\3\2\2\2!u\3\2\2\2#|\3\2\2\2%\u0082\3\2\2\2\'"+
+		"\u0087\3\2\2\2)\u008b\3\2\2\2+\u008e\3\2\2\2-\u0094\3\2\2\2/\u0099\3\2"+
+		"\2\2\61\u009b\3\2\2\2\63\u00ad\3\2\2\2\65\u00af\3\2\2\2\67\u00be\3\2\2"+
+		"\29\u00c4\3\2\2\2;<\7n\2\2<=\7k\2\2=\4\3\2\2\2>?\7o\2\2?@\7q\2\2@A\7x"+
+		"\2\2A\6\3\2\2\2BC\7c\2\2CD\7f\2\2DE\7f\2\2E\b\3\2\2\2FG\7u\2\2GH\7w\2"+
+		"\2HI\7d\2\2I\n\3\2\2\2JK\7o\2\2KL\7w\2\2LM\7n\2\2MN\7v\2\2N\f\3\2\2\2"+
+		"OP\7f\2\2PQ\7k\2\2QR\7x\2\2R\16\3\2\2\2ST\7u\2\2TU\7g\2\2UV\7s\2\2V\20"+
+		"\3\2\2\2WX\7u\2\2XY\7n\2\2YZ\7g\2\2Z[\7s\2\2[\22\3\2\2\2\\]\7n\2\2]^\7"+
+		"y\2\2^\24\3\2\2\2_`\7n\2\2`a\7h\2\2ab\7r\2\2b\26\3\2\2\2cd\7n\2\2de\7"+
+		"j\2\2ef\7r\2\2f\30\3\2\2\2gh\7u\2\2hi\7j\2\2ij\7r\2\2j\32\3\2\2\2kl\7"+
+		"d\2\2l\34\3\2\2\2mn\7d\2\2no\7v\2\2o\36\3\2\2\2pq\7r\2\2qr\7w\2\2rs\7"+
+		"u\2\2st\7j\2\2t \3\2\2\2uv\7r\2\2vw\7w\2\2wx\7u\2\2xy\7j\2\2yz\7h\2\2"+
+		"z{\7r\2\2{\"\3\2\2\2|}\7g\2\2}~\7p\2\2~\177\7v\2\2\177\u0080\7g\2\2\u0080"+
+		"\u0081\7t\2\2\u0081$\3\2\2\2\u0082\u0083\7e\2\2\u0083\u0084\7c\2\2\u0084"+
+		"\u0085\7n\2\2\u0085\u0086\7n\2\2\u0086&\3\2\2\2\u0087\u0088\7t\2\2\u0088"+
+		"\u0089\7g\2\2\u0089\u008a\7v\2\2\u008a(\3\2\2\2\u008b\u008c\7t\2\2\u008c"+
+		"\u008d\7x\2\2\u008d*\3\2\2\2\u008e\u008f\7r\2\2\u008f\u0090\7t\2\2\u0090"+
+		"\u0091\7k\2\2\u0091\u0092\7p\2\2\u0092\u0093\7v\2\2\u0093,\3\2\2\2\u0094"+
+		"\u0095\7j\2\2\u0095\u0096\7c\2\2\u0096\u0097\7n\2\2\u0097\u0098\7v\2\2"+
+		"\u0098.\3\2\2\2\u0099\u009a\7<\2\2\u009a\60\3\2\2\2\u009b\u009f\t\2\2"+
+		"\2\u009c\u009e\t\3\2\2\u009d\u009c\3\2\2\2\u009e\u00a1\3\2\2\2\u009f\u009d"+
+		"\3\2\2\2\u009f\u00a0\3\2\2\2\u00a0\62\3\2\2\2\u00a1\u009f\3\2\2\2\u00a2"+
+		"\u00ae\7\62\2\2\u00a3\u00a5\7/\2\2\u00a4\u00a3\3\2\2\2\u00a4\u00a5\3\2"+
+		"\2\2\u00a5\u00a6\3\2\2\2\u00a6\u00aa\4\63;\2\u00a7\u00a9\4\62;\2\u00a8"+
+		"\u00a7\3\2\2\2\u00a9\u00ac\3\2\2\2\u00aa\u00a8\3\2\2\2\u00aa\u00ab\3\2"+
+		"\2\2\u00ab\u00ae\3\2\2\2\u00ac\u00aa\3\2\2\2\u00ad\u00a2\3\2\2\2\u00ad"+
+		"\u00a4\3\2\2\2\u00ae\64\3\2\2\2\u00af\u00b0\7\61\2\2\u00b0\u00b1\7,\2"+
+		"\2\u00b1\u00b5\3\2\2\2\u00b2\u00b4\13\2\2\2\u00b3\u00b2\3\2\2\2\u00b4"+
+		"\u00b7\3\2\2\2\u00b5\u00b6\3\2\2\2\u00b5\u00b3\3\2\2\2\u00b6\u00b8\3\2"+
+		"\2\2\u00b7\u00b5\3\2\2\2\u00b8\u00b9\7,\2\2\u00b9\u00ba\7\61\2\2\u00ba"+
+		"\u00bb\3\2\2\2\u00bb\u00bc\b\33\2\2\u00bc\66\3\2\2\2\u00bd\u00bf\t\4\2"+
+		"\2\u00be\u00bd\3\2\2\2\u00bf\u00c0\3\2\2\2\u00c0\u00be\3\2\2\2\u00c0\u00c1"+
+		"\3\2\2\2\u00c1\u00c2\3\2\2\2\u00c2\u00c3\b\34\2\2\u00c38\3\2\2\2\u00c4"+
+		"\u00c5\13\2\2\2\u00c5\u00c6\b\35\3\2\u00c6\u00c7\3\2\2\2\u00c7\u00c8\b"+
+		"\35\2\2\u00c8:\3\2\2\2\t\2\u009f\u00a4\u00aa\u00ad\u00b5\u00c0\4\2\3\2"+
+		"\3\35\2";
+	public static final ATN _ATN =
+		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
+	static {
+		_decisionToDFA = new DFA[_ATN.getNumberOfDecisions()];
+		for (int i = 0; i < _ATN.getNumberOfDecisions(); i++) {
+			_decisionToDFA[i] = new DFA(_ATN.getDecisionState(i), i);
+		}
+	}
+}
\ No newline at end of file
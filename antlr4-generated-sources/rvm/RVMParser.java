@@ -0,0 +1,552 @@
+// Generated from RVM.g4 by ANTLR 4.8
+package rvm;
+
+import java.util.*;
+
+import org.antlr.v4.runtime.atn.*;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.misc.*;
+import org.antlr.v4.runtime.tree.*;
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+
+@SuppressWarnings({"all", "warnings", "unchecked", "unused", "cast"})
+public class RVMParser extends Parser {
+	static { RuntimeMetaData.checkVersion("4.8", RuntimeMetaData.VERSION); }
+
+	protected static final DFA[] _decisionToDFA;
+	protected static final PredictionContextCache _sharedContextCache =
+		new PredictionContextCache();
+	public static final int
+		LI=1, MOV=2, ADD=3, SUB=4, MULT=5, DIV=6, SEQ=7, SLEQ=8, LOADW=9, LOADFP=10, 
+		LOADHP=11, STOREHP=12, BRANCH=13, BRANCHTRUE=14, PUSH=15, PUSHFP=16, ENTER=17, 
+		CALL=18, RET=19, RV=20, PRINT=21, HALT=22, COL=23, LABEL=24, INTEGER=25, 
+		COMMENT=26, WHITESP=27, ERR=28;
+	public static final int
+		RULE_assembly = 0, RULE_instruction = 1;
+	private static String[] makeRuleNames() {
+		return new String[] {
+			"assembly", "instruction"
+		};
+	}
+	public static final String[] ruleNames = makeRuleNames();
+
+	private static String[] makeLiteralNames() {
+		return new String[] {
+			null, "'li'", "'mov'", "'add'", "'sub'", "'mult'", "'div'", "'seq'", 
+			"'sleq'", "'lw'", "'lfp'", "'lhp'", "'shp'", "'b'", "'bt'", "'push'", 
+			"'pushfp'", "'enter'", "'call'", "'ret'", "'rv'", "'print'", "'halt'", 
+			"':'"
+		};
+	}
+	private static final String[] _LITERAL_NAMES = makeLiteralNames();
+	private static String[] makeSymbolicNames() {
+		return new String[] {
+			null, "LI", "MOV", "ADD", "SUB", "MULT", "DIV", "SEQ", "SLEQ", "LOADW", 
+			"LOADFP", "LOADHP", "STOREHP", "BRANCH", "BRANCHTRUE", "PUSH", "PUSHFP", 
+			"ENTER", "CALL", "RET", "RV", "PRINT", "HALT", "COL", "LABEL", "INTEGER", 
+			"COMMENT", "WHITESP", "ERR"
+		};
+	}
+	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
+	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
+
+	/**
+	 * @deprecated Use {@link #VOCABULARY} instead.
+	 */
+	@Deprecated
+	public static final String[] tokenNames;
+	static {
+		tokenNames = new String[_SYMBOLIC_NAMES.length];
+		for (int i = 0; i < tokenNames.length; i++) {
+			tokenNames[i] = VOCABULARY.getLiteralName(i);
+			if (tokenNames[i] == null) {
+				tokenNames[i] = VOCABULARY.getSymbolicName(i);
+			}
+
+			if (tokenNames[i] == null) {
+				tokenNames[i] = "<INVALID>";
+			}
+		}
+	}
+
+	@Override
+	@Deprecated
+	public String[] getTokenNames() {
+		return tokenNames;
+	}
+
+	@Override
+
+	public Vocabulary getVocabulary() {
+		return VOCABULARY;
+	}
+
+	@Override
+	public String getGrammarFileName() { return "RVM.g4"; }
+
+	@Override
+	public String[] getRuleNames() { return ruleNames; }
+
+	@Override
+	public String getSerializedATN() { return _serializedATN; }
+
+	@Override
+	public ATN getATN() { return _ATN; }
+
+
+	public int[] code = new int[ExecuteVM.CODESIZE];
+	private int i = 0;
+	public Map<String,Integer> labelDef = new HashMap<>();
+	private Map<Integer,String> labelRef = new HashMap<>();
+	private void codem(int ... c) {
+	   	for (int x : c) code[i++] = x;
+	}
+	private int n(Token t) {
+		return Integer.parseInt(t.getText());
+	}
+
+	public RVMParser(TokenStream input) {
+		super(input);
+		_interp = new ParserATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
+	}
+
+	public static class AssemblyContext extends ParserRuleContext {
+		public TerminalNode EOF() { return getToken(RVMParser.EOF, 0); }
+		public List<InstructionContext> instruction() {
+			return getRuleContexts(InstructionContext.class);
+		}
+		public InstructionContext instruction(int i) {
+			return getRuleContext(InstructionContext.class,i);
+		}
+		public AssemblyContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_assembly; }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof RVMVisitor ) return ((RVMVisitor<? extends T>)visitor).visitAssembly(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final AssemblyContext assembly() throws RecognitionException {
+		AssemblyContext _localctx = new AssemblyContext(_ctx, getState());
+		enterRule(_localctx, 0, RULE_assembly);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(7);
+			_errHandler.sync(this);
+			_la = _input.LA(1);
+			while ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << LI) | (1L << MOV) | (1L << ADD) | (1L << SUB) | (1L << MULT) | (1L << DIV) | (1L << SEQ) | (1L << SLEQ) | (1L << LOADW) | (1L << LOADFP) | (1L << LOADHP) | (1L << STOREHP) | (1L << BRANCH) | (1L << BRANCHTRUE) | (1L << PUSH) | (1L << PUSHFP) | (1L << ENTER) | (1L << CALL) | (1L << RET) | (1L << RV) | (1L << PRINT) | (1L << HALT) | (1L << LABEL))) != 0)) {
+				{
+				{
+				setState(4);
+				instruction();
+				}
+				}
+				setState(9);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+			}
+			setState(10);
+			match(EOF);
+			 for (Integer j: labelRef.keySet())
+											code[j]=labelDef.get(labelRef.get(j));
+										
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class InstructionContext extends ParserRuleContext {
+		public Token d;
+		public Token n;
+		public Token l;
+		public Token s;
+		public Token a;
+		public Token b;
+		public TerminalNode LI() { return getToken(RVMParser.LI, 0); }
+		public List<TerminalNode> INTEGER() { return getTokens(RVMParser.INTEGER); }
+		public TerminalNode INTEGER(int i) {
+			return getToken(RVMParser.INTEGER, i);
+		}
+		public TerminalNode LABEL() { return getToken(RVMParser.LABEL, 0); }
+		public TerminalNode MOV() { return getToken(RVMParser.MOV, 0); }
+		public TerminalNode ADD() { return getToken(RVMParser.ADD, 0); }
+		public TerminalNode SUB() { return getToken(RVMParser.SUB, 0); }
+		public TerminalNode MULT() { return getToken(RVMParser.MULT, 0); }
+		public TerminalNode DIV() { return getToken(RVMParser.DIV, 0); }
+		public TerminalNode SEQ() { return getToken(RVMParser.SEQ, 0); }
+		public TerminalNode SLEQ() { return getToken(RVMParser.SLEQ, 0); }
+		public TerminalNode LOADW() { return getToken(RVMParser.LOADW, 0); }
+		public TerminalNode LOADFP() { return getToken(RVMParser.LOADFP, 0); }
+		public TerminalNode LOADHP() { return getToken(RVMParser.LOADHP, 0); }
+		public TerminalNode STOREHP() { return getToken(RVMParser.STOREHP, 0); }
+		public TerminalNode COL() { return getToken(RVMParser.COL, 0); }
+		public TerminalNode BRANCH() { return getToken(RVMParser.BRANCH, 0); }
+		public TerminalNode BRANCHTRUE() { return getToken(RVMParser.BRANCHTRUE, 0); }
+		public TerminalNode PUSH() { return getToken(RVMParser.PUSH, 0); }
+		public TerminalNode PUSHFP() { return getToken(RVMParser.PUSHFP, 0); }
+		public TerminalNode ENTER() { return getToken(RVMParser.ENTER, 0); }
+		public TerminalNode CALL() { return getToken(RVMParser.CALL, 0); }
+		public TerminalNode RET() { return getToken(RVMParser.RET, 0); }
+		public TerminalNode RV() { return getToken(RVMParser.RV, 0); }
+		public TerminalNode PRINT() { return getToken(RVMParser.PRINT, 0); }
+		public TerminalNode HALT() { return getToken(RVMParser.HALT, 0); }
+		public InstructionContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_instruction; }
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof RVMVisitor ) return ((RVMVisitor<? extends T>)visitor).visitInstruction(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final InstructionContext instruction() throws RecognitionException {
+		InstructionContext _localctx = new InstructionContext(_ctx, getState());
+		enterRule(_localctx, 2, RULE_instruction);
+		try {
+			setState(102);
+			_errHandler.sync(this);
+			switch ( getInterpreter().adaptivePredict(_input,1,_ctx) ) {
+			case 1:
+				enterOuterAlt(_localctx, 1);
+				{
+				setState(13);
+				match(LI);
+				setState(14);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(15);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				 codem(LI, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).n)); 
+				}
+				break;
+			case 2:
+				enterOuterAlt(_localctx, 2);
+				{
+				setState(17);
+				match(LI);
+				setState(18);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(19);
+				((InstructionContext)_localctx).l = match(LABEL);
+				 codem(LI, n(((InstructionContext)_localctx).d)); labelRef.put(i++,(((InstructionContext)_localctx).l!=null?((InstructionContext)_localctx).l.getText():null)); 
+				}
+				break;
+			case 3:
+				enterOuterAlt(_localctx, 3);
+				{
+				setState(21);
+				match(MOV);
+				setState(22);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(23);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				 codem(MOV, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).s)); 
+				}
+				break;
+			case 4:
+				enterOuterAlt(_localctx, 4);
+				{
+				setState(25);
+				match(ADD);
+				setState(26);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(27);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(28);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(ADD, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 5:
+				enterOuterAlt(_localctx, 5);
+				{
+				setState(30);
+				match(SUB);
+				setState(31);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(32);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(33);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(SUB, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 6:
+				enterOuterAlt(_localctx, 6);
+				{
+				setState(35);
+				match(MULT);
+				setState(36);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(37);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(38);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(MULT, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 7:
+				enterOuterAlt(_localctx, 7);
+				{
+				setState(40);
+				match(DIV);
+				setState(41);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(42);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(43);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(DIV, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 8:
+				enterOuterAlt(_localctx, 8);
+				{
+				setState(45);
+				match(SEQ);
+				setState(46);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(47);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(48);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(SEQ, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 9:
+				enterOuterAlt(_localctx, 9);
+				{
+				setState(50);
+				match(SLEQ);
+				setState(51);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(52);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(53);
+				((InstructionContext)_localctx).b = match(INTEGER);
+				 codem(SLEQ, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).b)); 
+				}
+				break;
+			case 10:
+				enterOuterAlt(_localctx, 10);
+				{
+				setState(55);
+				match(LOADW);
+				setState(56);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				setState(57);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(58);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				 codem(LOADW, n(((InstructionContext)_localctx).d), n(((InstructionContext)_localctx).a), n(((InstructionContext)_localctx).n)); 
+				}
+				break;
+			case 11:
+				enterOuterAlt(_localctx, 11);
+				{
+				setState(60);
+				match(LOADFP);
+				setState(61);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				 codem(LOADFP, n(((InstructionContext)_localctx).d)); 
+				}
+				break;
+			case 12:
+				enterOuterAlt(_localctx, 12);
+				{
+				setState(63);
+				match(LOADHP);
+				setState(64);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				 codem(LOADHP, n(((InstructionContext)_localctx).d)); 
+				}
+				break;
+			case 13:
+				enterOuterAlt(_localctx, 13);
+				{
+				setState(66);
+				match(STOREHP);
+				setState(67);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				 codem(STOREHP, n(((InstructionContext)_localctx).s)); 
+				}
+				break;
+			case 14:
+				enterOuterAlt(_localctx, 14);
+				{
+				setState(69);
+				((InstructionContext)_localctx).l = match(LABEL);
+				setState(70);
+				match(COL);
+				 labelDef.put((((InstructionContext)_localctx).l!=null?((InstructionContext)_localctx).l.getText():null), i); 
+				}
+				break;
+			case 15:
+				enterOuterAlt(_localctx, 15);
+				{
+				setState(72);
+				match(BRANCH);
+				setState(73);
+				((InstructionContext)_localctx).l = match(LABEL);
+				 codem(BRANCH); labelRef.put(i++,(((InstructionContext)_localctx).l!=null?((InstructionContext)_localctx).l.getText():null)); 
+				}
+				break;
+			case 16:
+				enterOuterAlt(_localctx, 16);
+				{
+				setState(75);
+				match(BRANCHTRUE);
+				setState(76);
+				((InstructionContext)_localctx).a = match(INTEGER);
+				setState(77);
+				((InstructionContext)_localctx).l = match(LABEL);
+				 codem(BRANCHTRUE, n(((InstructionContext)_localctx).a)); labelRef.put(i++,(((InstructionContext)_localctx).l!=null?((InstructionContext)_localctx).l.getText():null)); 
+				}
+				break;
+			case 17:
+				enterOuterAlt(_localctx, 17);
+				{
+				setState(79);
+				match(PUSH);
+				setState(80);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				 codem(PUSH, n(((InstructionContext)_localctx).s)); 
+				}
+				break;
+			case 18:
+				enterOuterAlt(_localctx, 18);
+				{
+				setState(82);
+				match(PUSHFP);
+				 codem(PUSHFP); 
+				}
+				break;
+			case 19:
+				enterOuterAlt(_localctx, 19);
+				{
+				setState(84);
+				match(ENTER);
+				setState(85);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				 codem(ENTER, n(((InstructionContext)_localctx).n)); 
+				}
+				break;
+			case 20:
+				enterOuterAlt(_localctx, 20);
+				{
+				setState(87);
+				match(CALL);
+				setState(88);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				 codem(CALL, n(((InstructionContext)_localctx).s)); 
+				}
+				break;
+			case 21:
+				enterOuterAlt(_localctx, 21);
+				{
+				setState(90);
+				match(RET);
+				setState(91);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				setState(92);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				 codem(RET, n(((InstructionContext)_localctx).s), n(((InstructionContext)_localctx).n)); 
+				}
+				break;
+			case 22:
+				enterOuterAlt(_localctx, 22);
+				{
+				setState(94);
+				match(RV);
+				setState(95);
+				((InstructionContext)_localctx).d = match(INTEGER);
+				 codem(RV, n(((InstructionContext)_localctx).d)); 
+				}
+				break;
+			case 23:
+				enterOuterAlt(_localctx, 23);
+				{
+				setState(97);
+				match(PRINT);
+				setState(98);
+				((InstructionContext)_localctx).s = match(INTEGER);
+				 codem(PRINT, n(((InstructionContext)_localctx).s)); 
+				}
+				break;
+			case 24:
+				enterOuterAlt(_localctx, 24);
+				{
+				setState(100);
+				match(HALT);
+				 codem(HALT); 
+				}
+				break;
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static final String _serializedATN =
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3\36k\4\2\t\2\4\3\t"+
+		"\3\3\2\7\2\b\n\2\f\2\16\2\13\13\2\3\2\3\2\3\2\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\5\3i\n\3\3\3\2\2"+
+		"\4\2\4\2\2\2\u0080\2\t\3\2\2\2\4h\3\2\2\2\6\b\5\4\3\2\7\6\3\2\2\2\b\13"+
+		"\3\2\2\2\t\7\3\2\2\2\t\n\3\2\2\2\n\f\3\2\2\2\13\t\3\2\2\2\f\r\7\2\2\3"+
+		"\r\16\b\2\1\2\16\3\3\2\2\2\17\20\7\3\2\2\20\21\7\33\2\2\21\22\7\33\2\2"+
+		"\22i\b\3\1\2\23\24\7\3\2\2\24\25\7\33\2\2\25\26\7\32\2\2\26i\b\3\1\2\27"+
+		"\30\7\4\2\2\30\31\7\33\2\2\31\32\7\33\2\2\32i\b\3\1\2\33\34\7\5\2\2\34"+
+		"\35\7\33\2\2\35\36\7\33\2\2\36\37\7\33\2\2\37i\b\3\1\2 !\7\6\2\2!\"\7"+
+		"\33\2\2\"#\7\33\2\2#$\7\33\2\2$i\b\3\1\2%&\7\7\2\2&\'\7\33\2\2\'(\7\33"+
+		"\2\2()\7\33\2\2)i\b\3\1\2*+\7\b\2\2+,\7\33\2\2,-\7\33\2\2-.\7\33\2\2."+
+		"i\b\3\1\2/\60\7\t\2\2\60\61\7\33\2\2\61\62\7\33\2\2\62\63\7\33\2\2\63"+
+		"i\b\3\1\2\64\65\7\n\2\2\65\66\7\33\2\2\66\67\7\33\2\2\678\7\33\2\28i\b"+
+		"\3\1\29:\7\13\2\2:;\7\33\2\2;<\7\33\2\2<=\7\33\2\2=i\b\3\1\2>?\7\f\2\2"+
+		"?@\7\33\2\2@i\b\3\1\2AB\7\r\2\2BC\7\33\2\2Ci\b\3\1\2DE\7\16\2\2EF\7\33"+
+		"\2\2Fi\b\3\1\2GH\7\32\2\2HI\7\31\2\2Ii\b\3\1\2JK\7\17\2\2KL\7\32\2\2L"+
+		"i\b\3\1\2MN\7\20\2\2NO\7\33\2\2OP\7\32\2\2Pi\b\3\1\2QR\7\21\2\2RS\7\33"+
+		"\2\2Si\b\3\1\2TU\7\22\2\2Ui\b\3\1\2VW\7\23\2\2WX\7\33\2\2Xi\b\3\1\2YZ"+
+		"\7\24\2\2Z[\7\33\2\2[i\b\3\1\2\\]\7\25\2\2]^\7\33\2\2^_\7\33\2\2_i\b\3"+
+		"\1\2`a\7\26\2\2ab\7\33\2\2bi\b\3\1\2cd\7\27\2\2de\7\33\2\2ei\b\3\1\2f"+
+		"g\7\30\2\2gi\b\3\1\2h\17\3\2\2\2h\23\3\2\2\2h\27\3\2\2\2h\33\3\2\2\2h"+
+		" \3\2\2\2h%\3\2\2\2h*\3\2\2\2h/\3\2\2\2h\64\3\2\2\2h9\3\2\2\2h>\3\2\2"+
+		"\2hA\3\2\2\2hD\3\2\2\2hG\3\2\2\2hJ\3\2\2\2hM\3\2\2\2hQ\3\2\2\2hT\3\2\2"+
+		"\2hV\3\2\2\2hY\3\2\2\2h\\\3\2\2\2h`\3\2\2\2hc\3\2\2\2hf\3\2\2\2i\5\3\2"+
+		"\2\2\4\th";
+	public static final ATN _ATN =
+		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
+	static {
+		_decisionToDFA = new DFA[_ATN.getNumberOfDecisions()];
+		for (int i = 0; i < _ATN.getNumberOfDecisions(); i++) {
+			_decisionToDFA[i] = new DFA(_ATN.getDecisionState(i), i);
+		}
+	}
+}
\ No newline at end of file
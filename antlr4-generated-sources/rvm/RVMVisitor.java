@@ -0,0 +1,28 @@
+// Generated from RVM.g4 by ANTLR 4.8
+package rvm;
+
+import java.util.*;
+
+import org.antlr.v4.runtime.tree.ParseTreeVisitor;
+
+/**
+ * This interface defines a complete generic visitor for a parse tree produced
+ * by {@link RVMParser}.
+ *
+ * @param <T> The return type of the visit operation. Use {@link Void} for
+ * operations with no return type.
+ */
+public interface RVMVisitor<T> extends ParseTreeVisitor<T> {
+	/**
+	 * Visit a parse tree produced by {@link RVMParser#assembly}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitAssembly(RVMParser.AssemblyContext ctx);
+	/**
+	 * Visit a parse tree produced by {@link RVMParser#instruction}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitInstruction(RVMParser.InstructionContext ctx);
+}
\ No newline at end of file
@@ -2,6 +2,7 @@
 package svm;
 
 	import java.util.HashMap;
+	import java.util.List;
 
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.CharStream;
@@ -22,8 +23,11 @@ public class SVMLexer extends Lexer {
 	public static final int
 		PUSH=1, POP=2, ADD=3, SUB=4, MULT=5, DIV=6, STOREW=7, LOADW=8, BRANCH=9, 
 		BRANCHEQ=10, BRANCHLESSEQ=11, JS=12, LOADRA=13, STORERA=14, LOADTM=15, 
-		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, PRINT=22, 
-		HALT=23, COL=24, LABEL=25, INTEGER=26, WHITESP=27, ERR=28;
+		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, RESERVE=22, 
+		TAILCALL=23, FILL=24, CALL=25, ENTER=26, LEAVE=27, RET=28, DISPLAY=29, 
+		LOADDISPLAY=30, LOADGLOBAL=31, PRINT=32, HALT=33, ROOTS=34, FRAME=35, 
+		LINE=36, SCOPE=37, STRING=38, COL=39, LABEL=40, INTEGER=41, WHITESP=42, 
+		ERR=43;
 	public static String[] channelNames = {
 		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
 	};
@@ -36,8 +40,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			"PUSH", "POP", "ADD", "SUB", "MULT", "DIV", "STOREW", "LOADW", "BRANCH", 
 			"BRANCHEQ", "BRANCHLESSEQ", "JS", "LOADRA", "STORERA", "LOADTM", "STORETM", 
-			"LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "PRINT", "HALT", 
-			"COL", "LABEL", "INTEGER", "WHITESP", "ERR"
+			"LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "RESERVE", "TAILCALL", 
+			"FILL", "CALL", "ENTER", "LEAVE", "RET", "DISPLAY", "LOADDISPLAY", "LOADGLOBAL", 
+			"PRINT", "HALT", "ROOTS", "FRAME", "LINE", "SCOPE", "STRING", "COL", 
+			"LABEL", "INTEGER", "WHITESP", "ERR"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
@@ -46,8 +52,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			null, "'push'", "'pop'", "'add'", "'sub'", "'mult'", "'div'", "'sw'", 
 			"'lw'", "'b'", "'beq'", "'bleq'", "'js'", "'lra'", "'sra'", "'ltm'", 
-			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'print'", "'halt'", 
-			"':'"
+			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'reserve'", "'tail'", 
+			"'fill'", "'call'", "'enter'", "'leave'", "'ret'", "'display'", "'ldisp'", 
+			"'lg'", "'print'", "'halt'", "'roots'", "'frame'", "'line'", "'scope'", 
+			null, "':'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
@@ -55,8 +63,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			null, "PUSH", "POP", "ADD", "SUB", "MULT", "DIV", "STOREW", "LOADW", 
 			"BRANCH", "BRANCHEQ", "BRANCHLESSEQ", "JS", "LOADRA", "STORERA", "LOADTM", 
-			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "PRINT", 
-			"HALT", "COL", "LABEL", "INTEGER", "WHITESP", "ERR"
+			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "RESERVE", 
+			"TAILCALL", "FILL", "CALL", "ENTER", "LEAVE", "RET", "DISPLAY", "LOADDISPLAY", 
+			"LOADGLOBAL", "PRINT", "HALT", "ROOTS", "FRAME", "LINE", "SCOPE", "STRING", 
+			"COL", "LABEL", "INTEGER", "WHITESP", "ERR"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -123,7 +133,7 @@ public class SVMLexer extends Lexer {
 	@Override
 	public void action(RuleContext _localctx, int ruleIndex, int actionIndex) {
 		switch (ruleIndex) {
-		case 27:
+		case 42:
 			ERR_action((RuleContext)_localctx, actionIndex);
 			break;
 		}
@@ -137,61 +147,100 @@ public class SVMLexer extends Lexer {
 	}
 
 	public static final String _serializedATN =
-		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2\36\u00ba\b\1\4\2"+
-		"\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4"+
-		"\13\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22"+
-		"\t\22\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31"+
-		"\t\31\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\3\2\3\2\3\2\3\2\3\2\3\3"+
-		"\3\3\3\3\3\3\3\4\3\4\3\4\3\4\3\5\3\5\3\5\3\5\3\6\3\6\3\6\3\6\3\6\3\7\3"+
-		"\7\3\7\3\7\3\b\3\b\3\b\3\t\3\t\3\t\3\n\3\n\3\13\3\13\3\13\3\13\3\f\3\f"+
-		"\3\f\3\f\3\f\3\r\3\r\3\r\3\16\3\16\3\16\3\16\3\17\3\17\3\17\3\17\3\20"+
-		"\3\20\3\20\3\20\3\21\3\21\3\21\3\21\3\22\3\22\3\22\3\22\3\23\3\23\3\23"+
-		"\3\23\3\24\3\24\3\24\3\24\3\25\3\25\3\25\3\25\3\26\3\26\3\26\3\26\3\27"+
-		"\3\27\3\27\3\27\3\27\3\27\3\30\3\30\3\30\3\30\3\30\3\31\3\31\3\32\3\32"+
-		"\7\32\u009d\n\32\f\32\16\32\u00a0\13\32\3\33\3\33\5\33\u00a4\n\33\3\33"+
-		"\3\33\7\33\u00a8\n\33\f\33\16\33\u00ab\13\33\5\33\u00ad\n\33\3\34\6\34"+
-		"\u00b0\n\34\r\34\16\34\u00b1\3\34\3\34\3\35\3\35\3\35\3\35\3\35\2\2\36"+
-		"\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f\27\r\31\16\33\17\35\20"+
-		"\37\21!\22#\23%\24\'\25)\26+\27-\30/\31\61\32\63\33\65\34\67\359\36\3"+
-		"\2\5\4\2C\\c|\5\2\62;C\\c|\5\2\13\f\17\17\"\"\2\u00be\2\3\3\2\2\2\2\5"+
-		"\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2"+
-		"\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33"+
-		"\3\2\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2!\3\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2"+
-		"\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3\2\2\2\2/\3\2\2\2\2\61\3\2\2\2\2"+
-		"\63\3\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2\29\3\2\2\2\3;\3\2\2\2\5@\3\2\2\2"+
-		"\7D\3\2\2\2\tH\3\2\2\2\13L\3\2\2\2\rQ\3\2\2\2\17U\3\2\2\2\21X\3\2\2\2"+
-		"\23[\3\2\2\2\25]\3\2\2\2\27a\3\2\2\2\31f\3\2\2\2\33i\3\2\2\2\35m\3\2\2"+
-		"\2\37q\3\2\2\2!u\3\2\2\2#y\3\2\2\2%}\3\2\2\2\'\u0081\3\2\2\2)\u0085\3"+
-		"\2\2\2+\u0089\3\2\2\2-\u008d\3\2\2\2/\u0093\3\2\2\2\61\u0098\3\2\2\2\63"+
-		"\u009a\3\2\2\2\65\u00ac\3\2\2\2\67\u00af\3\2\2\29\u00b5\3\2\2\2;<\7r\2"+
-		"\2<=\7w\2\2=>\7u\2\2>?\7j\2\2?\4\3\2\2\2@A\7r\2\2AB\7q\2\2BC\7r\2\2C\6"+
-		"\3\2\2\2DE\7c\2\2EF\7f\2\2FG\7f\2\2G\b\3\2\2\2HI\7u\2\2IJ\7w\2\2JK\7d"+
-		"\2\2K\n\3\2\2\2LM\7o\2\2MN\7w\2\2NO\7n\2\2OP\7v\2\2P\f\3\2\2\2QR\7f\2"+
-		"\2RS\7k\2\2ST\7x\2\2T\16\3\2\2\2UV\7u\2\2VW\7y\2\2W\20\3\2\2\2XY\7n\2"+
-		"\2YZ\7y\2\2Z\22\3\2\2\2[\\\7d\2\2\\\24\3\2\2\2]^\7d\2\2^_\7g\2\2_`\7s"+
-		"\2\2`\26\3\2\2\2ab\7d\2\2bc\7n\2\2cd\7g\2\2de\7s\2\2e\30\3\2\2\2fg\7l"+
-		"\2\2gh\7u\2\2h\32\3\2\2\2ij\7n\2\2jk\7t\2\2kl\7c\2\2l\34\3\2\2\2mn\7u"+
-		"\2\2no\7t\2\2op\7c\2\2p\36\3\2\2\2qr\7n\2\2rs\7v\2\2st\7o\2\2t \3\2\2"+
-		"\2uv\7u\2\2vw\7v\2\2wx\7o\2\2x\"\3\2\2\2yz\7n\2\2z{\7h\2\2{|\7r\2\2|$"+
-		"\3\2\2\2}~\7u\2\2~\177\7h\2\2\177\u0080\7r\2\2\u0080&\3\2\2\2\u0081\u0082"+
-		"\7e\2\2\u0082\u0083\7h\2\2\u0083\u0084\7r\2\2\u0084(\3\2\2\2\u0085\u0086"+
-		"\7n\2\2\u0086\u0087\7j\2\2\u0087\u0088\7r\2\2\u0088*\3\2\2\2\u0089\u008a"+
-		"\7u\2\2\u008a\u008b\7j\2\2\u008b\u008c\7r\2\2\u008c,\3\2\2\2\u008d\u008e"+
-		"\7r\2\2\u008e\u008f\7t\2\2\u008f\u0090\7k\2\2\u0090\u0091\7p\2\2\u0091"+
-		"\u0092\7v\2\2\u0092.\3\2\2\2\u0093\u0094\7j\2\2\u0094\u0095\7c\2\2\u0095"+
-		"\u0096\7n\2\2\u0096\u0097\7v\2\2\u0097\60\3\2\2\2\u0098\u0099\7<\2\2\u0099"+
-		"\62\3\2\2\2\u009a\u009e\t\2\2\2\u009b\u009d\t\3\2\2\u009c\u009b\3\2\2"+
-		"\2\u009d\u00a0\3\2\2\2\u009e\u009c\3\2\2\2\u009e\u009f\3\2\2\2\u009f\64"+
-		"\3\2\2\2\u00a0\u009e\3\2\2\2\u00a1\u00ad\7\62\2\2\u00a2\u00a4\7/\2\2\u00a3"+
-		"\u00a2\3\2\2\2\u00a3\u00a4\3\2\2\2\u00a4\u00a5\3\2\2\2\u00a5\u00a9\4\63"+
-		";\2\u00a6\u00a8\4\62;\2\u00a7\u00a6\3\2\2\2\u00a8\u00ab\3\2\2\2\u00a9"+
-		"\u00a7\3\2\2\2\u00a9\u00aa\3\2\2\2\u00aa\u00ad\3\2\2\2\u00ab\u00a9\3\2"+
-		"\2\2\u00ac\u00a1\3\2\2\2\u00ac\u00a3\3\2\2\2\u00ad\66\3\2\2\2\u00ae\u00b0"+
-		"\t\4\2\2\u00af\u00ae\3\2\2\2\u00b0\u00b1\3\2\2\2\u00b1\u00af\3\2\2\2\u00b1"+
-		"\u00b2\3\2\2\2\u00b2\u00b3\3\2\2\2\u00b3\u00b4\b\34\2\2\u00b48\3\2\2\2"+
-		"\u00b5\u00b6\13\2\2\2\u00b6\u00b7\b\35\3\2\u00b7\u00b8\3\2\2\2\u00b8\u00b9"+
-		"\b\35\2\2\u00b9:\3\2\2\2\b\2\u009e\u00a3\u00a9\u00ac\u00b1\4\2\3\2\3\35"+
-		"\2";
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2-\u0130\b\1\4\2\t"+
+		"\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13"+
+		"\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22\t\22"+
+		"\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31\t\31"+
+		"\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\4\37\t\37\4 \t \4!"+
+		"\t!\4\"\t\"\4#\t#\4$\t$\4%\t%\4&\t&\4\'\t\'\4(\t(\4)\t)\4*\t*\4+\t+\4"+
+		",\t,\3\2\3\2\3\2\3\2\3\2\3\3\3\3\3\3\3\3\3\4\3\4\3\4\3\4\3\5\3\5\3\5\3"+
+		"\5\3\6\3\6\3\6\3\6\3\6\3\7\3\7\3\7\3\7\3\b\3\b\3\b\3\t\3\t\3\t\3\n\3\n"+
+		"\3\13\3\13\3\13\3\13\3\f\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\16\3\16\3\16\3"+
+		"\16\3\17\3\17\3\17\3\17\3\20\3\20\3\20\3\20\3\21\3\21\3\21\3\21\3\22\3"+
+		"\22\3\22\3\22\3\23\3\23\3\23\3\23\3\24\3\24\3\24\3\24\3\25\3\25\3\25\3"+
+		"\25\3\26\3\26\3\26\3\26\3\27\3\27\3\27\3\27\3\27\3\27\3\27\3\27\3\30\3"+
+		"\30\3\30\3\30\3\30\3\31\3\31\3\31\3\31\3\31\3\32\3\32\3\32\3\32\3\32\3"+
+		"\33\3\33\3\33\3\33\3\33\3\33\3\34\3\34\3\34\3\34\3\34\3\34\3\35\3\35\3"+
+		"\35\3\35\3\36\3\36\3\36\3\36\3\36\3\36\3\36\3\36\3\37\3\37\3\37\3\37\3"+
+		"\37\3\37\3 \3 \3 \3!\3!\3!\3!\3!\3!\3\"\3\"\3\"\3\"\3\"\3#\3#\3#\3#\3"+
+		"#\3#\3$\3$\3$\3$\3$\3$\3%\3%\3%\3%\3%\3&\3&\3&\3&\3&\3&\3\'\3\'\7\'\u0108"+
+		"\n\'\f\'\16\'\u010b\13\'\3\'\3\'\3(\3(\3)\3)\7)\u0113\n)\f)\16)\u0116"+
+		"\13)\3*\3*\5*\u011a\n*\3*\3*\7*\u011e\n*\f*\16*\u0121\13*\5*\u0123\n*"+
+		"\3+\6+\u0126\n+\r+\16+\u0127\3+\3+\3,\3,\3,\3,\3,\2\2-\3\3\5\4\7\5\t\6"+
+		"\13\7\r\b\17\t\21\n\23\13\25\f\27\r\31\16\33\17\35\20\37\21!\22#\23%\24"+
+		"\'\25)\26+\27-\30/\31\61\32\63\33\65\34\67\359\36;\37= ?!A\"C#E$G%I&K"+
+		"\'M(O)Q*S+U,W-\3\2\6\5\2\f\f\17\17$$\4\2C\\c|\5\2\62;C\\c|\5\2\13\f\17"+
+		"\17\"\"\2\u0135\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3"+
+		"\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2"+
+		"\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2!\3"+
+		"\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3\2"+
+		"\2\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2\2"+
+		"9\3\2\2\2\2;\3\2\2\2\2=\3\2\2\2\2?\3\2\2\2\2A\3\2\2\2\2C\3\2\2\2\2E\3"+
+		"\2\2\2\2G\3\2\2\2\2I\3\2\2\2\2K\3\2\2\2\2M\3\2\2\2\2O\3\2\2\2\2Q\3\2\2"+
+		"\2\2S\3\2\2\2\2U\3\2\2\2\2W\3\2\2\2\3Y\3\2\2\2\5^\3\2\2\2\7b\3\2\2\2\t"+
+		"f\3\2\2\2\13j\3\2\2\2\ro\3\2\2\2\17s\3\2\2\2\21v\3\2\2\2\23y\3\2\2\2\25"+
+		"{\3\2\2\2\27\177\3\2\2\2\31\u0084\3\2\2\2\33\u0087\3\2\2\2\35\u008b\3"+
+		"\2\2\2\37\u008f\3\2\2\2!\u0093\3\2\2\2#\u0097\3\2\2\2%\u009b\3\2\2\2\'"+
+		"\u009f\3\2\2\2)\u00a3\3\2\2\2+\u00a7\3\2\2\2-\u00ab\3\2\2\2/\u00b3\3\2"+
+		"\2\2\61\u00b8\3\2\2\2\63\u00bd\3\2\2\2\65\u00c2\3\2\2\2\67\u00c8\3\2\2"+
+		"\29\u00ce\3\2\2\2;\u00d2\3\2\2\2=\u00da\3\2\2\2?\u00e0\3\2\2\2A\u00e3"+
+		"\3\2\2\2C\u00e9\3\2\2\2E\u00ee\3\2\2\2G\u00f4\3\2\2\2I\u00fa\3\2\2\2K"+
+		"\u00ff\3\2\2\2M\u0105\3\2\2\2O\u010e\3\2\2\2Q\u0110\3\2\2\2S\u0122\3\2"+
+		"\2\2U\u0125\3\2\2\2W\u012b\3\2\2\2YZ\7r\2\2Z[\7w\2\2[\\\7u\2\2\\]\7j\2"+
+		"\2]\4\3\2\2\2^_\7r\2\2_`\7q\2\2`a\7r\2\2a\6\3\2\2\2bc\7c\2\2cd\7f\2\2"+
+		"de\7f\2\2e\b\3\2\2\2fg\7u\2\2gh\7w\2\2hi\7d\2\2i\n\3\2\2\2jk\7o\2\2kl"+
+		"\7w\2\2lm\7n\2\2mn\7v\2\2n\f\3\2\2\2op\7f\2\2pq\7k\2\2qr\7x\2\2r\16\3"+
+		"\2\2\2st\7u\2\2tu\7y\2\2u\20\3\2\2\2vw\7n\2\2wx\7y\2\2x\22\3\2\2\2yz\7"+
+		"d\2\2z\24\3\2\2\2{|\7d\2\2|}\7g\2\2}~\7s\2\2~\26\3\2\2\2\177\u0080\7d"+
+		"\2\2\u0080\u0081\7n\2\2\u0081\u0082\7g\2\2\u0082\u0083\7s\2\2\u0083\30"+
+		"\3\2\2\2\u0084\u0085\7l\2\2\u0085\u0086\7u\2\2\u0086\32\3\2\2\2\u0087"+
+		"\u0088\7n\2\2\u0088\u0089\7t\2\2\u0089\u008a\7c\2\2\u008a\34\3\2\2\2\u008b"+
+		"\u008c\7u\2\2\u008c\u008d\7t\2\2\u008d\u008e\7c\2\2\u008e\36\3\2\2\2\u008f"+
+		"\u0090\7n\2\2\u0090\u0091\7v\2\2\u0091\u0092\7o\2\2\u0092 \3\2\2\2\u0093"+
+		"\u0094\7u\2\2\u0094\u0095\7v\2\2\u0095\u0096\7o\2\2\u0096\"\3\2\2\2\u0097"+
+		"\u0098\7n\2\2\u0098\u0099\7h\2\2\u0099\u009a\7r\2\2\u009a$\3\2\2\2\u009b"+
+		"\u009c\7u\2\2\u009c\u009d\7h\2\2\u009d\u009e\7r\2\2\u009e&\3\2\2\2\u009f"+
+		"\u00a0\7e\2\2\u00a0\u00a1\7h\2\2\u00a1\u00a2\7r\2\2\u00a2(\3\2\2\2\u00a3"+
+		"\u00a4\7n\2\2\u00a4\u00a5\7j\2\2\u00a5\u00a6\7r\2\2\u00a6*\3\2\2\2\u00a7"+
+		"\u00a8\7u\2\2\u00a8\u00a9\7j\2\2\u00a9\u00aa\7r\2\2\u00aa,\3\2\2\2\u00ab"+
+		"\u00ac\7t\2\2\u00ac\u00ad\7g\2\2\u00ad\u00ae\7u\2\2\u00ae\u00af\7g\2\2"+
+		"\u00af\u00b0\7t\2\2\u00b0\u00b1\7x\2\2\u00b1\u00b2\7g\2\2\u00b2.\3\2\2"+
+		"\2\u00b3\u00b4\7v\2\2\u00b4\u00b5\7c\2\2\u00b5\u00b6\7k\2\2\u00b6\u00b7"+
+		"\7n\2\2\u00b7\60\3\2\2\2\u00b8\u00b9\7h\2\2\u00b9\u00ba\7k\2\2\u00ba\u00bb"+
+		"\7n\2\2\u00bb\u00bc\7n\2\2\u00bc\62\3\2\2\2\u00bd\u00be\7e\2\2\u00be\u00bf"+
+		"\7c\2\2\u00bf\u00c0\7n\2\2\u00c0\u00c1\7n\2\2\u00c1\64\3\2\2\2\u00c2\u00c3"+
+		"\7g\2\2\u00c3\u00c4\7p\2\2\u00c4\u00c5\7v\2\2\u00c5\u00c6\7g\2\2\u00c6"+
+		"\u00c7\7t\2\2\u00c7\66\3\2\2\2\u00c8\u00c9\7n\2\2\u00c9\u00ca\7g\2\2\u00ca"+
+		"\u00cb\7c\2\2\u00cb\u00cc\7x\2\2\u00cc\u00cd\7g\2\2\u00cd8\3\2\2\2\u00ce"+
+		"\u00cf\7t\2\2\u00cf\u00d0\7g\2\2\u00d0\u00d1\7v\2\2\u00d1:\3\2\2\2\u00d2"+
+		"\u00d3\7f\2\2\u00d3\u00d4\7k\2\2\u00d4\u00d5\7u\2\2\u00d5\u00d6\7r\2\2"+
+		"\u00d6\u00d7\7n\2\2\u00d7\u00d8\7c\2\2\u00d8\u00d9\7{\2\2\u00d9<\3\2\2"+
+		"\2\u00da\u00db\7n\2\2\u00db\u00dc\7f\2\2\u00dc\u00dd\7k\2\2\u00dd\u00de"+
+		"\7u\2\2\u00de\u00df\7r\2\2\u00df>\3\2\2\2\u00e0\u00e1\7n\2\2\u00e1\u00e2"+
+		"\7i\2\2\u00e2@\3\2\2\2\u00e3\u00e4\7r\2\2\u00e4\u00e5\7t\2\2\u00e5\u00e6"+
+		"\7k\2\2\u00e6\u00e7\7p\2\2\u00e7\u00e8\7v\2\2\u00e8B\3\2\2\2\u00e9\u00ea"+
+		"\7j\2\2\u00ea\u00eb\7c\2\2\u00eb\u00ec\7n\2\2\u00ec\u00ed\7v\2\2\u00ed"+
+		"D\3\2\2\2\u00ee\u00ef\7t\2\2\u00ef\u00f0\7q\2\2\u00f0\u00f1\7q\2\2\u00f1"+
+		"\u00f2\7v\2\2\u00f2\u00f3\7u\2\2\u00f3F\3\2\2\2\u00f4\u00f5\7h\2\2\u00f5"+
+		"\u00f6\7t\2\2\u00f6\u00f7\7c\2\2\u00f7\u00f8\7o\2\2\u00f8\u00f9\7g\2\2"+
+		"\u00f9H\3\2\2\2\u00fa\u00fb\7n\2\2\u00fb\u00fc\7k\2\2\u00fc\u00fd\7p\2"+
+		"\2\u00fd\u00fe\7g\2\2\u00feJ\3\2\2\2\u00ff\u0100\7u\2\2\u0100\u0101\7"+
+		"e\2\2\u0101\u0102\7q\2\2\u0102\u0103\7r\2\2\u0103\u0104\7g\2\2\u0104L"+
+		"\3\2\2\2\u0105\u0109\7$\2\2\u0106\u0108\n\2\2\2\u0107\u0106\3\2\2\2\u0108"+
+		"\u010b\3\2\2\2\u0109\u0107\3\2\2\2\u0109\u010a\3\2\2\2\u010a\u010c\3\2"+
+		"\2\2\u010b\u0109\3\2\2\2\u010c\u010d\7$\2\2\u010dN\3\2\2\2\u010e\u010f"+
+		"\7<\2\2\u010fP\3\2\2\2\u0110\u0114\t\3\2\2\u0111\u0113\t\4\2\2\u0112\u0111"+
+		"\3\2\2\2\u0113\u0116\3\2\2\2\u0114\u0112\3\2\2\2\u0114\u0115\3\2\2\2\u0115"+
+		"R\3\2\2\2\u0116\u0114\3\2\2\2\u0117\u0123\7\62\2\2\u0118\u011a\7/\2\2"+
+		"\u0119\u0118\3\2\2\2\u0119\u011a\3\2\2\2\u011a\u011b\3\2\2\2\u011b\u011f"+
+		"\4\63;\2\u011c\u011e\4\62;\2\u011d\u011c\3\2\2\2\u011e\u0121\3\2\2\2\u011f"+
+		"\u011d\3\2\2\2\u011f\u0120\3\2\2\2\u0120\u0123\3\2\2\2\u0121\u011f\3\2"+
+		"\2\2\u0122\u0117\3\2\2\2\u0122\u0119\3\2\2\2\u0123T\3\2\2\2\u0124\u0126"+
+		"\t\5\2\2\u0125\u0124\3\2\2\2\u0126\u0127\3\2\2\2\u0127\u0125\3\2\2\2\u0127"+
+		"\u0128\3\2\2\2\u0128\u0129\3\2\2\2\u0129\u012a\b+\2\2\u012aV\3\2\2\2\u012b"+
+		"\u012c\13\2\2\2\u012c\u012d\b,\3\2\u012d\u012e\3\2\2\2\u012e\u012f\b,"+
+		"\2\2\u012fX\3\2\2\2\t\2\u0109\u0114\u0119\u011f\u0122\u0127\4\2\3\2\3"+
+		",\2";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -2,6 +2,7 @@
 package svm;
 
 	import java.util.HashMap;
+	import java.util.List;
 
 import org.antlr.v4.runtime.atn.*;
 import org.antlr.v4.runtime.dfa.DFA;
@@ -22,8 +23,11 @@ public class SVMParser extends Parser {
 	public static final int
 		PUSH=1, POP=2, ADD=3, SUB=4, MULT=5, DIV=6, STOREW=7, LOADW=8, BRANCH=9, 
 		BRANCHEQ=10, BRANCHLESSEQ=11, JS=12, LOADRA=13, STORERA=14, LOADTM=15, 
-		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, PRINT=22, 
-		HALT=23, COL=24, LABEL=25, INTEGER=26, WHITESP=27, ERR=28;
+		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, RESERVE=22, 
+		TAILCALL=23, FILL=24, CALL=25, ENTER=26, LEAVE=27, RET=28, DISPLAY=29, 
+		LOADDISPLAY=30, LOADGLOBAL=31, PRINT=32, HALT=33, ROOTS=34, FRAME=35, 
+		LINE=36, SCOPE=37, STRING=38, COL=39, LABEL=40, INTEGER=41, WHITESP=42, 
+		ERR=43;
 	public static final int
 		RULE_assembly = 0, RULE_instruction = 1;
 	private static String[] makeRuleNames() {
@@ -37,8 +41,10 @@ public class SVMParser extends Parser {
 		return new String[] {
 			null, "'push'", "'pop'", "'add'", "'sub'", "'mult'", "'div'", "'sw'", 
 			"'lw'", "'b'", "'beq'", "'bleq'", "'js'", "'lra'", "'sra'", "'ltm'", 
-			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'print'", "'halt'", 
-			"':'"
+			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'reserve'", "'tail'", 
+			"'fill'", "'call'", "'enter'", "'leave'", "'ret'", "'display'", "'ldisp'", 
+			"'lg'", "'print'", "'halt'", "'roots'", "'frame'", "'line'", "'scope'", 
+			null, "':'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
@@ -46,8 +52,10 @@ public class SVMParser extends Parser {
 		return new String[] {
 			null, "PUSH", "POP", "ADD", "SUB", "MULT", "DIV", "STOREW", "LOADW", 
 			"BRANCH", "BRANCHEQ", "BRANCHLESSEQ", "JS", "LOADRA", "STORERA", "LOADTM", 
-			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "PRINT", 
-			"HALT", "COL", "LABEL", "INTEGER", "WHITESP", "ERR"
+			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "RESERVE", 
+			"TAILCALL", "FILL", "CALL", "ENTER", "LEAVE", "RET", "DISPLAY", "LOADDISPLAY", 
+			"LOADGLOBAL", "PRINT", "HALT", "ROOTS", "FRAME", "LINE", "SCOPE", "STRING", 
+			"COL", "LABEL", "INTEGER", "WHITESP", "ERR"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -117,12 +125,22 @@ public class SVMParser extends Parser {
 						/* ad ogni token viene associato in maniera automatica da antlr 
 						 * un numero(SVM.tokens)
 						 */
-	private HashMap<String,Integer> labelDef = new HashMap<String,Integer>();	/* chiave id numerico
+	public HashMap<String,Integer> labelDef = new HashMap<String,Integer>();	/* chiave id numerico
 																				 * le chiavi push pop 
 																				 */ 
 	private HashMap<Integer,String> labelRef = new HashMap<Integer,String>();	/* id numerico chiave
 																				 * un numero per ogni token
 																				 */
+	public HashMap<Integer,int[]> roots = new HashMap<Integer,int[]>();	// stack maps of the safepoints, by address (see Collector)
+	public HashMap<Integer,int[]> frames = new HashMap<Integer,int[]>();	// frame layouts of the functions, by entry address (see Collector)
+	public HashMap<Integer,Integer> lines = new HashMap<Integer,Integer>();	// FOOL line of the code from each address on (see SourceMap)
+	public HashMap<Integer,String> scopes = new HashMap<Integer,String>();	// FOOL function or method of the code from each address on (see SourceMap)
+
+	private static int[] words(List<Token> w) {
+		int[] a = new int[w.size()];
+		for (int k = 0; k < a.length; k++) a[k] = Integer.parseInt(w.get(k).getText());
+		return a;
+	}
 
 	public SVMParser(TokenStream input) {
 		super(input);
@@ -158,7 +176,7 @@ public class SVMParser extends Parser {
 			setState(7);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
-			while ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << PUSH) | (1L << POP) | (1L << ADD) | (1L << SUB) | (1L << MULT) | (1L << DIV) | (1L << STOREW) | (1L << LOADW) | (1L << BRANCH) | (1L << BRANCHEQ) | (1L << BRANCHLESSEQ) | (1L << JS) | (1L << LOADRA) | (1L << STORERA) | (1L << LOADTM) | (1L << STORETM) | (1L << LOADFP) | (1L << STOREFP) | (1L << COPYFP) | (1L << LOADHP) | (1L << STOREHP) | (1L << PRINT) | (1L << HALT) | (1L << LABEL))) != 0)) {
+			while ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << PUSH) | (1L << POP) | (1L << ADD) | (1L << SUB) | (1L << MULT) | (1L << DIV) | (1L << STOREW) | (1L << LOADW) | (1L << BRANCH) | (1L << BRANCHEQ) | (1L << BRANCHLESSEQ) | (1L << JS) | (1L << LOADRA) | (1L << STORERA) | (1L << LOADTM) | (1L << STORETM) | (1L << LOADFP) | (1L << STOREFP) | (1L << COPYFP) | (1L << LOADHP) | (1L << STOREHP) | (1L << RESERVE) | (1L << TAILCALL) | (1L << FILL) | (1L << CALL) | (1L << ENTER) | (1L << LEAVE) | (1L << RET) | (1L << DISPLAY) | (1L << LOADDISPLAY) | (1L << LOADGLOBAL) | (1L << PRINT) | (1L << HALT) | (1L << ROOTS) | (1L << FRAME) | (1L << LINE) | (1L << SCOPE) | (1L << LABEL))) != 0)) {
 				{
 				{
 				setState(4);
@@ -190,8 +208,14 @@ public class SVMParser extends Parser {
 	public static class InstructionContext extends ParserRuleContext {
 		public Token n;
 		public Token l;
+		public Token INTEGER;
+		public List<Token> w = new ArrayList<Token>();
+		public Token s;
 		public TerminalNode PUSH() { return getToken(SVMParser.PUSH, 0); }
-		public TerminalNode INTEGER() { return getToken(SVMParser.INTEGER, 0); }
+		public List<TerminalNode> INTEGER() { return getTokens(SVMParser.INTEGER); }
+		public TerminalNode INTEGER(int i) {
+			return getToken(SVMParser.INTEGER, i);
+		}
 		public TerminalNode LABEL() { return getToken(SVMParser.LABEL, 0); }
 		public TerminalNode POP() { return getToken(SVMParser.POP, 0); }
 		public TerminalNode ADD() { return getToken(SVMParser.ADD, 0); }
@@ -214,6 +238,21 @@ public class SVMParser extends Parser {
 		public TerminalNode COPYFP() { return getToken(SVMParser.COPYFP, 0); }
 		public TerminalNode LOADHP() { return getToken(SVMParser.LOADHP, 0); }
 		public TerminalNode STOREHP() { return getToken(SVMParser.STOREHP, 0); }
+		public TerminalNode RESERVE() { return getToken(SVMParser.RESERVE, 0); }
+		public TerminalNode TAILCALL() { return getToken(SVMParser.TAILCALL, 0); }
+		public TerminalNode FILL() { return getToken(SVMParser.FILL, 0); }
+		public TerminalNode CALL() { return getToken(SVMParser.CALL, 0); }
+		public TerminalNode ENTER() { return getToken(SVMParser.ENTER, 0); }
+		public TerminalNode LEAVE() { return getToken(SVMParser.LEAVE, 0); }
+		public TerminalNode RET() { return getToken(SVMParser.RET, 0); }
+		public TerminalNode DISPLAY() { return getToken(SVMParser.DISPLAY, 0); }
+		public TerminalNode LOADDISPLAY() { return getToken(SVMParser.LOADDISPLAY, 0); }
+		public TerminalNode LOADGLOBAL() { return getToken(SVMParser.LOADGLOBAL, 0); }
+		public TerminalNode ROOTS() { return getToken(SVMParser.ROOTS, 0); }
+		public TerminalNode FRAME() { return getToken(SVMParser.FRAME, 0); }
+		public TerminalNode LINE() { return getToken(SVMParser.LINE, 0); }
+		public TerminalNode SCOPE() { return getToken(SVMParser.SCOPE, 0); }
+		public TerminalNode STRING() { return getToken(SVMParser.STRING, 0); }
 		public TerminalNode PRINT() { return getToken(SVMParser.PRINT, 0); }
 		public TerminalNode HALT() { return getToken(SVMParser.HALT, 0); }
 		public InstructionContext(ParserRuleContext parent, int invokingState) {
@@ -230,10 +269,11 @@ public class SVMParser extends Parser {
 	public final InstructionContext instruction() throws RecognitionException {
 		InstructionContext _localctx = new InstructionContext(_ctx, getState());
 		enterRule(_localctx, 2, RULE_instruction);
+		int _la;
 		try {
-			setState(69);
+			setState(117);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,1,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,3,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
@@ -439,14 +479,178 @@ public class SVMParser extends Parser {
 				enterOuterAlt(_localctx, 24);
 				{
 				setState(65);
-				match(PRINT);
-				code[i++] = PRINT;
+				match(RESERVE);
+				setState(66);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = RESERVE;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
 				}
 				break;
 			case 25:
 				enterOuterAlt(_localctx, 25);
 				{
-				setState(67);
+				setState(68);
+				match(TAILCALL);
+				setState(69);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = TAILCALL;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
+				}
+				break;
+			case 26:
+				enterOuterAlt(_localctx, 26);
+				{
+				setState(71);
+				match(FILL);
+				code[i++] = FILL;
+				}
+				break;
+			case 27:
+				enterOuterAlt(_localctx, 27);
+				{
+				setState(73);
+				match(CALL);
+				code[i++] = CALL;
+				}
+				break;
+			case 28:
+				enterOuterAlt(_localctx, 28);
+				{
+				setState(75);
+				match(ENTER);
+				code[i++] = ENTER;
+				}
+				break;
+			case 29:
+				enterOuterAlt(_localctx, 29);
+				{
+				setState(77);
+				match(LEAVE);
+				setState(78);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = LEAVE;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
+				}
+				break;
+			case 30:
+				enterOuterAlt(_localctx, 30);
+				{
+				setState(80);
+				match(RET);
+				code[i++] = RET;
+				}
+				break;
+			case 31:
+				enterOuterAlt(_localctx, 31);
+				{
+				setState(82);
+				match(DISPLAY);
+				setState(83);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = DISPLAY;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
+				}
+				break;
+			case 32:
+				enterOuterAlt(_localctx, 32);
+				{
+				setState(85);
+				match(LOADDISPLAY);
+				setState(86);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = LOADDISPLAY;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
+				}
+				break;
+			case 33:
+				enterOuterAlt(_localctx, 33);
+				{
+				setState(88);
+				match(LOADGLOBAL);
+				setState(89);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				code[i++] = LOADGLOBAL;
+										code[i++] = Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null));
+				}
+				break;
+			case 34:
+				enterOuterAlt(_localctx, 34);
+				{
+				setState(91);
+				match(ROOTS);
+				setState(95);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				while (_la==INTEGER) {
+					{
+					{
+					setState(92);
+					((InstructionContext)_localctx).INTEGER = match(INTEGER);
+					((InstructionContext)_localctx).w.add(((InstructionContext)_localctx).INTEGER);
+					}
+					}
+					setState(97);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				}
+				roots.put(i, words(((InstructionContext)_localctx).w));
+				}
+				break;
+			case 35:
+				enterOuterAlt(_localctx, 35);
+				{
+				setState(99);
+				match(FRAME);
+				setState(103);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				while (_la==INTEGER) {
+					{
+					{
+					setState(100);
+					((InstructionContext)_localctx).INTEGER = match(INTEGER);
+					((InstructionContext)_localctx).w.add(((InstructionContext)_localctx).INTEGER);
+					}
+					}
+					setState(105);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				}
+				frames.put(i, words(((InstructionContext)_localctx).w));
+				}
+				break;
+			case 36:
+				enterOuterAlt(_localctx, 36);
+				{
+				setState(107);
+				match(LINE);
+				setState(108);
+				((InstructionContext)_localctx).n = match(INTEGER);
+				lines.put(i, Integer.parseInt((((InstructionContext)_localctx).n!=null?((InstructionContext)_localctx).n.getText():null)));
+				}
+				break;
+			case 37:
+				enterOuterAlt(_localctx, 37);
+				{
+				setState(110);
+				match(SCOPE);
+				setState(111);
+				((InstructionContext)_localctx).s = match(STRING);
+				scopes.put(i, (((InstructionContext)_localctx).s!=null?((InstructionContext)_localctx).s.getText():null).substring(1, (((InstructionContext)_localctx).s!=null?((InstructionContext)_localctx).s.getText():null).length()-1));
+				}
+				break;
+			case 38:
+				enterOuterAlt(_localctx, 38);
+				{
+				setState(113);
+				match(PRINT);
+				code[i++] = PRINT;
+				}
+				break;
+			case 39:
+				enterOuterAlt(_localctx, 39);
+				{
+				setState(115);
 				match(HALT);
 				code[i++] = HALT;
 				}
@@ -465,28 +669,39 @@ public class SVMParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3\36J\4\2\t\2\4\3\t"+
-		"\3\3\2\7\2\b\n\2\f\2\16\2\13\13\2\3\2\3\2\3\2\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3-z\4\2\t\2\4\3\t\3"+
+		"\3\2\7\2\b\n\2\f\2\16\2\13\13\2\3\2\3\2\3\2\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
+		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
 		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
 		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3"+
-		"\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\5\3H\n\3"+
-		"\3\3\2\2\4\2\4\2\2\2`\2\t\3\2\2\2\4G\3\2\2\2\6\b\5\4\3\2\7\6\3\2\2\2\b"+
-		"\13\3\2\2\2\t\7\3\2\2\2\t\n\3\2\2\2\n\f\3\2\2\2\13\t\3\2\2\2\f\r\7\2\2"+
-		"\3\r\16\b\2\1\2\16\3\3\2\2\2\17\20\7\3\2\2\20\21\7\34\2\2\21H\b\3\1\2"+
-		"\22\23\7\3\2\2\23\24\7\33\2\2\24H\b\3\1\2\25\26\7\4\2\2\26H\b\3\1\2\27"+
-		"\30\7\5\2\2\30H\b\3\1\2\31\32\7\6\2\2\32H\b\3\1\2\33\34\7\7\2\2\34H\b"+
-		"\3\1\2\35\36\7\b\2\2\36H\b\3\1\2\37 \7\t\2\2 H\b\3\1\2!\"\7\n\2\2\"H\b"+
-		"\3\1\2#$\7\33\2\2$%\7\32\2\2%H\b\3\1\2&\'\7\13\2\2\'(\7\33\2\2(H\b\3\1"+
-		"\2)*\7\f\2\2*+\7\33\2\2+H\b\3\1\2,-\7\r\2\2-.\7\33\2\2.H\b\3\1\2/\60\7"+
-		"\16\2\2\60H\b\3\1\2\61\62\7\17\2\2\62H\b\3\1\2\63\64\7\20\2\2\64H\b\3"+
-		"\1\2\65\66\7\21\2\2\66H\b\3\1\2\678\7\22\2\28H\b\3\1\29:\7\23\2\2:H\b"+
-		"\3\1\2;<\7\24\2\2<H\b\3\1\2=>\7\25\2\2>H\b\3\1\2?@\7\26\2\2@H\b\3\1\2"+
-		"AB\7\27\2\2BH\b\3\1\2CD\7\30\2\2DH\b\3\1\2EF\7\31\2\2FH\b\3\1\2G\17\3"+
-		"\2\2\2G\22\3\2\2\2G\25\3\2\2\2G\27\3\2\2\2G\31\3\2\2\2G\33\3\2\2\2G\35"+
-		"\3\2\2\2G\37\3\2\2\2G!\3\2\2\2G#\3\2\2\2G&\3\2\2\2G)\3\2\2\2G,\3\2\2\2"+
-		"G/\3\2\2\2G\61\3\2\2\2G\63\3\2\2\2G\65\3\2\2\2G\67\3\2\2\2G9\3\2\2\2G"+
-		";\3\2\2\2G=\3\2\2\2G?\3\2\2\2GA\3\2\2\2GC\3\2\2\2GE\3\2\2\2H\5\3\2\2\2"+
-		"\4\tG";
+		"\3\3\3\3\3\3\3\7\3`\n\3\f\3\16\3c\13\3\3\3\3\3\3\3\7\3h\n\3\f\3\16\3k"+
+		"\13\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\3\5\3x\n\3\3\3\2\2\4\2"+
+		"\4\2\2\2\u00a0\2\t\3\2\2\2\4w\3\2\2\2\6\b\5\4\3\2\7\6\3\2\2\2\b\13\3\2"+
+		"\2\2\t\7\3\2\2\2\t\n\3\2\2\2\n\f\3\2\2\2\13\t\3\2\2\2\f\r\7\2\2\3\r\16"+
+		"\b\2\1\2\16\3\3\2\2\2\17\20\7\3\2\2\20\21\7+\2\2\21x\b\3\1\2\22\23\7\3"+
+		"\2\2\23\24\7*\2\2\24x\b\3\1\2\25\26\7\4\2\2\26x\b\3\1\2\27\30\7\5\2\2"+
+		"\30x\b\3\1\2\31\32\7\6\2\2\32x\b\3\1\2\33\34\7\7\2\2\34x\b\3\1\2\35\36"+
+		"\7\b\2\2\36x\b\3\1\2\37 \7\t\2\2 x\b\3\1\2!\"\7\n\2\2\"x\b\3\1\2#$\7*"+
+		"\2\2$%\7)\2\2%x\b\3\1\2&\'\7\13\2\2\'(\7*\2\2(x\b\3\1\2)*\7\f\2\2*+\7"+
+		"*\2\2+x\b\3\1\2,-\7\r\2\2-.\7*\2\2.x\b\3\1\2/\60\7\16\2\2\60x\b\3\1\2"+
+		"\61\62\7\17\2\2\62x\b\3\1\2\63\64\7\20\2\2\64x\b\3\1\2\65\66\7\21\2\2"+
+		"\66x\b\3\1\2\678\7\22\2\28x\b\3\1\29:\7\23\2\2:x\b\3\1\2;<\7\24\2\2<x"+
+		"\b\3\1\2=>\7\25\2\2>x\b\3\1\2?@\7\26\2\2@x\b\3\1\2AB\7\27\2\2Bx\b\3\1"+
+		"\2CD\7\30\2\2DE\7+\2\2Ex\b\3\1\2FG\7\31\2\2GH\7+\2\2Hx\b\3\1\2IJ\7\32"+
+		"\2\2Jx\b\3\1\2KL\7\33\2\2Lx\b\3\1\2MN\7\34\2\2Nx\b\3\1\2OP\7\35\2\2PQ"+
+		"\7+\2\2Qx\b\3\1\2RS\7\36\2\2Sx\b\3\1\2TU\7\37\2\2UV\7+\2\2Vx\b\3\1\2W"+
+		"X\7 \2\2XY\7+\2\2Yx\b\3\1\2Z[\7!\2\2[\\\7+\2\2\\x\b\3\1\2]a\7$\2\2^`\7"+
+		"+\2\2_^\3\2\2\2`c\3\2\2\2a_\3\2\2\2ab\3\2\2\2bd\3\2\2\2ca\3\2\2\2dx\b"+
+		"\3\1\2ei\7%\2\2fh\7+\2\2gf\3\2\2\2hk\3\2\2\2ig\3\2\2\2ij\3\2\2\2jl\3\2"+
+		"\2\2ki\3\2\2\2lx\b\3\1\2mn\7&\2\2no\7+\2\2ox\b\3\1\2pq\7\'\2\2qr\7(\2"+
+		"\2rx\b\3\1\2st\7\"\2\2tx\b\3\1\2uv\7#\2\2vx\b\3\1\2w\17\3\2\2\2w\22\3"+
+		"\2\2\2w\25\3\2\2\2w\27\3\2\2\2w\31\3\2\2\2w\33\3\2\2\2w\35\3\2\2\2w\37"+
+		"\3\2\2\2w!\3\2\2\2w#\3\2\2\2w&\3\2\2\2w)\3\2\2\2w,\3\2\2\2w/\3\2\2\2w"+
+		"\61\3\2\2\2w\63\3\2\2\2w\65\3\2\2\2w\67\3\2\2\2w9\3\2\2\2w;\3\2\2\2w="+
+		"\3\2\2\2w?\3\2\2\2wA\3\2\2\2wC\3\2\2\2wF\3\2\2\2wI\3\2\2\2wK\3\2\2\2w"+
+		"M\3\2\2\2wO\3\2\2\2wR\3\2\2\2wT\3\2\2\2wW\3\2\2\2wZ\3\2\2\2w]\3\2\2\2"+
+		"we\3\2\2\2wm\3\2\2\2wp\3\2\2\2ws\3\2\2\2wu\3\2\2\2x\5\3\2\2\2\6\taiw";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -2,6 +2,7 @@
 package svm;
 
 	import java.util.HashMap;
+	import java.util.List;
 
 import org.antlr.v4.runtime.tree.ParseTreeVisitor;
 
@@ -19,8 +19,11 @@ public class SVMLexer extends Lexer {
 	public static final int
 		PUSH=1, POP=2, ADD=3, SUB=4, MULT=5, DIV=6, STOREW=7, LOADW=8, BRANCH=9, 
 		BRANCHEQ=10, BRANCHLESSEQ=11, JS=12, LOADRA=13, STORERA=14, LOADTM=15, 
-		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, PRINT=22, 
-		HALT=23, COL=24, LABEL=25, INTEGER=26, COMMENT=27, WHITESP=28, ERR=29;
+		STORETM=16, LOADFP=17, STOREFP=18, COPYFP=19, LOADHP=20, STOREHP=21, RESERVE=22, 
+		TAILCALL=23, FILL=24, CALL=25, ENTER=26, LEAVE=27, RET=28, DISPLAY=29, 
+		LOADDISPLAY=30, LOADGLOBAL=31, PRINT=32, HALT=33, ROOTS=34, FRAME=35, 
+		LINE=36, SCOPE=37, STRING=38, COL=39, LABEL=40, INTEGER=41, COMMENT=42, 
+		WHITESP=43, ERR=44;
 	public static String[] channelNames = {
 		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
 	};
@@ -33,8 +36,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			"PUSH", "POP", "ADD", "SUB", "MULT", "DIV", "STOREW", "LOADW", "BRANCH", 
 			"BRANCHEQ", "BRANCHLESSEQ", "JS", "LOADRA", "STORERA", "LOADTM", "STORETM", 
-			"LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "PRINT", "HALT", 
-			"COL", "LABEL", "INTEGER", "COMMENT", "WHITESP", "ERR"
+			"LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "RESERVE", "TAILCALL", 
+			"FILL", "CALL", "ENTER", "LEAVE", "RET", "DISPLAY", "LOADDISPLAY", "LOADGLOBAL", 
+			"PRINT", "HALT", "ROOTS", "FRAME", "LINE", "SCOPE", "STRING", "COL", 
+			"LABEL", "INTEGER", "COMMENT", "WHITESP", "ERR"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
@@ -43,8 +48,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			null, "'push'", "'pop'", "'add'", "'sub'", "'mult'", "'div'", "'sw'", 
 			"'lw'", "'b'", "'beq'", "'bleq'", "'js'", "'lra'", "'sra'", "'ltm'", 
-			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'print'", "'halt'", 
-			"':'"
+			"'stm'", "'lfp'", "'sfp'", "'cfp'", "'lhp'", "'shp'", "'reserve'", "'tail'", 
+			"'fill'", "'call'", "'enter'", "'leave'", "'ret'", "'display'", "'ldisp'", 
+			"'lg'", "'print'", "'halt'", "'roots'", "'frame'", "'line'", "'scope'", 
+			null, "':'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
@@ -52,8 +59,10 @@ public class SVMLexer extends Lexer {
 		return new String[] {
 			null, "PUSH", "POP", "ADD", "SUB", "MULT", "DIV", "STOREW", "LOADW", 
 			"BRANCH", "BRANCHEQ", "BRANCHLESSEQ", "JS", "LOADRA", "STORERA", "LOADTM", 
-			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "PRINT", 
-			"HALT", "COL", "LABEL", "INTEGER", "COMMENT", "WHITESP", "ERR"
+			"STORETM", "LOADFP", "STOREFP", "COPYFP", "LOADHP", "STOREHP", "RESERVE", 
+			"TAILCALL", "FILL", "CALL", "ENTER", "LEAVE", "RET", "DISPLAY", "LOADDISPLAY", 
+			"LOADGLOBAL", "PRINT", "HALT", "ROOTS", "FRAME", "LINE", "SCOPE", "STRING", 
+			"COL", "LABEL", "INTEGER", "COMMENT", "WHITESP", "ERR"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -120,7 +129,7 @@ public class SVMLexer extends Lexer {
 	@Override
 	public void action(RuleContext _localctx, int ruleIndex, int actionIndex) {
 		switch (ruleIndex) {
-		case 28:
+		case 43:
 			ERR_action((RuleContext)_localctx, actionIndex);
 			break;
 		}
@@ -134,67 +143,105 @@ public class SVMLexer extends Lexer {
 	}
 
 	public static final String _serializedATN =
-		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2\37\u00ca\b\1\4\2"+
-		"\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4"+
-		"\13\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22"+
-		"\t\22\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31"+
-		"\t\31\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\3\2\3\2\3\2\3"+
-		"\2\3\2\3\3\3\3\3\3\3\3\3\4\3\4\3\4\3\4\3\5\3\5\3\5\3\5\3\6\3\6\3\6\3\6"+
-		"\3\6\3\7\3\7\3\7\3\7\3\b\3\b\3\b\3\t\3\t\3\t\3\n\3\n\3\13\3\13\3\13\3"+
-		"\13\3\f\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\16\3\16\3\16\3\16\3\17\3\17\3\17"+
-		"\3\17\3\20\3\20\3\20\3\20\3\21\3\21\3\21\3\21\3\22\3\22\3\22\3\22\3\23"+
-		"\3\23\3\23\3\23\3\24\3\24\3\24\3\24\3\25\3\25\3\25\3\25\3\26\3\26\3\26"+
-		"\3\26\3\27\3\27\3\27\3\27\3\27\3\27\3\30\3\30\3\30\3\30\3\30\3\31\3\31"+
-		"\3\32\3\32\7\32\u009f\n\32\f\32\16\32\u00a2\13\32\3\33\3\33\5\33\u00a6"+
-		"\n\33\3\33\3\33\7\33\u00aa\n\33\f\33\16\33\u00ad\13\33\5\33\u00af\n\33"+
-		"\3\34\3\34\3\34\3\34\7\34\u00b5\n\34\f\34\16\34\u00b8\13\34\3\34\3\34"+
-		"\3\34\3\34\3\34\3\35\6\35\u00c0\n\35\r\35\16\35\u00c1\3\35\3\35\3\36\3"+
-		"\36\3\36\3\36\3\36\3\u00b6\2\37\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23"+
-		"\13\25\f\27\r\31\16\33\17\35\20\37\21!\22#\23%\24\'\25)\26+\27-\30/\31"+
-		"\61\32\63\33\65\34\67\359\36;\37\3\2\5\4\2C\\c|\5\2\62;C\\c|\5\2\13\f"+
-		"\17\17\"\"\2\u00cf\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13"+
-		"\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2"+
-		"\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2"+
-		"!\3\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3"+
-		"\2\2\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2"+
-		"\29\3\2\2\2\2;\3\2\2\2\3=\3\2\2\2\5B\3\2\2\2\7F\3\2\2\2\tJ\3\2\2\2\13"+
-		"N\3\2\2\2\rS\3\2\2\2\17W\3\2\2\2\21Z\3\2\2\2\23]\3\2\2\2\25_\3\2\2\2\27"+
-		"c\3\2\2\2\31h\3\2\2\2\33k\3\2\2\2\35o\3\2\2\2\37s\3\2\2\2!w\3\2\2\2#{"+
-		"\3\2\2\2%\177\3\2\2\2\'\u0083\3\2\2\2)\u0087\3\2\2\2+\u008b\3\2\2\2-\u008f"+
-		"\3\2\2\2/\u0095\3\2\2\2\61\u009a\3\2\2\2\63\u009c\3\2\2\2\65\u00ae\3\2"+
-		"\2\2\67\u00b0\3\2\2\29\u00bf\3\2\2\2;\u00c5\3\2\2\2=>\7r\2\2>?\7w\2\2"+
-		"?@\7u\2\2@A\7j\2\2A\4\3\2\2\2BC\7r\2\2CD\7q\2\2DE\7r\2\2E\6\3\2\2\2FG"+
-		"\7c\2\2GH\7f\2\2HI\7f\2\2I\b\3\2\2\2JK\7u\2\2KL\7w\2\2LM\7d\2\2M\n\3\2"+
-		"\2\2NO\7o\2\2OP\7w\2\2PQ\7n\2\2QR\7v\2\2R\f\3\2\2\2ST\7f\2\2TU\7k\2\2"+
-		"UV\7x\2\2V\16\3\2\2\2WX\7u\2\2XY\7y\2\2Y\20\3\2\2\2Z[\7n\2\2[\\\7y\2\2"+
-		"\\\22\3\2\2\2]^\7d\2\2^\24\3\2\2\2_`\7d\2\2`a\7g\2\2ab\7s\2\2b\26\3\2"+
-		"\2\2cd\7d\2\2de\7n\2\2ef\7g\2\2fg\7s\2\2g\30\3\2\2\2hi\7l\2\2ij\7u\2\2"+
-		"j\32\3\2\2\2kl\7n\2\2lm\7t\2\2mn\7c\2\2n\34\3\2\2\2op\7u\2\2pq\7t\2\2"+
-		"qr\7c\2\2r\36\3\2\2\2st\7n\2\2tu\7v\2\2uv\7o\2\2v \3\2\2\2wx\7u\2\2xy"+
-		"\7v\2\2yz\7o\2\2z\"\3\2\2\2{|\7n\2\2|}\7h\2\2}~\7r\2\2~$\3\2\2\2\177\u0080"+
-		"\7u\2\2\u0080\u0081\7h\2\2\u0081\u0082\7r\2\2\u0082&\3\2\2\2\u0083\u0084"+
-		"\7e\2\2\u0084\u0085\7h\2\2\u0085\u0086\7r\2\2\u0086(\3\2\2\2\u0087\u0088"+
-		"\7n\2\2\u0088\u0089\7j\2\2\u0089\u008a\7r\2\2\u008a*\3\2\2\2\u008b\u008c"+
-		"\7u\2\2\u008c\u008d\7j\2\2\u008d\u008e\7r\2\2\u008e,\3\2\2\2\u008f\u0090"+
-		"\7r\2\2\u0090\u0091\7t\2\2\u0091\u0092\7k\2\2\u0092\u0093\7p\2\2\u0093"+
-		"\u0094\7v\2\2\u0094.\3\2\2\2\u0095\u0096\7j\2\2\u0096\u0097\7c\2\2\u0097"+
-		"\u0098\7n\2\2\u0098\u0099\7v\2\2\u0099\60\3\2\2\2\u009a\u009b\7<\2\2\u009b"+
-		"\62\3\2\2\2\u009c\u00a0\t\2\2\2\u009d\u009f\t\3\2\2\u009e\u009d\3\2\2"+
-		"\2\u009f\u00a2\3\2\2\2\u00a0\u009e\3\2\2\2\u00a0\u00a1\3\2\2\2\u00a1\64"+
-		"\3\2\2\2\u00a2\u00a0\3\2\2\2\u00a3\u00af\7\62\2\2\u00a4\u00a6\7/\2\2\u00a5"+
-		"\u00a4\3\2\2\2\u00a5\u00a6\3\2\2\2\u00a6\u00a7\3\2\2\2\u00a7\u00ab\4\63"+
-		";\2\u00a8\u00aa\4\62;\2\u00a9\u00a8\3\2\2\2\u00aa\u00ad\3\2\2\2\u00ab"+
-		"\u00a9\3\2\2\2\u00ab\u00ac\3\2\2\2\u00ac\u00af\3\2\2\2\u00ad\u00ab\3\2"+
-		"\2\2\u00ae\u00a3\3\2\2\2\u00ae\u00a5\3\2\2\2\u00af\66\3\2\2\2\u00b0\u00b1"+
-		"\7\61\2\2\u00b1\u00b2\7,\2\2\u00b2\u00b6\3\2\2\2\u00b3\u00b5\13\2\2\2"+
-		"\u00b4\u00b3\3\2\2\2\u00b5\u00b8\3\2\2\2\u00b6\u00b7\3\2\2\2\u00b6\u00b4"+
-		"\3\2\2\2\u00b7\u00b9\3\2\2\2\u00b8\u00b6\3\2\2\2\u00b9\u00ba\7,\2\2\u00ba"+
-		"\u00bb\7\61\2\2\u00bb\u00bc\3\2\2\2\u00bc\u00bd\b\34\2\2\u00bd8\3\2\2"+
-		"\2\u00be\u00c0\t\4\2\2\u00bf\u00be\3\2\2\2\u00c0\u00c1\3\2\2\2\u00c1\u00bf"+
-		"\3\2\2\2\u00c1\u00c2\3\2\2\2\u00c2\u00c3\3\2\2\2\u00c3\u00c4\b\35\2\2"+
-		"\u00c4:\3\2\2\2\u00c5\u00c6\13\2\2\2\u00c6\u00c7\b\36\3\2\u00c7\u00c8"+
-		"\3\2\2\2\u00c8\u00c9\b\36\2\2\u00c9<\3\2\2\2\t\2\u00a0\u00a5\u00ab\u00ae"+
-		"\u00b6\u00c1\4\2\3\2\3\36\2";
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2.\u0140\b\1\4\2\t"+
+		"\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13"+
+		"\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22\t\22"+
+		"\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31\t\31"+
+		"\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\4\37\t\37\4 \t \4!"+
+		"\t!\4\"\t\"\4#\t#\4$\t$\4%\t%\4&\t&\4\'\t\'\4(\t(\4)\t)\4*\t*\4+\t+\4"+
+		",\t,\4-\t-\3\2\3\2\3\2\3\2\3\2\3\3\3\3\3\3\3\3\3\4\3\4\3\4\3\4\3\5\3\5"+
+		"\3\5\3\5\3\6\3\6\3\6\3\6\3\6\3\7\3\7\3\7\3\7\3\b\3\b\3\b\3\t\3\t\3\t\3"+
+		"\n\3\n\3\13\3\13\3\13\3\13\3\f\3\f\3\f\3\f\3\f\3\r\3\r\3\r\3\16\3\16\3"+
+		"\16\3\16\3\17\3\17\3\17\3\17\3\20\3\20\3\20\3\20\3\21\3\21\3\21\3\21\3"+
+		"\22\3\22\3\22\3\22\3\23\3\23\3\23\3\23\3\24\3\24\3\24\3\24\3\25\3\25\3"+
+		"\25\3\25\3\26\3\26\3\26\3\26\3\27\3\27\3\27\3\27\3\27\3\27\3\27\3\27\3"+
+		"\30\3\30\3\30\3\30\3\30\3\31\3\31\3\31\3\31\3\31\3\32\3\32\3\32\3\32\3"+
+		"\32\3\33\3\33\3\33\3\33\3\33\3\33\3\34\3\34\3\34\3\34\3\34\3\34\3\35\3"+
+		"\35\3\35\3\35\3\36\3\36\3\36\3\36\3\36\3\36\3\36\3\36\3\37\3\37\3\37\3"+
+		"\37\3\37\3\37\3 \3 \3 \3!\3!\3!\3!\3!\3!\3\"\3\"\3\"\3\"\3\"\3#\3#\3#"+
+		"\3#\3#\3#\3$\3$\3$\3$\3$\3$\3%\3%\3%\3%\3%\3&\3&\3&\3&\3&\3&\3\'\3\'\7"+
+		"\'\u010a\n\'\f\'\16\'\u010d\13\'\3\'\3\'\3(\3(\3)\3)\7)\u0115\n)\f)\16"+
+		")\u0118\13)\3*\3*\5*\u011c\n*\3*\3*\7*\u0120\n*\f*\16*\u0123\13*\5*\u0125"+
+		"\n*\3+\3+\3+\3+\7+\u012b\n+\f+\16+\u012e\13+\3+\3+\3+\3+\3+\3,\6,\u0136"+
+		"\n,\r,\16,\u0137\3,\3,\3-\3-\3-\3-\3-\3\u012c\2.\3\3\5\4\7\5\t\6\13\7"+
+		"\r\b\17\t\21\n\23\13\25\f\27\r\31\16\33\17\35\20\37\21!\22#\23%\24\'\25"+
+		")\26+\27-\30/\31\61\32\63\33\65\34\67\359\36;\37= ?!A\"C#E$G%I&K\'M(O"+
+		")Q*S+U,W-Y.\3\2\6\5\2\f\f\17\17$$\4\2C\\c|\5\2\62;C\\c|\5\2\13\f\17\17"+
+		"\"\"\2\u0146\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2"+
+		"\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2\2"+
+		"\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3\2\2\2\2\37\3\2\2\2\2!\3\2"+
+		"\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2\2\2-\3\2\2"+
+		"\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3\2\2\2\2\65\3\2\2\2\2\67\3\2\2\2\29\3"+
+		"\2\2\2\2;\3\2\2\2\2=\3\2\2\2\2?\3\2\2\2\2A\3\2\2\2\2C\3\2\2\2\2E\3\2\2"+
+		"\2\2G\3\2\2\2\2I\3\2\2\2\2K\3\2\2\2\2M\3\2\2\2\2O\3\2\2\2\2Q\3\2\2\2\2"+
+		"S\3\2\2\2\2U\3\2\2\2\2W\3\2\2\2\2Y\3\2\2\2\3[\3\2\2\2\5`\3\2\2\2\7d\3"+
+		"\2\2\2\th\3\2\2\2\13l\3\2\2\2\rq\3\2\2\2\17u\3\2\2\2\21x\3\2\2\2\23{\3"+
+		"\2\2\2\25}\3\2\2\2\27\u0081\3\2\2\2\31\u0086\3\2\2\2\33\u0089\3\2\2\2"+
+		"\35\u008d\3\2\2\2\37\u0091\3\2\2\2!\u0095\3\2\2\2#\u0099\3\2\2\2%\u009d"+
+		"\3\2\2\2\'\u00a1\3\2\2\2)\u00a5\3\2\2\2+\u00a9\3\2\2\2-\u00ad\3\2\2\2"+
+		"/\u00b5\3\2\2\2\61\u00ba\3\2\2\2\63\u00bf\3\2\2\2\65\u00c4\3\2\2\2\67"+
+		"\u00ca\3\2\2\29\u00d0\3\2\2\2;\u00d4\3\2\2\2=\u00dc\3\2\2\2?\u00e2\3\2"+
+		"\2\2A\u00e5\3\2\2\2C\u00eb\3\2\2\2E\u00f0\3\2\2\2G\u00f6\3\2\2\2I\u00fc"+
+		"\3\2\2\2K\u0101\3\2\2\2M\u0107\3\2\2\2O\u0110\3\2\2\2Q\u0112\3\2\2\2S"+
+		"\u0124\3\2\2\2U\u0126\3\2\2\2W\u0135\3\2\2\2Y\u013b\3\2\2\2[\\\7r\2\2"+
+		"\\]\7w\2\2]^\7u\2\2^_\7j\2\2_\4\3\2\2\2`a\7r\2\2ab\7q\2\2bc\7r\2\2c\6"+
+		"\3\2\2\2de\7c\2\2ef\7f\2\2fg\7f\2\2g\b\3\2\2\2hi\7u\2\2ij\7w\2\2jk\7d"+
+		"\2\2k\n\3\2\2\2lm\7o\2\2mn\7w\2\2no\7n\2\2op\7v\2\2p\f\3\2\2\2qr\7f\2"+
+		"\2rs\7k\2\2st\7x\2\2t\16\3\2\2\2uv\7u\2\2vw\7y\2\2w\20\3\2\2\2xy\7n\2"+
+		"\2yz\7y\2\2z\22\3\2\2\2{|\7d\2\2|\24\3\2\2\2}~\7d\2\2~\177\7g\2\2\177"+
+		"\u0080\7s\2\2\u0080\26\3\2\2\2\u0081\u0082\7d\2\2\u0082\u0083\7n\2\2\u0083"+
+		"\u0084\7g\2\2\u0084\u0085\7s\2\2\u0085\30\3\2\2\2\u0086\u0087\7l\2\2\u0087"+
+		"\u0088\7u\2\2\u0088\32\3\2\2\2\u0089\u008a\7n\2\2\u008a\u008b\7t\2\2\u008b"+
+		"\u008c\7c\2\2\u008c\34\3\2\2\2\u008d\u008e\7u\2\2\u008e\u008f\7t\2\2\u008f"+
+		"\u0090\7c\2\2\u0090\36\3\2\2\2\u0091\u0092\7n\2\2\u0092\u0093\7v\2\2\u0093"+
+		"\u0094\7o\2\2\u0094 \3\2\2\2\u0095\u0096\7u\2\2\u0096\u0097\7v\2\2\u0097"+
+		"\u0098\7o\2\2\u0098\"\3\2\2\2\u0099\u009a\7n\2\2\u009a\u009b\7h\2\2\u009b"+
+		"\u009c\7r\2\2\u009c$\3\2\2\2\u009d\u009e\7u\2\2\u009e\u009f\7h\2\2\u009f"+
+		"\u00a0\7r\2\2\u00a0&\3\2\2\2\u00a1\u00a2\7e\2\2\u00a2\u00a3\7h\2\2\u00a3"+
+		"\u00a4\7r\2\2\u00a4(\3\2\2\2\u00a5\u00a6\7n\2\2\u00a6\u00a7\7j\2\2\u00a7"+
+		"\u00a8\7r\2\2\u00a8*\3\2\2\2\u00a9\u00aa\7u\2\2\u00aa\u00ab\7j\2\2\u00ab"+
+		"\u00ac\7r\2\2\u00ac,\3\2\2\2\u00ad\u00ae\7t\2\2\u00ae\u00af\7g\2\2\u00af"+
+		"\u00b0\7u\2\2\u00b0\u00b1\7g\2\2\u00b1\u00b2\7t\2\2\u00b2\u00b3\7x\2\2"+
+		"\u00b3\u00b4\7g\2\2\u00b4.\3\2\2\2\u00b5\u00b6\7v\2\2\u00b6\u00b7\7c\2"+
+		"\2\u00b7\u00b8\7k\2\2\u00b8\u00b9\7n\2\2\u00b9\60\3\2\2\2\u00ba\u00bb"+
+		"\7h\2\2\u00bb\u00bc\7k\2\2\u00bc\u00bd\7n\2\2\u00bd\u00be\7n\2\2\u00be"+
+		"\62\3\2\2\2\u00bf\u00c0\7e\2\2\u00c0\u00c1\7c\2\2\u00c1\u00c2\7n\2\2\u00c2"+
+		"\u00c3\7n\2\2\u00c3\64\3\2\2\2\u00c4\u00c5\7g\2\2\u00c5\u00c6\7p\2\2\u00c6"+
+		"\u00c7\7v\2\2\u00c7\u00c8\7g\2\2\u00c8\u00c9\7t\2\2\u00c9\66\3\2\2\2\u00ca"+
+		"\u00cb\7n\2\2\u00cb\u00cc\7g\2\2\u00cc\u00cd\7c\2\2\u00cd\u00ce\7x\2\2"+
+		"\u00ce\u00cf\7g\2\2\u00cf8\3\2\2\2\u00d0\u00d1\7t\2\2\u00d1\u00d2\7g\2"+
+		"\2\u00d2\u00d3\7v\2\2\u00d3:\3\2\2\2\u00d4\u00d5\7f\2\2\u00d5\u00d6\7"+
+		"k\2\2\u00d6\u00d7\7u\2\2\u00d7\u00d8\7r\2\2\u00d8\u00d9\7n\2\2\u00d9\u00da"+
+		"\7c\2\2\u00da\u00db\7{\2\2\u00db<\3\2\2\2\u00dc\u00dd\7n\2\2\u00dd\u00de"+
+		"\7f\2\2\u00de\u00df\7k\2\2\u00df\u00e0\7u\2\2\u00e0\u00e1\7r\2\2\u00e1"+
+		">\3\2\2\2\u00e2\u00e3\7n\2\2\u00e3\u00e4\7i\2\2\u00e4@\3\2\2\2\u00e5\u00e6"+
+		"\7r\2\2\u00e6\u00e7\7t\2\2\u00e7\u00e8\7k\2\2\u00e8\u00e9\7p\2\2\u00e9"+
+		"\u00ea\7v\2\2\u00eaB\3\2\2\2\u00eb\u00ec\7j\2\2\u00ec\u00ed\7c\2\2\u00ed"+
+		"\u00ee\7n\2\2\u00ee\u00ef\7v\2\2\u00efD\3\2\2\2\u00f0\u00f1\7t\2\2\u00f1"+
+		"\u00f2\7q\2\2\u00f2\u00f3\7q\2\2\u00f3\u00f4\7v\2\2\u00f4\u00f5\7u\2\2"+
+		"\u00f5F\3\2\2\2\u00f6\u00f7\7h\2\2\u00f7\u00f8\7t\2\2\u00f8\u00f9\7c\2"+
+		"\2\u00f9\u00fa\7o\2\2\u00fa\u00fb\7g\2\2\u00fbH\3\2\2\2\u00fc\u00fd\7"+
+		"n\2\2\u00fd\u00fe\7k\2\2\u00fe\u00ff\7p\2\2\u00ff\u0100\7g\2\2\u0100J"+
+		"\3\2\2\2\u0101\u0102\7u\2\2\u0102\u0103\7e\2\2\u0103\u0104\7q\2\2\u0104"+
+		"\u0105\7r\2\2\u0105\u0106\7g\2\2\u0106L\3\2\2\2\u0107\u010b\7$\2\2\u0108"+
+		"\u010a\n\2\2\2\u0109\u0108\3\2\2\2\u010a\u010d\3\2\2\2\u010b\u0109\3\2"+
+		"\2\2\u010b\u010c\3\2\2\2\u010c\u010e\3\2\2\2\u010d\u010b\3\2\2\2\u010e"+
+		"\u010f\7$\2\2\u010fN\3\2\2\2\u0110\u0111\7<\2\2\u0111P\3\2\2\2\u0112\u0116"+
+		"\t\3\2\2\u0113\u0115\t\4\2\2\u0114\u0113\3\2\2\2\u0115\u0118\3\2\2\2\u0116"+
+		"\u0114\3\2\2\2\u0116\u0117\3\2\2\2\u0117R\3\2\2\2\u0118\u0116\3\2\2\2"+
+		"\u0119\u0125\7\62\2\2\u011a\u011c\7/\2\2\u011b\u011a\3\2\2\2\u011b\u011c"+
+		"\3\2\2\2\u011c\u011d\3\2\2\2\u011d\u0121\4\63;\2\u011e\u0120\4\62;\2\u011f"+
+		"\u011e\3\2\2\2\u0120\u0123\3\2\2\2\u0121\u011f\3\2\2\2\u0121\u0122\3\2"+
+		"\2\2\u0122\u0125\3\2\2\2\u0123\u0121\3\2\2\2\u0124\u0119\3\2\2\2\u0124"+
+		"\u011b\3\2\2\2\u0125T\3\2\2\2\u0126\u0127\7\61\2\2\u0127\u0128\7,\2\2"+
+		"\u0128\u012c\3\2\2\2\u0129\u012b\13\2\2\2\u012a\u0129\3\2\2\2\u012b\u012e"+
+		"\3\2\2\2\u012c\u012d\3\2\2\2\u012c\u012a\3\2\2\2\u012d\u012f\3\2\2\2\u012e"+
+		"\u012c\3\2\2\2\u012f\u0130\7,\2\2\u0130\u0131\7\61\2\2\u0131\u0132\3\2"+
+		"\2\2\u0132\u0133\b+\2\2\u0133V\3\2\2\2\u0134\u0136\t\5\2\2\u0135\u0134"+
+		"\3\2\2\2\u0136\u0137\3\2\2\2\u0137\u0135\3\2\2\2\u0137\u0138\3\2\2\2\u0138"+
+		"\u0139\3\2\2\2\u0139\u013a\b,\2\2\u013aX\3\2\2\2\u013b\u013c\13\2\2\2"+
+		"\u013c\u013d\b-\3\2\u013d\u013e\3\2\2\2\u013e\u013f\b-\2\2\u013fZ\3\2"+
+		"\2\2\n\2\u010b\u0116\u011b\u0121\u0124\u012c\u0137\4\2\3\2\3-\2";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -2,12 +2,16 @@ package compiler;
 
 import compiler.AST.*;
 import compiler.lib.*;
-import svm.ExecuteVM;
+import svm.Memory;
 import compiler.exc.*;
 import static compiler.lib.FOOLlib.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 /**
  * The main of the class is to generate a String corresponding to whole program.
  * To do this it implements a bottom up traversal of the tree (which is complete
@@ -27,10 +31,278 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	String incrementHP="lhp\n"+"push\n"+"1\n"+"add\n"+"shp\n";//increment hp
 	String duplicateSTM="stm\n"+"ltm\n"+"ltm\n";//duplicate top of the stack
 	String saveSTMinLTM="stm\n"+"ltm\n";
+	private int globalAR = Memory.DEFAULT_STACK;	// address of the AR of the main program (top of the stack)
 	CodeGenerationASTVisitor() {}
 	CodeGenerationASTVisitor(boolean debug) {super(false,debug);} //enables print for debugging
+	CodeGenerationASTVisitor(Memory memory) {globalAR = memory.stack;} //code for a VM with the given memory layout
+	CodeGenerationASTVisitor(Memory memory, boolean display) {this(memory); this.display = display;} //code reaching the ARs of the enclosing scopes through the display of the VM if display
 
 	private static List<List<String>> dispatchTables;	//one for each class: it contains the address(->label) of all the methods of the class(inherited too); DO NOT FORGET dispatch table -> heap;
+	private List<Boolean> frame = new ArrayList<>();	//words pushed in the current frame under the RA (declarations, then temporaries): true if they hold an object pointer
+	private int line = -1;				//FOOL line of the code being generated, -1 if unknown (see svm.SourceMap)
+	private String scope = "main";		//FOOL function or method of the code being generated
+	private int clOffset = -1;			//offset from fp of the CL of the function being generated, -1 in the main program
+	private Set<Node> tailCalls = new HashSet<>();	//calls whose value is the value of the body of their function
+	private Map<Node,String> consCalls = new HashMap<>();	//"new" around a recursive call, and recursive calls, in tail position: label of the destination-passing version of their function
+	private int dstOffset = -1;			//offset from fp of the destination of the function being generated in destination-passing style, -1 otherwise
+	private boolean display;			//the ARs of the enclosing scopes are reached through the display instead of the static chain
+	private int level = 0;				//nesting level of the code being generated
+	private int objectLevel = -1;		//nesting level of the class of the method being generated, -1 outside classes
+	private boolean displayed;			//the function being generated keeps the display: it reads it or calls other functions
+
+	/**
+	 * Visits n, preceding its code by a "line" directive if it comes from another line
+	 * than the code around it, and restoring the line of that code after it.
+	 */
+	@Override
+	public String visit(Visitable v, String mark) {
+		int outer = line;
+		if (!(v instanceof Node) || ((Node) v).getLine() < 0 || ((Node) v).getLine() == outer) return super.visit(v, mark);
+		line = ((Node) v).getLine();
+		try {
+			String code = super.visit(v, mark);
+			return code == null || code.isEmpty() ? code : nlJoin("line "+line, code, outer < 0 ? null : "line "+outer);
+		} finally {
+			line = outer;
+		}
+	}
+
+	/**
+	 * Directives starting the code of a function: its FOOL name and line, for the source map.
+	 */
+	private String scope(Node n, String name) {
+		return nlJoin("scope \""+name+"\"", n.getLine() < 0 ? null : "line "+n.getLine());
+	}
+
+	/**
+	 * Stack map of the current point of the code, read by the garbage collector (svm.Collector):
+	 * 1 for each word of the frame under the RA holding an object pointer, 0 otherwise.
+	 */
+	private String roots() {
+		String map = "roots";
+		for (boolean p : frame) map += p ? " 1" : " 0";
+		return map;
+	}
+
+	/**
+	 * Layout of a frame, read by the garbage collector: 1 if its AL is an object (the AL of a method),
+	 * then 1 for each word of the parameters holding an object pointer.
+	 */
+	private static String frameLayout(boolean method, List<ParNode> parlist) {
+		String layout = "frame "+(method?1:0);
+		for (ParNode par : parlist) {
+			if (!method && par.getType() instanceof ArrowTypeNode) layout += " 0 0"; // AR address and label
+			else layout += isReference(par.getType()) ? " 1" : " 0";
+		}
+		return layout;
+	}
+
+	private static boolean isReference(TypeNode type) {
+		return type instanceof RefTypeNode || type instanceof EmptyTypeNode;
+	}
+
+	/**
+	 * True if the value of exp is an object pointer (or null).
+	 */
+	private static boolean isReference(Node exp) {
+		if (exp instanceof NewNode || exp instanceof EmptyNode) return true;
+		if (exp instanceof IdNode) return isReference(((IdNode) exp).entry.type);
+		if (exp instanceof CallNode) return isReference(returnType(((CallNode) exp).entry.type));
+		if (exp instanceof ClassCallNode) return isReference(returnType(((ClassCallNode) exp).methodEntry.type));
+		if (exp instanceof IfNode) return isReference(((IfNode) exp).th) || isReference(((IfNode) exp).el);
+		if (exp instanceof PrintNode) return isReference(((PrintNode) exp).exp);
+		return false;
+	}
+
+	private static TypeNode returnType(TypeNode type) {
+		if (type instanceof MethodTypeNode) return ((MethodTypeNode) type).fun.ret;
+		return type instanceof ArrowTypeNode ? ((ArrowTypeNode) type).ret : type;
+	}
+
+	/**
+	 * Number of words of the value of exp: two for functions (AR address and label).
+	 */
+	private static int words(Node exp) {
+		if (exp instanceof IdNode && ((IdNode) exp).entry.type instanceof ArrowTypeNode) return 2;
+		if (exp instanceof IfNode) return words(((IfNode) exp).th);
+		return 1;
+	}
+
+	private void hold(Node exp) {								//the value of exp stays on the stack while the code that follows is generated
+		for (int i = words(exp); i > 0; i--) frame.add(isReference(exp));
+	}
+
+	private void hold(DecNode dec) {							//a declaration stays on the stack until the end of the frame
+		if (dec.getType() instanceof ArrowTypeNode) frame.addAll(List.of(false, false));	//AR address and label
+		else frame.add(!(dec instanceof ClassNode) && isReference(dec.getType()));			//classes: the dispatch pointer, never collected
+	}
+
+	private void release(int words) {
+		for (int i = 0; i < words; i++) frame.remove(frame.size() - 1);
+	}
+
+	/**
+	 * Marks the calls in tail position of exp, the body of a function: the call itself, or
+	 * the ones in tail position of the branches of an if.
+	 */
+	private void markTailCalls(Node exp) {
+		if (exp instanceof CallNode || exp instanceof ClassCallNode) tailCalls.add(exp);
+		else if (exp instanceof IfNode) {
+			markTailCalls(((IfNode) exp).th);
+			markTailCalls(((IfNode) exp).el);
+		}
+	}
+
+	/**
+	 * True if call, in tail position, can replace the frame of its function: neither the callee
+	 * nor an argument is a function declared in that frame, whose AL would be overwritten.
+	 */
+	private boolean isTailCall(Node call, STentry callee, int nl, List<Node> args) {
+		if (!tailCalls.contains(call) || clOffset < 0 || dstOffset >= 0 || isLocalFunction(callee, nl)) return false;	//in destination-passing style the value fills the destination
+		for (Node arg : args) if (isLocalFunction(arg)) return false;
+		return true;
+	}
+
+	private static boolean isLocalFunction(STentry entry, int nl) {
+		return entry.nl == nl && entry.offset < 0 && entry.type instanceof ArrowTypeNode;
+	}
+
+	private static boolean isLocalFunction(Node exp) {
+		if (exp instanceof IdNode) return isLocalFunction(((IdNode) exp).entry, ((IdNode) exp).nl);
+		if (exp instanceof IfNode) return isLocalFunction(((IfNode) exp).th) || isLocalFunction(((IfNode) exp).el);
+		return false;
+	}
+
+	/**
+	 * Jump of a tail call, the AL of the callee and its address being on the stack over its
+	 * arguments: they replace the frame of the function under its CL, and the callee returns
+	 * to the caller of the function.
+	 */
+	private String tailJump(int argWords) {
+		return nlJoin(
+				"lfp", "push "+clOffset, "add",	// address of the CL of this frame, which the callee keeps
+				"tail "+(argWords + 1)			// the arguments and the AL replace the frame
+				);
+	}
+
+	/**
+	 * Tail recursion modulo cons: a function whose body builds, in tail position, an object
+	 * around a recursive call ("new List(x, f(...))", the call being the last argument) gets
+	 * a second version in destination-passing style, with one more parameter: an object whose
+	 * last field is a hole, which it fills with its value. There a "new" around the recursive
+	 * call allocates its object with a hole, fills the destination with it and goes on with a
+	 * tail call passing it as the destination: the objects are built by a loop. The function
+	 * itself allocates the first object and calls that version to fill it.
+	 */
+	private static boolean isConsCall(Node exp, FunNode fun) {
+		if (!(exp instanceof NewNode) || ((NewNode) exp).arglist.isEmpty()) return false;
+		List<Node> args = ((NewNode) exp).arglist;
+		return isSelfCall(args.get(args.size()-1), fun);
+	}
+
+	/**
+	 * True if exp is a call of fun from its own body whose arguments can be passed by a tail call.
+	 */
+	private static boolean isSelfCall(Node exp, FunNode fun) {
+		if (!(exp instanceof CallNode)) return false;
+		CallNode call = (CallNode) exp;
+		if (!call.id.equals(fun.id) || call.nl != call.entry.nl + 1 || !(call.entry.type instanceof ArrowTypeNode)) return false;
+		for (Node arg : call.arglist) if (isLocalFunction(arg)) return false;
+		return true;
+	}
+
+	private static boolean hasConsCall(Node exp, FunNode fun) {
+		if (exp instanceof IfNode) return hasConsCall(((IfNode) exp).th, fun) || hasConsCall(((IfNode) exp).el, fun);
+		return isConsCall(exp, fun);
+	}
+
+	/**
+	 * Marks the "new" around a recursive call and the recursive calls in tail position of exp,
+	 * the body of fun, label being its destination-passing version.
+	 */
+	private void markConsCalls(Node exp, FunNode fun, String label) {
+		if (exp instanceof IfNode) {
+			markConsCalls(((IfNode) exp).th, fun, label);
+			markConsCalls(((IfNode) exp).el, fun, label);
+		} else if (isConsCall(exp, fun) || isSelfCall(exp, fun)) consCalls.put(exp, label);
+	}
+
+	/**
+	 * Call of the version at label of the function called by call, the code of dst pushing the
+	 * destination (null if it is already on the stack): a tail call if tail.
+	 */
+	private String consCall(CallNode call, String label, String dst, boolean tail) {
+		String argCode = null;
+		int argWords = call.arglist.stream().mapToInt(CodeGenerationASTVisitor::words).sum();
+		String roots = roots();	// the frame of the caller during the call
+		if (!tail) frame.add(false);	// CL
+		frame.add(true);				// the destination, the last parameter
+		for (int i=call.arglist.size()-1;i>=0;i--) {
+			argCode=nlJoin(argCode,visit(call.arglist.get(i)));
+			hold(call.arglist.get(i));
+		}
+		release((tail ? 1 : 2) + argWords);
+		return nlJoin(
+				tail ? null : "lfp",
+				dst,
+				argCode,
+				call.entry.fun != null ? ar(call.nl, call.entry.nl) : load(call.nl, call.entry.nl, call.entry.offset),	// AL: the AR of the declaration of the function
+				"push "+label,
+				tail ? tailJump(argWords + 1) : nlJoin(roots, "js", returned())
+				);
+	}
+
+	private String destination() {
+		return nlJoin("lfp", "push "+dstOffset, "add", "lw");
+	}
+
+	/**
+	 * Code pushing the AR of nesting level nl from code of nesting level from: the frame pointer
+	 * followed by an access link per level or, with the display, a single load of the entry of
+	 * the level (an object being the AL of the frame of its method). The global AR lies at a
+	 * fixed address.
+	 */
+	private String ar(int from, int nl) {
+		if (nl == 0) return "push "+globalAR;
+		if (display && from > nl && !(nl == objectLevel && from == nl + 1)) {
+			displayed = true;
+			return nl == objectLevel ? nlJoin("ldisp "+(nl + 1), "lw") : "ldisp "+nl;
+		}
+		String code = "lfp";
+		for (int i = nl; i < from; i++) code = nlJoin(code, "lw");
+		return code;
+	}
+
+	/**
+	 * Code pushing the word at offset in the AR of nesting level nl, a declaration, from code of
+	 * nesting level from: a global (nesting level 0) lies at a fixed address in the AR of the main
+	 * program, at the top of the stack, and is loaded from it without reaching the AR.
+	 */
+	private String load(int from, int nl, int offset) {
+		if (nl == 0) return "lg "+(globalAR + offset);
+		return nlJoin(ar(from, nl), "push "+offset, "add", "lw");
+	}
+
+	/**
+	 * Code following a call returning to the code being generated: with the display, its frame
+	 * and its static chain become the display again.
+	 */
+	private String returned() {
+		if (!display) return null;
+		displayed = true;
+		return "display "+level;
+	}
+
+	/**
+	 * Code of two operands: the first one stays on the stack while the second one is computed.
+	 */
+	private String operands(Node first, Node second) {
+		String code = visit(first);
+		hold(first);
+		code = nlJoin(code, visit(second));
+		release(words(first));
+		return code;
+	}
 
 	
 	/**
@@ -43,8 +315,12 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(ProgLetInNode n) {
 		if (print) printNode(n);
 		dispatchTables = new ArrayList<>();//The dispatch table is used only in a program with declaration, therefore it is initialized here
+		frame = new ArrayList<>();
 		String declCode = null;
-		for (Node dec : n.declist) declCode=nlJoin(declCode,visit(dec));//previous to execute the body of the program it musts allocate the AR, if not the program will use variable that would not be reachable
+		for (DecNode dec : n.declist) {
+			declCode=nlJoin(declCode,visit(dec));//previous to execute the body of the program it musts allocate the AR, if not the program will use variable that would not be reachable
+			hold(dec);
+		}
 		return nlJoin(
 				"push 0",	// fake offset needed to make the Main complaint with the AR defined
 				declCode,	// generate code for declarations (allocation)
@@ -87,52 +363,72 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(FunNode n) {//HO: modified for functional type management: now function can be passed as argument of the function
 		if (print) printNode(n,n.id);
-		String declCode = null, popDecl = null, popParl = null;
-		for (Node dec : n.declist) {
+		String outerScope = scope;
+		scope = scope.equals("main") ? n.id : scope+"."+n.id;
+		String funl = n.label = freshFunLabel();//generate a new label for the function address and set the appropriate field in the node (direct calls jump to it)
+		String consl = null;
+		if (hasConsCall(n.exp, n)) {	// tail recursion modulo cons: a second version fills a destination
+			consl = freshFunLabel();
+			markConsCalls(n.exp, n, consl);
+		}
+		List<Boolean> outerFrame = frame;
+		int outerCL = clOffset, outerDst = dstOffset;
+		boolean outerDisplayed = displayed;
+		frame = new ArrayList<>();
+		displayed = false;
+		level++;
+		markTailCalls(n.exp);
+		String declCode = null;
+		for (DecNode dec : n.declist) {	// once for the two versions, which share the code of the declarations (and so the nested functions)
 			declCode = nlJoin(declCode,visit(dec));					//	generate code for the declaration: each of them allocate the result of the initialization expression if it is a var, or the address of the declared fnct (if it is a fnct)
-			if( ((DecNode)dec).getType() instanceof ArrowTypeNode) {//	declarations must be removed from the stack at the end, however functional declarations occupy double space in memory,
-				popDecl = nlJoin(popDecl,"pop", "pop");				// therefore I need to use two pop for each of them
-			}else {
-				popDecl = nlJoin(popDecl,"pop");
-			}
+			hold(dec);
 		}
-		for (int i=0;i<n.parlist.size();i++) {			// parameters have already been allocated by the caller, therefore here they just have to be removed
-			if(n.parlist.get(i).getType() instanceof ArrowTypeNode) {
-				popParl = nlJoin(popParl,"pop", "pop");	// functional declarations occupy double space, therefore an additional pop must be added
-			}else {
-				popParl = nlJoin(popParl,"pop");
-			}
+		List<Boolean> declFrame = frame;
+		boolean declDisplayed = displayed;
+		putCode(function(n, funl, scope, declCode, false));	//memorize the code for the function's body; in FOOL.lib there is an array field that memorize all the functions'cde and put it at the end of the asembly file that we are generating 
+		if (consl != null) {
+			frame = new ArrayList<>(declFrame);
+			displayed = declDisplayed;
+			putCode(function(n, consl, scope+"$dps", declCode, true));	// a scope of its own in the profiles
 		}
-		String funl = freshFunLabel();//generate a new label for the function address and set the appropriate field in the node
-		putCode(						//memorize the code for the function's body; in FOOL.lib there is an array field that memorize all the functions'cde and put it at the end of the asembly file that we are generating 
-				nlJoin(
-						funl+":",
-						"cfp", 			// set the frame pointer to current value of the stack pointer; it is the AL(reference point of the AR); 
-											//it must be set as soon as we can because inside declCode variables could be initialized with expressions that use variables that have just been declared 
-											//(the system must look for them in this AR)
-						"lra", 			// push in the stack the content of the RA register; 
-											//the caller used "js" instruction to jump here(the address that was on the top of the stack at that time), 
-											//that instruction is responsible for setting the RA register to the instruction that followed the ones used to jump (return address); 
-											//it is part of the AR it must be put on the stack.
-											
-						declCode, 		// generate code for local declarations (they use the new $fp!!!); if they are variable they put their value on the stack (calculate as result of their initialization expression), on the contrary if they are functions they put on the stack their label(address). NB first declaration offset -2
-						visit(n.exp), 	// generate code for function body expression
-						"stm", 			//pop the top of the stack and copy it in the TM register (function result)
-						//it begins to destroy the AR
-						popDecl, 		// remove local declarations from stack
-						"sra", 			// pop the top of the stack and copy it in the RA register: store the return address, it will be used to come back to the caller
-						"pop", 			// remove AL from stack (last thing allocated by the caller)
-						popParl, 		// remove parameters from stack (allocated by the caller before the call)
-						"sfp", 			// set $fp to popped value (ControlLink: it was needed to reset the FramePointer to the caller frame to make it able to continue its execution)
-						"ltm", 			// push in the stack the content of the TM register (function result)
-						"lra", 			// push in the stack the content of the RA register (return address)
-						"js"  			// jump to to popped address (caller frame)
-						)
-				);
+		frame = outerFrame;
+		clOffset = outerCL;
+		dstOffset = outerDst;
+		displayed = outerDisplayed;
+		level--;
+		scope = outerScope;
 		return nlJoin("lfp", //load on the stack the pointer to the AR reference point of function declaration (=fp)
 				"push "+funl);//allocate the label
 	}
 
+	/**
+	 * Code of the function n at label, named name in the source map, with the code declCode
+	 * of its declarations already generated; in destination-passing style if dps: the
+	 * destination follows the parameters.
+	 */
+	private String function(FunNode n, String label, String name, String declCode, boolean dps) {
+		int parWords = n.parlist.stream().mapToInt(par -> par.getType() instanceof ArrowTypeNode ? 2 : 1).sum();
+		clOffset = 1 + parWords + (dps ? 1 : 0);
+		dstOffset = dps ? 1 + parWords : -1;
+		String body = visit(n.exp);
+		String code = nlJoin(
+						label+":",
+						scope(n, name),
+						frameLayout(false, n.parlist) + (dps ? " 1" : ""),
+						"enter", 		// set the frame pointer to current value of the stack pointer (it is the AL, reference point of the AR) and push the content of the RA register;
+											//fp must be set as soon as we can because inside declCode variables could be initialized with expressions that use variables that have just been declared 
+											//(the system must look for them in this AR); the caller used "call" (or "js") to jump here, 
+											//that instruction is responsible for setting the RA register to the instruction that followed it (return address)
+						displayed ? "display "+level : null,	// this frame and its static chain become the display
+						declCode, 		// generate code for local declarations (they use the new $fp!!!); if they are variable they put their value on the stack (calculate as result of their initialization expression), on the contrary if they are functions they put on the stack their label(address). NB first declaration offset -2
+						body, 			// generate code for function body expression
+						dps ? nlJoin(destination(), "fill") : null,	// the value fills the destination, and is returned too
+						"leave "+(clOffset - 1),	// destroy the AR: reload RA, remove declarations, AL and parameters (and the destination), set $fp to the ControlLink and put the function result in its place
+						"ret"  			// jump to the return address (caller frame)
+						);
+		return code;
+	}
+
 
 
 	/**
@@ -141,33 +437,43 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(MethodNode n) {
 		if (print) printNode(n,n.id);
-		String declCode = null, popDecl = null, popParl = null;
-		for (Node dec : n.declist) {
+		String declCode = null;
+		List<Boolean> outerFrame = frame;
+		frame = new ArrayList<>();
+		String outerScope = scope;
+		scope = scope.equals("main") ? n.id : scope+"."+n.id;
+		int outerCL = clOffset, outerLevel = level, outerObject = objectLevel;
+		boolean outerDisplayed = displayed;
+		clOffset = 1 + n.parlist.size();
+		objectLevel = level + 1;	// the class
+		level += 2;
+		displayed = false;
+		markTailCalls(n.exp);
+		for (DecNode dec : n.declist) {
 			declCode = nlJoin(declCode,visit(dec));					//	generate code for the declaration
-			popDecl = nlJoin(popDecl,"pop");
-		}
-		for (int i=0;i<n.parlist.size();i++) {							// parameters have already been allocated by the caller, therefore here they just have to be removed
-			popParl = nlJoin(popParl,"pop");
+			hold(dec);
 		}
 		n.label = freshFunLabel();//generate a new label for the function address and set the appropriate field in the node
+		String body = visit(n.exp);
 		putCode(
 				nlJoin(				//generate the code for the method and put it in putcode
 						n.label+":",
-						"cfp", 			// set the frame pointer to current value of the stack pointer it should be the address of the function caller (it should be the last thing it put on the stack before jumping here); it must be set as soon as we can because inside declCode variable could be initialized with variables that have just been declared (the system must look for them in this AR)
-						"lra", 			// push in the stack the content of the RA register 
+						scope(n, scope),
+						frameLayout(true, n.parlist),
+						"enter", 		// set the frame pointer to current value of the stack pointer (it should be the address of the object, the last thing the caller put on the stack before jumping here) and push the content of the RA register
+						displayed ? "display "+level : null,	// this frame and its static chain become the display
 						declCode, 		// generate code for local declarations (they use the new $fp!!!)
-						visit(n.exp), 	// generate code for function body expression
-						"stm", 			//pop the top of the stack and copy it in the TM register (function result)
-						//it begins to destroy the AR
-						popDecl, 		// remove local declarations from stack
-						"sra", 			// pop the top of the stack and copy it in the RA register: store the return address, it will be used to come back to the caller
-						"pop", 			// remove AL from stack (last thing allocated by the caller)
-						popParl, 		// remove parameters from stack (allocated by the caller before the call)
-						"ltm", 			// push in the stack the content of the TM register (function result)
-						"lra", 			// push in the stack the content of the RA register (return address) 
-						"js"  			// jump to to popped address (caller frame)
+						body, 			// generate code for function body expression
+						"leave "+(clOffset - 1),	// destroy the AR: reload RA, remove declarations, AL and parameters, set $fp to the Control Link and put the function result in its place
+						"ret"  			// jump to the return address (caller frame)
 						)
 				);
+		frame = outerFrame;
+		scope = outerScope;
+		clOffset = outerCL;
+		level = outerLevel;
+		objectLevel = outerObject;
+		displayed = outerDisplayed;
 		return "";				//return null
 	}
 
@@ -182,6 +488,8 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 			dispatchTables.add(new ArrayList<>());
 		}
 
+		String outerScope = scope;
+		scope = n.id;	// methods are named Class.method
 		for(MethodNode m:n.methods) {
 			visit(m);
 			if(m.offset >= dispatchTables.get(dispatchTables.size()-1).size()) {//if the method is not inherited
@@ -190,7 +498,23 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 				dispatchTables.get(dispatchTables.size()-1).set(m.offset, m.label);
 			}
 		}
+		scope = outerScope;
 		String dispatchTablesOnHeap = null;// code to generate the dispatch table on the heap
+		List<TypeNode> fields = new ArrayList<>();	// layout of the objects, read by the garbage collector: it precedes the dispatch table
+		if (n.superID!=null) fields.addAll(((ClassTypeNode) n.superEntry.type).allFields);
+		for (FieldNode f : n.fields) {
+			if (-f.offset-1 < fields.size()) fields.set(-f.offset-1, f.getType());	// overridden field
+			else fields.add(f.getType());
+		}
+		String layoutOnHeap = null;
+		for (int i = fields.size()-1; i >= -1; i--) {	// a flag for each field (the last at the lowest address), then the number of fields
+			layoutOnHeap = nlJoin(
+					layoutOnHeap,
+					"push "+(i<0 ? fields.size() : isReference(fields.get(i)) ? 1 : 0),
+					"lhp", "sw",
+					incrementHP
+					);
+		}
 		for(String s: dispatchTables.get(dispatchTables.size()-1)) {//recupero la lista corretta
 			dispatchTablesOnHeap = nlJoin(				// per ogni metodo aggiungo la label sull'heap
 					dispatchTablesOnHeap,
@@ -203,6 +527,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 		}
 
 		return nlJoin(
+				layoutOnHeap,
 				"lhp",// metto sullo stack il dispatch pointer che punta alla dispach table della classe
 				dispatchTablesOnHeap// poi il codice per generare la dispach table sull'heap
 				);
@@ -215,8 +540,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(TimesNode n) {
 		if (print) printNode(n);
 		return nlJoin(
-				visit(n.left),
-				visit(n.right),
+				operands(n.left, n.right),
 				"mult"
 				);
 	}
@@ -228,8 +552,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(PlusNode n) {
 		if (print) printNode(n);
 		return nlJoin(
-				visit(n.left),
-				visit(n.right),
+				operands(n.left, n.right),
 				"add"
 				);
 	}
@@ -241,9 +564,8 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(MinusNode n) {//LE
 		if (print) printNode(n);
 		return nlJoin(
-				visit(n.left),
-				visit(n.right),
-				"minus"
+				operands(n.left, n.right),
+				"sub"
 				);
 	}
 
@@ -254,8 +576,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(DivNode n) {//LE
 		if (print) printNode(n);
 		return nlJoin(
-				visit(n.left),
-				visit(n.right),
+				operands(n.left, n.right),
 				"div"
 				);
 	}
@@ -269,8 +590,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 		String l1 = freshLabel();
 		String l2 = freshLabel();
 		return nlJoin(
-				visit(n.right),				//I have not a 'bgeq' instruction therefore I just visit the value in a reverse order
-				visit(n.left),
+				operands(n.right, n.left),	//I have not a 'bgeq' instruction therefore I just visit the value in a reverse order
 				"bleq "+l1,
 				"push 0",
 				"b "+l2,
@@ -289,8 +609,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 		String l1 = freshLabel();		// first == second; first <= second
 		String l2 = freshLabel();		//	second>= first
 		return nlJoin(
-				visit(n.left),
-				visit(n.right),
+				operands(n.left, n.right),
 				"bleq "+l1,					//bleq: it jumps if: first <= second
 				"push 0",
 				"b "+l2,
@@ -309,8 +628,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 		String l1 = freshLabel();
 		String l2 = freshLabel();
 		return nlJoin(
-				visit(n.left),		//it retrieves the left value
-				visit(n.right),		//it retrieves the right value
+				operands(n.left, n.right),	//it retrieves the left value, then the right value
 				"beq "+l1,			//if they are equals, then it jumps to l1-> equals label
 				"push 0",			//otherwise it pushes 0(=false) and jump to the end
 				"b "+l2,
@@ -326,9 +644,12 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(NotNode n) {//LE 						Idea: 1 - n.exp where n.exp it is constrained to be a boolean
 		if (print) printNode(n);
+		frame.add(false);
+		String val = visit(n.val);
+		release(1);
 		return nlJoin(
 				"push 1",
-				visit(n.val),
+				val,
 				"sub"
 				);
 	}
@@ -340,8 +661,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	public String visitNode(AndNode n) {//LE							Idea: 0*0=0; 0*1=0, ecc.
 		if (print) printNode(n);
 		return nlJoin(						
-				visit(n.left),
-				visit(n.right),
+				operands(n.left, n.right),
 				"mult"
 				);
 	}
@@ -360,9 +680,9 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 				"beq " + l1,			//if first ==1; it returns 1 without checking the whole expression
 				visit(n.right),			//else if first ==0, then it checks the second value; if second==1 then it returns 1
 				"push 1",
-				"beq"+l1+":",
+				"beq "+l1,
 				"push 0",				//it pushed 0 and then it jumps directly to end
-				"b"+ l2,
+				"b "+l2,
 				l1+":",
 				"push 1",
 				l2+":"
@@ -443,26 +763,58 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(CallNode n) {//OO
 		if (print) printNode(n,n.id);
-		String argCode = null, getAR = null;
-		for (int i=n.arglist.size()-1;i>=0;i--) argCode=nlJoin(argCode,visit(n.arglist.get(i)));// it creates code for parameter expressions in reversed order
-		for (int i = 0;i<n.nl-n.entry.nl;i++) getAR=nlJoin(getAR,"lw");// it finds the AL (ptr to frame of function's declaration)
+		String consl = dstOffset < 0 ? null : consCalls.get(n);
+		if (consl != null) return consCall(n, consl, destination(), true);	// the loop goes on with the same destination
+		String argCode = null;
+		boolean tail = isTailCall(n, n.entry, n.nl, n.arglist);	// the callee replaces the frame of this function
+		int argWords = n.arglist.stream().mapToInt(CodeGenerationASTVisitor::words).sum();
+		String roots = roots();	// the frame of the caller during the call
+		if (!tail) frame.add(false);	// CL
+		for (int i=n.arglist.size()-1;i>=0;i--) {
+			argCode=nlJoin(argCode,visit(n.arglist.get(i)));// it creates code for parameter expressions in reversed order
+			hold(n.arglist.get(i));
+		}
+		release((tail ? 0 : 1) + argWords);
+		String jump = tail ? tailJump(argWords) : nlJoin(roots, "js", returned());	// jump to popped address (saving address of subsequent instruction in $ra)
 		if(n.entry.type instanceof MethodTypeNode) {//OO: call of a local method (within another method of the object)
+			String getAR = ar(n.nl, n.entry.nl);	// it finds the AL (ptr to frame of function's declaration)
 			return nlJoin(
-					"lfp", 			// push frame pointer: CL: pointer to caller's frame(reference point) used to ascend to declaration AR: it is needed to retrieve the parameters
+					tail ? null : "lfp", // push frame pointer: CL: pointer to caller's frame(reference point) used to ascend to declaration AR: it is needed to retrieve the parameters
 					argCode, 		// generate code for argument expressions in reversed order (from N to 1)
-					"lfp", getAR,   // it reaches address of the frame containing the ID declaration, (it reaches the obj on the heap), by following the static chain (of AL)
+					getAR,   		// it reaches address of the frame containing the ID declaration, (it reaches the obj on the heap), by following the static chain (of AL)
 					duplicateSTM,	// duplicate top of the stack (contains AR of the declaration)
 					
 					"lw",		  	// load the address of the obj in the dispatch table (why? l'obj pointer points to the address of the dispatch pointer)
 					"push "+n.entry.offset, "add", // calculate the address of the method (label) in the dispatch table
 					"lw", 			// get value (label(=address) of method's subroutine);
-					"js" 			// jump to popped address[of the subroutine] (saving address of subsequent instruction in $ra)
+					jump
 					);
+		} else if (n.entry.fun != null) {	// a declared function, not a functional value: its label and its AL are known
+			return nlJoin(
+					tail ? null : "lfp",	// load CL
+					argCode, 	  // generate code for argument expressions in reversed order
+					ar(n.nl, n.entry.nl),	// AL: the AR of the declaration of the function, reached directly
+					"push "+n.entry.fun.label,	// its label
+					jump	);
+		} else if (!tail) {
+			return nlJoin(
+					"lfp",		  // load CL (ptr to frame of function "id" caller)
+					argCode, 	  // generate code for argument expressions in reversed order
+					n.entry.nl == 0 ? "push "+(globalAR + n.entry.offset)	// a global function: the closure lies at a fixed address
+							: nlJoin(ar(n.nl, n.entry.nl), "push "+n.entry.offset, "add"),	// get the address of the closure: the AR of the declaration, the label under it
+					roots, "call",	// replace it with the AL and jump to the label (saving address of subsequent instruction in $ra)
+					returned()
+					);
+		} else if (n.entry.nl == 0) {
+			return nlJoin(
+					argCode, 	  // generate code for argument expressions in reversed order
+					"lg "+(globalAR + n.entry.offset),		// AR of the declaration of the global function
+					"lg "+(globalAR + n.entry.offset - 1),	// its label, under it
+					jump	);
 		} else {
 			return nlJoin( 
-					"lfp", 		  // load CL (ptr to frame of function "id" caller)
 					argCode, 	  // generate code for argument expressions in reversed order
-					"lfp", getAR, // retrieve address of frame containing "id" declaration, by following the static chain (of AL)
+					ar(n.nl, n.entry.nl), 		  // retrieve address of frame containing "id" declaration, by following the static chain (of AL)
 					"push "+n.entry.offset, "add",	// get function's declaration-AR's address
 					saveSTMinLTM,				// save top of stack in tm register
 					"lw",							// get value (AR address of function's declaration)
@@ -470,7 +822,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 					"push 1",						// label address is saved after the AR address in the stack
 					"sub",							// get function's label address
 					"lw",							// get value (label of function's subroutine)
-					"js"	);
+					jump	);
 		}
 	}
 
@@ -480,11 +832,16 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(IdNode n) {//HO : If type is not functional no modification id needed; on the contrary if it is a functional type the address of AR(offset ID) for the fnct declaration and fnct address offset ID - 1)
 		if (print) printNode(n,n.id);
-		String getAR = null;
-		for (int i = 0;i<n.nl-n.entry.nl;i++) getAR=nlJoin(getAR,"lw");	// ascend CL chain until AR of declaration
+		if (n.entry.nl == 0) {	// a global: its words lie at fixed addresses in the AR of the main program
+			return nlJoin(
+					load(n.nl, 0, n.entry.offset),
+					n.entry.type instanceof ArrowTypeNode ? load(n.nl, 0, n.entry.offset-1) : null	// the label of a function
+					);
+		}
+		String getAR = ar(n.nl, n.entry.nl);	// ascend CL chain until AR of declaration
 		if(n.entry.type instanceof ArrowTypeNode) { //HO: if id is functional
 			return nlJoin(
-					"lfp", getAR, // retrieve address of frame containing "id" declaration			NB indir (fp) ad AR dichiaraz. funzione (recuperato a offset ID)
+					getAR, 		  // retrieve address of frame containing "id" declaration			NB indir (fp) ad AR dichiaraz. funzione (recuperato a offset ID)
 					saveSTMinLTM,// set $tm to popped value +  load on the stack the address of AR where ID is declared
 					"push "+n.entry.offset, "add", "lw", // load AR where the function is declared (it will be used as AL for the call)
 					"ltm", 		  // load the address of AR where ID is declared
@@ -492,7 +849,7 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 					);
 		} else {
 			return nlJoin(
-					"lfp", getAR, // retrieve address of frame containing "id" declaration by following the static chain (of Access Links)		NB indir (fp) ad AR dichiaraz. funzione (recuperato a offset ID)
+					getAR, 		  // retrieve address of frame containing "id" declaration by following the static chain (of Access Links)		NB indir (fp) ad AR dichiaraz. funzione (recuperato a offset ID)
 					"push "+n.entry.offset, "add", // compute address of "id" declaration
 					"lw" 		  // load value of "id" variable
 					);
@@ -504,24 +861,27 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(ClassCallNode n) {//OO:simile a CallNode solo che occorre risalire prima al refID
 		if (print) printNode(n,n.methodID);
-		String argCode = null, getAR = null;
-		for (int i=n.arglist.size()-1;i>=0;i--) argCode=nlJoin(argCode,visit(n.arglist.get(i)));
-		for (int i = 0;i<n.nl-n.entry.nl;i++) getAR=nlJoin(getAR,"lw");	// it retrieves the correct AR of (object) declaration.
+		String argCode = null;
+		boolean tail = isTailCall(n, n.entry, n.nl, n.arglist);	// the method replaces the frame of this function
+		int argWords = n.arglist.stream().mapToInt(CodeGenerationASTVisitor::words).sum();
+		String roots = roots();	// the frame of the caller during the call
+		if (!tail) frame.add(false);	// CL
+		for (int i=n.arglist.size()-1;i>=0;i--) {
+			argCode=nlJoin(argCode,visit(n.arglist.get(i)));
+			hold(n.arglist.get(i));
+		}
+		release((tail ? 0 : 1) + argWords);
 		return nlJoin(
-				"lfp", 			// load Control Link
+				tail ? null : "lfp", // load Control Link
 				argCode, 		// generate code for argument expressions in reversed order
-				"lfp", getAR, 	// retrieve address of frame containing "id" declaration by following the static chain (of Access Links)
-
-				"push "+n.entry.offset,
-				"add",			// get object pointer's address
-				"lw",			// load value of id variable(address of object instance)
+				load(n.nl, n.entry.nl, n.entry.offset),	// load value of id variable(address of object instance), from the frame containing its declaration
 
 				duplicateSTM,// (contains object pointer)
 				"lw",			// put dispatch pointer on stack (follow the access link)
 				"push "+n.methodEntry.offset,
 				"add",			// get method's label address
 				"lw",			//retrieve the address of the called method;  get value (label of method's subroutine)
-				"js"			//jump to the method ( subroutine (put address of next instruction in ra))
+				tail ? tailJump(argWords) : nlJoin(roots, "js", returned())	//jump to the method ( subroutine (put address of next instruction in ra))
 				);
 	}
 
@@ -532,20 +892,40 @@ public class CodeGenerationASTVisitor extends BaseASTVisitor<String, VoidExcepti
 	@Override
 	public String visitNode(NewNode n) {//OO
 		if (print) printNode(n,n.id);
+		String consl = consCalls.get(n);
+		if (consl == null) return newObject(n, false);
+		CallNode call = (CallNode) n.arglist.get(n.arglist.size()-1);
+		String code = newObject(n, true);
+		if (dstOffset >= 0) return nlJoin(code, destination(), "fill", consCall(call, consl, null, true));	// the object fills the destination, and is the next one
+		int k = frame.size();	// the first object, the value of the function
+		frame.add(true);
+		code = nlJoin(code, consCall(call, consl, nlJoin("lfp", "push "+(-2-k), "add", "lw"), false), "pop");	// the value of the last call is not needed
+		release(1);
+		return code;
+	}
+
+	/**
+	 * Code of "new", the last field being left as a hole (null) to be filled later if hole.
+	 */
+	private String newObject(NewNode n, boolean hole) {
 		String argCode = null, putArgsOnHeap = null;
 		for (int i=0 ; i<n.arglist.size() ; i++) {
-			argCode=nlJoin(argCode,visit(n.arglist.get(i))); // generate code for every field
+			argCode=nlJoin(argCode,hole && i == n.arglist.size()-1 ? "push -1" : visit(n.arglist.get(i))); // generate code for every field
+			hold(n.arglist.get(i));
 			putArgsOnHeap = nlJoin(putArgsOnHeap, 	//load parameters
 					"lhp",							//load heap address
 					"sw",							//store the value on the stack on the heap
 					incrementHP						// increment hp
 					);
 		}
+		String roots = roots();	// the fields are roots too while the object is allocated
+		release(n.arglist.size());
 		return nlJoin(
 				argCode,
+				roots,
+				"reserve "+(n.arglist.size()+1),	// room for the fields and the dispatch pointer: the garbage collector may run here
 				putArgsOnHeap,
-				"push "+(ExecuteVM.MEMSIZE+ n.entry.offset),// push dispatch pointer's address
-				"lw",		// put the dispatch pointer on top of the stack
+				"lg "+(globalAR+ n.entry.offset),	// put the dispatch pointer on top of the stack
 				"lhp",		// push hp on stack
 				"sw",		// store the dispatch pointer in hp
 				"lhp",		// copy object pointer (to be returned) on the stack; put hp on stack
@@ -0,0 +1,109 @@
+package compiler;
+
+import java.io.*;
+import org.antlr.v4.runtime.*;
+import compiler.exc.*;
+import compiler.lib.*;
+
+/**
+ * Non-local accesses through the static chain against the display (see
+ * CodeGenerationASTVisitor.ar), on FOOL code nested at growing depth: depth functions
+ * nested in each other, each with a parameter, around a loop calling a function that
+ * reads the parameters of all of them:
+ *
+ *   fun f1:int (x1:int) let ... fun fd:int (xd:int) let
+ *       fun sum:int () x1 + ... + xd;
+ *       fun loop:int (n:int, acc:int) if (n == 0) then {acc} else {loop(n - 1, acc + sum())};
+ *     in loop(iterations, 0); ... in print(f1(1));
+ *
+ * so that sum reads from 1 up to depth levels out, and every iteration pays the
+ * maintenance of the display on a call and a return and on a tail call. For each
+ * depth the two calling conventions run the same program on the interpreter: the
+ * instructions executed (counted by the Profiler) and the best time of a few runs
+ * after a second of warm-up. The programs must print the same value.
+ *
+ * Usage: DisplayBenchmark [maximum depth, default 6] [iterations, default 1000000]
+ */
+public class DisplayBenchmark {
+
+	private static final int RUNS = 5;
+	private static final long WARMUP = 1_000_000_000L; // ns
+
+	public static void main(String[] args) throws Exception {
+		int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+		System.out.printf("%-6s %16s %16s %8s %12s %12s %8s%n", "depth", "chain instr", "display instr", "ratio",
+				"chain ms", "display ms", "ratio");
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			String source = program(depth, iterations);
+			svm.Program chain = compile(source, false), display = compile(source, true);
+			String printed = run(chain, null);
+			if (!printed.equals(run(display, null))) throw new IllegalStateException("different outputs at depth "+depth);
+			long chainCount = count(chain), displayCount = count(display);
+			double chainTime = measure(chain) / 1e6, displayTime = measure(display) / 1e6;
+			System.out.printf("%-6d %16d %16d %8.3f %12.1f %12.1f %8.3f%n", depth, chainCount, displayCount,
+					(double) displayCount / chainCount, chainTime, displayTime, displayTime / chainTime);
+		}
+	}
+
+	static String program(int depth, int iterations) {
+		StringBuilder s = new StringBuilder("let\n");
+		String sum = null;
+		for (int k = 1; k <= depth; k++) {
+			s.append("  ".repeat(k)).append("fun f"+k+":int (x"+k+":int)\n").append("  ".repeat(k)).append("let\n");
+			sum = sum == null ? "x"+k : sum+" + x"+k;
+		}
+		String indent = "  ".repeat(depth + 1);
+		s.append(indent).append("fun sum:int () "+sum+";\n");
+		s.append(indent).append("fun loop:int (n:int, acc:int) if (n == 0) then {acc} else {loop(n - 1, acc + sum())};\n");
+		s.append("  ".repeat(depth)).append("in loop("+iterations+", 0);\n");
+		for (int k = depth - 1; k >= 1; k--) s.append("  ".repeat(k)).append("in f"+(k + 1)+"(x"+k+" + 1);\n");
+		return s.append("in print(f1(1));\n").toString();
+	}
+
+	static svm.Program compile(String source, boolean display) throws IOException, TypeException {
+		FOOLLexer lexer = new FOOLLexer(CharStreams.fromString(source));
+		FOOLParser parser = new FOOLParser(new CommonTokenStream(lexer));
+		Node ast = new ASTGenerationSTVisitor().visit(parser.prog());
+		SymbolTableASTVisitor symtable = new SymbolTableASTVisitor();
+		symtable.visit(ast);
+		new TypeCheckEASTVisitor().visit(ast);
+		if (lexer.lexicalErrors + parser.getNumberOfSyntaxErrors() + symtable.stErrors + FOOLlib.typeErrors > 0)
+			throw new IllegalStateException("errors in the program:\n"+source);
+		String code = new CodeGenerationASTVisitor(new svm.Memory(), display).visit(ast);
+		svm.Assembler assembler = svm.Assembler.assemble(new ByteArrayInputStream(code.getBytes()));
+		if (assembler.errors() > 0) throw new IllegalStateException("errors in the generated code");
+		return assembler.program();
+	}
+
+	/*
+	 * Runs the program, under the monitor if not null, and returns what it prints.
+	 */
+	private static String run(svm.Program program, svm.Monitor monitor) {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		svm.Output out = svm.Output.buffered(printed);
+		svm.ExecuteVM vm = new svm.ExecuteVM(program.code, program.labels, null, null, new svm.Memory(), null, out);
+		vm.setMonitor(monitor);
+		svm.Result result = vm.cpu();
+		out.close();
+		if (!result.halted()) throw new IllegalStateException("the program stopped: "+result);
+		return printed.toString();
+	}
+
+	private static long count(svm.Program program) {
+		svm.Profiler profiler = new svm.Profiler();
+		run(program, profiler);
+		return profiler.executed();
+	}
+
+	private static long measure(svm.Program program) {
+		for (long end = System.nanoTime() + WARMUP; System.nanoTime() < end; ) run(program, null);
+		long best = Long.MAX_VALUE;
+		for (int k = 0; k < RUNS; k++) {
+			long t = System.nanoTime();
+			run(program, null);
+			best = Math.min(best, System.nanoTime() - t);
+		}
+		return best;
+	}
+}
@@ -0,0 +1,525 @@
+package compiler;
+
+import compiler.AST.*;
+import compiler.lib.*;
+import rvm.ExecuteVM;
+import compiler.exc.*;
+import static compiler.lib.FOOLlib.*;
+
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * Code generation for the register virtual machine (rvm.ExecuteVM).
+ *
+ * The layout of activation records, objects and dispatch tables is the same used by the
+ * CodeGenerationASTVisitor, but the slots of the AR are used as registers: parameters,
+ * access link and local declarations are read in place, and the intermediate results of
+ * an expression are kept in temporary slots allocated below the local declarations.
+ * The frame of a function is therefore
+ *
+ *   fp+k..fp+1			parameters
+ *   fp					AL
+ *   fp-1				RA
+ *   fp-2..fp-1-decl	local declarations (same offsets assigned by the SymbolTableASTVisitor)
+ *   below				temporaries
+ *
+ * and its size is known at the end of the visit of the body (the "enter" instruction).
+ * Every visitNode generates code that leaves the value of the expression in the register
+ * "dest"; temporaries are allocated and released with a stack discipline.
+ */
+public class RegCodeGenerationASTVisitor extends BaseASTVisitor<String, VoidException> {
+	private static final int NONE = Integer.MIN_VALUE;	// no register
+
+	private int dest;		// register receiving the value of the expression being visited
+	private int nextTemp;	// next free temporary of the current frame
+	private int lowestTemp;	// lowest temporary used by the current frame
+	private String funCode;	// code of functions and methods, appended after the main program
+
+	private List<List<String>> dispatchTables;	//one for each class, as in the CodeGenerationASTVisitor
+
+	RegCodeGenerationASTVisitor() {}
+	RegCodeGenerationASTVisitor(boolean debug) {super(false,debug);} //enables print for debugging
+
+	/**
+	 * Generates the code of n leaving its value in register d.
+	 */
+	private String into(Node n, int d) {
+		int prev = dest;
+		dest = d;
+		try {
+			return visit(n);
+		} finally {
+			dest = prev;
+		}
+	}
+
+	private int temp() {
+		int t = nextTemp--;
+		if (t < lowestTemp) lowestTemp = t;
+		return t;
+	}
+
+	/**
+	 * Register already holding the value of n (a non functional identifier declared
+	 * in the current AR), NONE if its value must be computed.
+	 */
+	private static int local(Node n) {
+		if (n instanceof IdNode) {
+			IdNode id = (IdNode) n;
+			if (id.nl == id.entry.nl && !(id.entry.type instanceof ArrowTypeNode)) return id.entry.offset;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Generates "op dest a b" computing first and then second (the evaluation order
+	 * matters when they contain a print). The first operand is computed directly
+	 * in dest, that is never read by second.
+	 */
+	private String binary(String op, Node first, Node second) {
+		int mark = nextTemp;
+		String code = null;
+		int a = local(first), b = local(second);
+		if (a == NONE) code = into(first, a = dest);
+		if (b == NONE) code = nlJoin(code, into(second, b = temp()));
+		nextTemp = mark;
+		return nlJoin(code, op+" "+dest+" "+a+" "+b);
+	}
+
+	/**
+	 * Code leaving in register r the address of the AR found following
+	 * levels access links from the current one (levels>0).
+	 */
+	private static String followAL(int r, int levels) {
+		String code = "mov "+r+" 0";
+		for (int i = 1; i < levels; i++) code = nlJoin(code, "lw "+r+" "+r+" 0");
+		return code;
+	}
+
+	/**
+	 * Generates the code for a functional value (the AR of its declaration and the
+	 * address of its code), leaving them in the registers ar and label.
+	 */
+	private String intoPair(Node n, int ar, int label) {
+		if (n instanceof IdNode && ((IdNode) n).entry.type instanceof ArrowTypeNode) {
+			IdNode id = (IdNode) n;
+			if (id.nl == id.entry.nl) return nlJoin(
+					"mov "+ar+" "+id.entry.offset,
+					"mov "+label+" "+(id.entry.offset-1)
+					);
+			int mark = nextTemp, t = temp();
+			nextTemp = mark;
+			return nlJoin(
+					followAL(t, id.nl-id.entry.nl),
+					"lw "+ar+" "+t+" "+id.entry.offset,
+					"lw "+label+" "+t+" "+(id.entry.offset-1)
+					);
+		}
+		if (n instanceof IfNode) {
+			IfNode i = (IfNode) n;
+			String l1 = freshLabel();
+			String l2 = freshLabel();
+			int mark = nextTemp, c = local(i.cond);
+			String cond = c == NONE ? into(i.cond, c = temp()) : null;
+			nextTemp = mark;
+			return nlJoin(
+					cond,
+					"bt "+c+" "+l1,
+					intoPair(i.el, ar, label),
+					"b "+l2,
+					l1+":",
+					intoPair(i.th, ar, label),
+					l2+":"
+					);
+		}
+		return into(n, ar);
+	}
+
+	/**
+	 * Code of a function or method: declarations, body and return. The frame size is
+	 * known only at the end, so the state of the enclosing frame is saved and restored.
+	 */
+	private String body(String label, List<DecNode> declist, Node exp, int parSlots) {
+		int prevNext = nextTemp, prevLowest = lowestTemp;
+		String declCode = declarations(declist);
+		int mark = nextTemp, r = local(exp);
+		String expCode = r == NONE ? into(exp, r = temp()) : null;
+		nextTemp = mark;
+		String code = nlJoin(
+				label+":",
+				"enter "+(-lowestTemp),	// RA, local declarations and temporaries
+				declCode,
+				expCode,
+				"ret "+r+" "+(parSlots+1)	// the CL is right above the parameters
+				);
+		nextTemp = prevNext;
+		lowestTemp = prevLowest;
+		return code;
+	}
+
+	/**
+	 * Generates the local declarations of a frame, writing each one directly in its
+	 * slot, and sets up the temporaries below them.
+	 */
+	private String declarations(List<DecNode> declist) {
+		int slots = 0;
+		for (DecNode dec : declist) slots += dec.getType() instanceof ArrowTypeNode ? 2 : 1;
+		nextTemp = -2-slots;
+		lowestTemp = -1-slots;	// RA and declarations, no temporary used yet
+		String code = null;
+		int offset = -2;
+		for (DecNode dec : declist) {
+			code = nlJoin(code, into(dec, offset));
+			offset -= dec.getType() instanceof ArrowTypeNode ? 2 : 1;
+		}
+		return code;
+	}
+
+	private void putCode(String c) {
+		funCode = nlJoin(funCode, "", c);
+	}
+
+	@Override
+	public String visitNode(ProgLetInNode n) {
+		if (print) printNode(n);
+		dispatchTables = new ArrayList<>();
+		String declCode = declarations(n.declist);
+		String expCode = into(n.exp, temp());
+		return nlJoin(
+				"enter "+(-lowestTemp),	// the AR of the main program: fake RA, global declarations and temporaries
+				declCode,
+				expCode,
+				"halt",
+				funCode
+				);
+	}
+
+	@Override
+	public String visitNode(ProgNode n) {
+		if (print) printNode(n);
+		nextTemp = -2;
+		lowestTemp = -1;
+		String expCode = into(n.exp, temp());
+		return nlJoin(
+				"enter "+(-lowestTemp),
+				expCode,
+				"halt"
+				);
+	}
+
+	/**
+	 * A function declaration leaves in its two slots the AR of the declaration (the
+	 * current fp) and the address of the code.
+	 */
+	@Override
+	public String visitNode(FunNode n) {
+		if (print) printNode(n,n.id);
+		int parSlots = 0;
+		for (ParNode par : n.parlist) parSlots += par.getType() instanceof ArrowTypeNode ? 2 : 1;
+		String funl = freshFunLabel();
+		int slot = dest;
+		putCode(body(funl, n.declist, n.exp, parSlots));
+		return nlJoin(
+				"lfp "+slot,
+				"li "+(slot-1)+" "+funl
+				);
+	}
+
+	@Override
+	public String visitNode(VarNode n) {
+		if (print) printNode(n,n.id);
+		if (n.getType() instanceof ArrowTypeNode) return intoPair(n.exp, dest, dest-1);
+		return into(n.exp, dest);
+	}
+
+	@Override
+	public String visitNode(MethodNode n) {
+		if (print) printNode(n,n.id);
+		n.label = freshFunLabel();
+		putCode(body(n.label, n.declist, n.exp, n.parlist.size()));	// parameters of methods take one slot each, as in the SymbolTableASTVisitor
+		return null;
+	}
+
+	/**
+	 * The slot of a class holds its dispatch pointer: the dispatch table is built on
+	 * the heap exactly as in the CodeGenerationASTVisitor.
+	 */
+	@Override
+	public String visitNode(ClassNode n) {
+		if (print) printNode(n,n.id);
+		if(n.superID!=null) {
+			dispatchTables.add(new ArrayList<>(dispatchTables.get(-n.superEntry.offset-2)));
+		} else {
+			dispatchTables.add(new ArrayList<>());
+		}
+		List<String> dispatchTable = dispatchTables.get(dispatchTables.size()-1);
+		int slot = dest;
+		for(MethodNode m:n.methods) {
+			visit(m);
+			if(m.offset >= dispatchTable.size()) {
+				dispatchTable.add(m.label);
+			} else {
+				dispatchTable.set(m.offset, m.label);
+			}
+		}
+		int mark = nextTemp, t = temp();
+		nextTemp = mark;
+		String code = "lhp "+slot;	// dispatch pointer
+		for(String s: dispatchTable) code = nlJoin(code, "li "+t+" "+s, "shp "+t);
+		return code;
+	}
+
+	@Override
+	public String visitNode(PrintNode n) {
+		if (print) printNode(n);
+		int r = local(n.exp);
+		if (r == NONE) return nlJoin(into(n.exp, dest), "print "+dest);
+		return nlJoin("print "+r, "mov "+dest+" "+r);
+	}
+
+	@Override
+	public String visitNode(TimesNode n) {
+		if (print) printNode(n);
+		return binary("mult", n.left, n.right);
+	}
+
+	@Override
+	public String visitNode(PlusNode n) {
+		if (print) printNode(n);
+		return binary("add", n.left, n.right);
+	}
+
+	@Override
+	public String visitNode(MinusNode n) {
+		if (print) printNode(n);
+		return binary("sub", n.left, n.right);
+	}
+
+	@Override
+	public String visitNode(DivNode n) {
+		if (print) printNode(n);
+		return binary("div", n.left, n.right);
+	}
+
+	@Override
+	public String visitNode(EqualNode n) {
+		if (print) printNode(n);
+		return binary("seq", n.left, n.right);
+	}
+
+	@Override
+	public String visitNode(LessEqualNode n) {
+		if (print) printNode(n);
+		return binary("sleq", n.left, n.right);
+	}
+
+	/**
+	 * left >= right is right <= left; right is evaluated first as in the stack code.
+	 */
+	@Override
+	public String visitNode(GreaterEqualNode n) {
+		if (print) printNode(n);
+		return binary("sleq", n.right, n.left);
+	}
+
+	@Override
+	public String visitNode(NotNode n) {
+		if (print) printNode(n);
+		int mark = nextTemp, one = temp();
+		int v = local(n.val);
+		String code = v == NONE ? into(n.val, v = temp()) : null;
+		nextTemp = mark;
+		return nlJoin(code, "li "+one+" 1", "sub "+dest+" "+one+" "+v);
+	}
+
+	@Override
+	public String visitNode(AndNode n) {
+		if (print) printNode(n);
+		return binary("mult", n.left, n.right);
+	}
+
+	/**
+	 * Short circuit: the right operand is evaluated only if the left one is false.
+	 */
+	@Override
+	public String visitNode(OrNode n) {
+		if (print) printNode(n);
+		String l1 = freshLabel();
+		return nlJoin(
+				into(n.left, dest),
+				"bt "+dest+" "+l1,
+				into(n.right, dest),
+				l1+":"
+				);
+	}
+
+	@Override
+	public String visitNode(IntNode n) {
+		if (print) printNode(n,n.val.toString());
+		return "li "+dest+" "+n.val;
+	}
+
+	@Override
+	public String visitNode(BoolNode n) {
+		if (print) printNode(n,n.val.toString());
+		return "li "+dest+" "+(n.val?1:0);
+	}
+
+	@Override
+	public String visitNode(EmptyNode n) {
+		if (print) printNode(n);
+		return "li "+dest+" -1";
+	}
+
+	@Override
+	public String visitNode(IfNode n) {
+		if (print) printNode(n);
+		String l1 = freshLabel();
+		String l2 = freshLabel();
+		int mark = nextTemp, c = local(n.cond);
+		String cond = c == NONE ? into(n.cond, c = temp()) : null;
+		nextTemp = mark;
+		return nlJoin(
+				cond,
+				"bt "+c+" "+l1,
+				into(n.el, dest),
+				"b "+l2,
+				l1+":",
+				into(n.th, dest),
+				l2+":"
+				);
+	}
+
+	@Override
+	public String visitNode(IdNode n) {
+		if (print) printNode(n,n.id);
+		if (n.nl == n.entry.nl) return "mov "+dest+" "+n.entry.offset;
+		int mark = nextTemp, t = temp();
+		nextTemp = mark;
+		return nlJoin(
+				followAL(t, n.nl-n.entry.nl),
+				"lw "+dest+" "+t+" "+n.entry.offset
+				);
+	}
+
+	/**
+	 * Evaluates the arguments (in reversed order, as the stack code does) and
+	 * returns the code pushing them in the AR of the callee. An argument whose
+	 * parameter has a functional type, in the type of the callee, is passed as a
+	 * pair (AR and label), whatever expression computes it.
+	 */
+	private String[] arguments(List<Node> arglist, TypeNode callee) {
+		List<TypeNode> parTypes = callee instanceof MethodTypeNode ? ((MethodTypeNode) callee).fun.parlist : ((ArrowTypeNode) callee).parlist;
+		String code = null, push = null;
+		for (int i = arglist.size()-1; i >= 0; i--) {
+			Node arg = arglist.get(i);
+			if (parTypes.get(i) instanceof ArrowTypeNode) {
+				int ar = temp(), label = temp();
+				code = nlJoin(code, intoPair(arg, ar, label));
+				push = nlJoin(push, "push "+ar, "push "+label);
+			} else {
+				int r = local(arg);
+				if (r == NONE) code = nlJoin(code, into(arg, r = temp()));
+				push = nlJoin(push, "push "+r);
+			}
+		}
+		return new String[] {code, push};
+	}
+
+	private String call(String argCode, String push, int al, int target) {
+		return nlJoin(
+				argCode,
+				"pushfp",			// CL
+				push,				// arguments
+				"push "+al,			// AL
+				"call "+target,
+				"rv "+dest
+				);
+	}
+
+	@Override
+	public String visitNode(CallNode n) {
+		if (print) printNode(n,n.id);
+		int mark = nextTemp;
+		String[] args = arguments(n.arglist, n.entry.type);
+		String code;
+		int al, target;
+		if (n.entry.type instanceof MethodTypeNode) {	// call of a method of the same object: the AL is the object pointer
+			al = temp();
+			target = temp();
+			code = nlJoin(
+					followAL(al, n.nl-n.entry.nl),
+					"lw "+target+" "+al+" 0",					// dispatch pointer
+					"lw "+target+" "+target+" "+n.entry.offset	// method address
+					);
+		} else if (n.nl == n.entry.nl) {
+			al = n.entry.offset;
+			target = n.entry.offset-1;
+			code = null;
+		} else {
+			int t = temp();
+			al = temp();
+			target = temp();
+			code = nlJoin(
+					followAL(t, n.nl-n.entry.nl),
+					"lw "+al+" "+t+" "+n.entry.offset,
+					"lw "+target+" "+t+" "+(n.entry.offset-1)
+					);
+		}
+		nextTemp = mark;
+		return call(nlJoin(args[0], code), args[1], al, target);
+	}
+
+	@Override
+	public String visitNode(ClassCallNode n) {
+		if (print) printNode(n,n.methodID);
+		int mark = nextTemp;
+		String[] args = arguments(n.arglist, n.methodEntry.type);
+		String code = null;
+		int obj;
+		if (n.nl == n.entry.nl) {
+			obj = n.entry.offset;
+		} else {
+			obj = temp();
+			code = nlJoin(
+					followAL(obj, n.nl-n.entry.nl),
+					"lw "+obj+" "+obj+" "+n.entry.offset
+					);
+		}
+		int target = temp();
+		code = nlJoin(
+				code,
+				"lw "+target+" "+obj+" 0",
+				"lw "+target+" "+target+" "+n.methodEntry.offset
+				);
+		nextTemp = mark;
+		return call(nlJoin(args[0], code), args[1], obj, target);
+	}
+
+	/**
+	 * Fields are written on the heap last to first, then the dispatch pointer, which is
+	 * where the object pointer points.
+	 */
+	@Override
+	public String visitNode(NewNode n) {
+		if (print) printNode(n,n.id);
+		int mark = nextTemp;
+		String argCode = null, putArgsOnHeap = null;
+		for (Node arg : n.arglist) {
+			int r = local(arg);
+			if (r == NONE) argCode = nlJoin(argCode, into(arg, r = temp()));
+			putArgsOnHeap = nlJoin("shp "+r, putArgsOnHeap);
+		}
+		int t = temp();
+		nextTemp = mark;
+		return nlJoin(
+				argCode,
+				putArgsOnHeap,
+				"li "+t+" "+(ExecuteVM.MEMSIZE+n.entry.offset),	// address of the dispatch pointer in the global AR
+				"lw "+t+" "+t+" 0",
+				"lhp "+dest,	// object pointer
+				"shp "+t
+				);
+	}
+
+}
@@ -1,12 +1,15 @@
 package compiler;
 
+import compiler.AST.*;
 import compiler.lib.*;
 
 public class STentry implements Visitable {
 	final int nl;
 	final TypeNode type;
 	final int offset;
-	public STentry(int n, TypeNode t, int o) { nl = n; type = t; offset=o; }
+	final FunNode fun;	// the declaration of a function, null for parameters and variables
+	public STentry(int n, TypeNode t, int o) { this(n, t, o, null); }
+	public STentry(int n, TypeNode t, int o, FunNode f) { nl = n; type = t; offset=o; fun = f; }
 
 	@Override
 	public <S,E extends Exception> S accept(BaseASTVisitor<S,E> visitor) throws E {
@@ -91,7 +91,7 @@ public class SymbolTableASTVisitor extends BaseASTVisitor<Void,VoidException> {
 		n.setType(new ArrowTypeNode(parTypes, n.retType));												//function type is not set in the constructor (AST)
 		
 		STentry entry = new STentry(nestingLevel, 
-				new ArrowTypeNode(parTypes,n.retType),decOffset--);
+				new ArrowTypeNode(parTypes,n.retType),decOffset--, n);
 		decOffset--;																					//it updates the offset, so the next operation will have the correct value
 		
 		//inserimento di ID nella symtable
@@ -36,9 +36,105 @@ import java.nio.file.*;//needed from the visual svm
  * 9. That will be executed by the ExecuteVM;
  */
 public class Test {
+    /**
+     * Usage: Test [file.fool | file.fool.svmb] [-svm] [-svmb] [-codesize] [-verify] [-display] [-fuse[=pattern,...]] [-jit[=threshold]] [-mem=segment=words,...] [-gc[=nursery]] [-out=backend] [-profile[=file]] [-sample[=interval]] [-trace[=size]] [-limit=resource=amount,...] [-snapshot=file] [-resume=file] [-rvm]
+     * -svm runs the generated code on the headless svm.ExecuteVM instead of the visual one;
+     * -svmb (implies -svm) also saves the assembled code to the binary file.fool.svmb, which can be run
+     *   in place of file.fool skipping compilation and assembly (see svm.Program);
+     * -codesize (implies -svm) prints the size of the code as words, pre-decoded slots and compact bytes;
+     * -verify (implies -svm) checks the stack discipline of the code before running it, stopping on
+     *   errors, and prints the maximum stack depth of each function (see svm.Verifier);
+     * -display generates code reaching the ARs of the enclosing functions through a display kept by
+     *   the VM, one load per access, instead of following the static chain (see svm.ExecuteVM.display);
+     * -fuse (implies -svm) enables superinstruction fusion, for all patterns or only the listed ones;
+     * -jit (implies -svm) compiles to JVM bytecode the functions called more than threshold times;
+     * -mem sets the size of the stack and heap segments of the VM memory and where it is kept (see svm.Memory.parse);
+     * -gc (implies -svm) collects the garbage of the heap, with a nursery of the given words if any;
+     * -out (implies -svm) sends the output of the program to System.out buffered (default) or through a
+     *   writer thread ("async"), or to a file mapped in memory ("file=name") (see svm.Output.parse);
+     * -profile (implies -svm) counts the instructions executed by function and by opcode, printing a flat
+     *   profile and writing the collapsed stacks for a flame graph to file (default file.fool.folded);
+     * -sample (implies -svm) samples the running function every interval microseconds, printing a flat
+     *   profile and writing the collapsed stacks to file.fool.folded;
+     * -trace (implies -svm) records the last size instructions executed and, if the program stops with
+     *   a fault, dumps them to file.fool.trace and prints the last ones (see svm.Trace);
+     * -limit (implies -svm) runs the program within a budget of fuel and a maximum stack and heap,
+     *   printing how the run ended (see svm.Limits.parse);
+     * -snapshot (implies -svm) saves the state of the VM to file when the run stops, e.g. out of fuel;
+     * -resume runs the program saved in a snapshot from where it stopped, instead of compiling file.fool,
+     *   with -fuse, -jit, -gc, -out, -limit and -snapshot as above;
+     * -rvm generates code for the register machine (file.fool.rasm) and runs it on rvm.ExecuteVM.
+     */
     public static void main(String[] args) throws Exception {
    			
     	String fileName = "resources/bankloan.fool";
+    	boolean visual = true, register = false, binary = false, codeSize = false, verify = false, display = false;
+    	svm.Fusion fusion = null;
+    	svm.Jit jit = null;
+    	svm.Memory memory = new svm.Memory();
+    	int nursery = -1; // no garbage collection
+    	String output = "buffered";
+    	String profile = null; // no profiling
+    	int sampling = 0; // no sampling
+    	int tracing = 0; // no trace
+    	svm.Limits limits = null;
+    	String snapshot = null, resume = null;
+    	try {
+    		for (String arg : args) {
+    			if (arg.equals("-svm")) visual = false;
+    			else if (arg.equals("-svmb")) visual = !(binary = true);
+    			else if (arg.equals("-codesize")) visual = !(codeSize = true);
+    			else if (arg.equals("-verify")) visual = !(verify = true);
+    			else if (arg.equals("-rvm")) register = true;
+    			else if (arg.equals("-display")) display = true;
+    			else if (arg.startsWith("-fuse")) {
+    				visual = false;
+    				fusion = svm.Fusion.parse(arg.startsWith("-fuse=") ? arg.substring(6) : "all");
+    			} else if (arg.startsWith("-jit")) {
+    				visual = false;
+    				jit = arg.startsWith("-jit=") ? new svm.Jit(Integer.parseInt(arg.substring(5))) : new svm.Jit();
+    			} else if (arg.startsWith("-gc")) {
+    				visual = false;
+    				nursery = arg.startsWith("-gc=") ? Integer.parseInt(arg.substring(4)) : 0;
+    			} else if (arg.startsWith("-out=")) {
+    				visual = false;
+    				output = arg.substring(5);
+    			} else if (arg.startsWith("-profile")) {
+    				visual = false;
+    				profile = arg.startsWith("-profile=") ? arg.substring(9) : "";
+    			} else if (arg.startsWith("-sample")) {
+    				visual = false;
+    				sampling = arg.startsWith("-sample=") ? Integer.parseInt(arg.substring(8)) : svm.Sampler.DEFAULT_INTERVAL;
+    			} else if (arg.startsWith("-trace")) {
+    				visual = false;
+    				tracing = arg.startsWith("-trace=") ? Integer.parseInt(arg.substring(7)) : svm.Trace.DEFAULT_SIZE;
+    			} else if (arg.startsWith("-limit=")) {
+    				visual = false;
+    				limits = svm.Limits.parse(arg.substring(7));
+    			} else if (arg.startsWith("-snapshot=")) {
+    				visual = false;
+    				snapshot = arg.substring(10);
+    			} else if (arg.startsWith("-resume=")) resume = arg.substring(8);
+    			else if (arg.startsWith("-mem=")) memory = svm.Memory.parse(arg.substring(5));
+    			else fileName = arg;
+    		}
+    	} catch (IllegalArgumentException e) { // a malformed number, size or limit
+    		invalidOptions(e.getMessage());
+    	}
+    	if (memory.backend != svm.Memory.Backend.HEAP && (jit != null || nursery >= 0))
+    		invalidOptions("-jit and -gc need the heap memory backend, not "+memory.backend.name().toLowerCase());
+    	if (memory.backend != svm.Memory.Backend.HEAP && (profile != null || sampling > 0 || tracing > 0))
+    		invalidOptions("-profile, -sample and -trace need the heap memory backend, not "+memory.backend.name().toLowerCase());
+
+    	if (resume != null) {
+    		resumeSVM(resume, fusion, jit, nursery, output, limits, snapshot);
+    		return;
+    	}
+    	if (fileName.endsWith(".svmb")) {
+    		svm.Program program = svm.Program.load(fileName);
+    		runSVM(fileName.substring(0, fileName.length() - 5), program, fusion, jit, memory, nursery, output, profile, sampling, tracing, limits, snapshot, verify);
+    		return;
+    	}
 
     	CharStream chars = CharStreams.fromFileName(fileName);
     	FOOLLexer lexer = new FOOLLexer(chars);
@@ -82,14 +178,29 @@ public class Test {
 		
 		if ( frontEndErrors > 0) System.exit(1);   
 
+    	if (register) {
+    		runRVM(fileName, ast);
+    		return;
+    	}
+
     	System.out.println("Generating code.");
-    	String code = new CodeGenerationASTVisitor().visit(ast);        
+    	String code = new CodeGenerationASTVisitor(memory, display).visit(ast);        
     	BufferedWriter out = new BufferedWriter(new FileWriter(fileName+".asm")); 
     	out.write(code);
     	out.close(); 
     	System.out.println("");
 
     	System.out.println("Assembling generated code.");
+    	if (!visual) {
+    		svm.Program program = assembleSVM(fileName+".asm");
+    		if (codeSize) System.out.println(svm.CompactCode.report(program.code)+"\n");
+    		if (binary) {
+    			program.save(fileName+".svmb");
+    			System.out.println("Binary code written to "+fileName+".svmb\n");
+    		}
+    		runSVM(fileName, program, fusion, jit, memory, nursery, output, profile, sampling, tracing, limits, snapshot, verify);
+    		return;
+    	}
     	CharStream charsASM = CharStreams.fromFileName(fileName+".asm");
     	SVMLexer lexerASM = new SVMLexer(charsASM);
     	CommonTokenStream tokensASM = new CommonTokenStream(lexerASM);
@@ -103,9 +214,107 @@ public class Test {
 
     	System.out.println("Running generated code via Stack Virtual Machine.");
     	//ExecuteVM vm = new ExecuteVM(parserASM.code);
-    	ExecuteVM vm = new ExecuteVM(parserASM.code,parserASM.sourceMap,Files.readAllLines(Paths.get(fileName+".asm")));
+    	ExecuteVM vm = new ExecuteVM(parserASM.code,parserASM.sourceMap,Files.readAllLines(Paths.get(fileName+".asm")),memory);
     	vm.cpu();
 
     }
-}
 
+    private static void invalidOptions(String reason) {
+    	System.out.println("Invalid options: "+reason);
+    	System.exit(1);
+    }
+
+    private static svm.Program assembleSVM(String asmFile) throws IOException {
+    	svm.Assembler assembler = svm.Assembler.assemble(asmFile);
+
+    	System.out.println("You had: "+assembler.lexicalErrors+" lexical errors and "+assembler.syntaxErrors+" syntax errors.\n");
+    	if (assembler.errors()>0) System.exit(1);
+    	return assembler.program();
+    }
+
+    private static void runSVM(String fileName, svm.Program program, svm.Fusion fusion, svm.Jit jit, svm.Memory memory, int nursery, String output, String profile, int sampling, int tracing, svm.Limits limits, String snapshot, boolean verify) throws IOException {
+    	svm.Verifier verifier = verify ? new svm.Verifier(program) : null;
+    	if (verifier != null) {
+    		System.out.println(verifier.report()+"\n");
+    		if (!verifier.verified()) System.exit(1);
+    	}
+    	svm.Collector gc = nursery < 0 ? null : new svm.Collector(program.roots, program.frames, nursery);
+    	svm.Output out = svm.Output.parse(output);
+    	svm.ExecuteVM vm = new svm.ExecuteVM(program.code, program.labels, fusion, jit, memory, gc, out);
+    	vm.setSourceMap(program.sourceMap());
+    	if (fusion != null) System.out.println(fusion.report()+"\n");
+    	svm.Profiler profiler = profile == null ? null : new svm.Profiler();
+    	svm.Sampler sampler = sampling == 0 ? null : new svm.Sampler(program.frames, sampling);
+    	svm.Trace trace = tracing == 0 ? null : new svm.Trace(fileName+".trace", tracing);
+    	vm.setMonitor(profiler != null ? profiler : sampler != null ? sampler : trace);
+    	vm.setLimits(limits);
+    	if (verifier != null) vm.setVerified(verifier);
+
+    	System.out.println("Running generated code via Stack Virtual Machine.");
+    	svm.Result result = vm.cpu();
+    	out.close();
+    	if (limits != null) System.out.println("\nRun within "+limits+": "+result);
+    	if (snapshot != null) {
+    		svm.Snapshot.save(vm, snapshot, program.roots, program.frames);
+    		System.out.println("\nSnapshot written to "+snapshot);
+    	}
+    	if (fusion != null && fusion.fusions(svm.Fusion.Pattern.INVOKE) > 0 && memory.backend == svm.Memory.Backend.HEAP) System.out.println("\n"+vm.inlineCache().report());
+    	if (jit != null) System.out.println("\n"+jit.report());
+    	if (gc != null) System.out.println("\n"+gc.report());
+    	if (profiler != null) {
+    		String folded = profile.isEmpty() ? fileName+".folded" : profile;
+    		Files.writeString(Paths.get(folded), profiler.collapsed());
+    		System.out.println("\n"+profiler.report()+"Collapsed stacks written to "+folded);
+    	}
+    	if (trace != null && trace.dumped()) {
+    		System.out.println("\nTrace written to "+trace.file()+"\n");
+    		if (Files.exists(Paths.get(fileName+".asm"))) System.out.print(svm.Trace.decode(trace.file(), fileName+".asm", 20));
+    	}
+    	if (sampler != null) {
+    		Files.writeString(Paths.get(fileName+".folded"), sampler.collapsed());
+    		System.out.println("\n"+sampler.report()+"Collapsed stacks written to "+fileName+".folded");
+    	}
+    }
+
+    private static void resumeSVM(String file, svm.Fusion fusion, svm.Jit jit, int nursery, String output, svm.Limits limits, String snapshot) throws IOException {
+    	svm.Snapshot saved = svm.Snapshot.load(file);
+    	svm.Collector gc = nursery < 0 ? null : new svm.Collector(saved.roots(), saved.frames(), nursery);
+    	svm.Output out = svm.Output.parse(output);
+    	svm.ExecuteVM vm = saved.restore(fusion, jit, gc, out);
+    	vm.setLimits(limits);
+
+    	System.out.println("Resuming "+saved+".");
+    	svm.Result result = vm.cpu();
+    	out.close();
+    	if (limits != null) System.out.println("\nRun within "+limits+": "+result);
+    	if (snapshot != null) {
+    		svm.Snapshot.save(vm, snapshot, saved.roots(), saved.frames());
+    		System.out.println("\nSnapshot written to "+snapshot);
+    	}
+    	if (gc != null) System.out.println("\n"+gc.report());
+    }
+
+    private static void runRVM(String fileName, Node ast) throws IOException {
+    	System.out.println("Generating code for the register machine.");
+    	String code = new RegCodeGenerationASTVisitor().visit(ast);
+    	BufferedWriter out = new BufferedWriter(new FileWriter(fileName+".rasm"));
+    	out.write(code);
+    	out.close();
+    	System.out.println("");
+
+    	System.out.println("Assembling generated code.");
+    	CharStream charsASM = CharStreams.fromFileName(fileName+".rasm");
+    	rvm.RVMLexer lexerASM = new rvm.RVMLexer(charsASM);
+    	CommonTokenStream tokensASM = new CommonTokenStream(lexerASM);
+    	rvm.RVMParser parserASM = new rvm.RVMParser(tokensASM);
+
+    	parserASM.assembly();
+
+    	System.out.println("You had: "+lexerASM.lexicalErrors+" lexical errors and "+parserASM.getNumberOfSyntaxErrors()+" syntax errors.\n");
+    	if (lexerASM.lexicalErrors+parserASM.getNumberOfSyntaxErrors()>0) System.exit(1);
+
+    	System.out.println("Running generated code via Register Virtual Machine.");
+    	rvm.ExecuteVM vm = new rvm.ExecuteVM(parserASM.code);
+    	vm.cpu();
+    }
+}
@@ -0,0 +1,166 @@
+package rvm;
+
+/**
+ * Register virtual machine.
+ *
+ * Same memory layout and calling convention as the stack SVM (activation records
+ * on the stack growing down from MEMSIZE, objects and dispatch tables on the heap
+ * growing up from 0), but every instruction names its operands: register k is the
+ * cell memory[fp+k] of the current activation record. A binary operation such as
+ * "add d a b" reads both operands and writes the result in a single dispatch, with
+ * no push/pop traffic; the stack pointer only moves to build the activation record
+ * of a call.
+ *
+ * The stack overflows when it reaches the heap: "enter" checks it for the whole
+ * frame of the callee, and a push under address 0 fails the bounds check of the JVM.
+ * Both stop the machine with a report, as the SVM does.
+ */
+public class ExecuteVM {
+
+    public static final int CODESIZE = 10000;
+    public static final int MEMSIZE = 10000;
+
+    private final int[] code;
+    private final int[] memory = new int[MEMSIZE];
+
+    private int ip = 0;
+    private int sp = MEMSIZE;
+
+    private int hp = 0;
+    private int fp = MEMSIZE;
+    private int ra;
+    private int rv;   // value returned by the last call
+
+    private long executed;
+
+    public ExecuteVM(int[] code) {
+      this.code = code;
+    }
+
+    /**
+     * Number of instructions executed by the last run of cpu().
+     */
+    public long executed() {
+      return executed;
+    }
+
+    public void cpu() {
+      final int[] code = this.code;
+      final int[] memory = this.memory;
+      int ip = this.ip, fp = this.fp;
+      long executed = 0;
+      try {
+        while ( true ) {
+          executed++;
+          switch ( code[ip] ) {
+            case RVMParser.LI :
+              memory[fp + code[ip+1]] = code[ip+2];
+              ip += 3;
+              break;
+            case RVMParser.MOV :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]];
+              ip += 3;
+              break;
+            case RVMParser.ADD :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] + memory[fp + code[ip+3]];
+              ip += 4;
+              break;
+            case RVMParser.SUB :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] - memory[fp + code[ip+3]];
+              ip += 4;
+              break;
+            case RVMParser.MULT :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] * memory[fp + code[ip+3]];
+              ip += 4;
+              break;
+            case RVMParser.DIV :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] / memory[fp + code[ip+3]];
+              ip += 4;
+              break;
+            case RVMParser.SEQ :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] == memory[fp + code[ip+3]] ? 1 : 0;
+              ip += 4;
+              break;
+            case RVMParser.SLEQ :
+              memory[fp + code[ip+1]] = memory[fp + code[ip+2]] <= memory[fp + code[ip+3]] ? 1 : 0;
+              ip += 4;
+              break;
+            case RVMParser.LOADW :
+              memory[fp + code[ip+1]] = memory[memory[fp + code[ip+2]] + code[ip+3]];
+              ip += 4;
+              break;
+            case RVMParser.LOADFP :
+              memory[fp + code[ip+1]] = fp;
+              ip += 2;
+              break;
+            case RVMParser.LOADHP :
+              memory[fp + code[ip+1]] = hp;
+              ip += 2;
+              break;
+            case RVMParser.STOREHP :
+              memory[hp++] = memory[fp + code[ip+1]];
+              ip += 2;
+              break;
+            case RVMParser.BRANCH :
+              ip = code[ip+1];
+              break;
+            case RVMParser.BRANCHTRUE :
+              ip = memory[fp + code[ip+1]] == 1 ? code[ip+2] : ip + 3;
+              break;
+            case RVMParser.PUSH :
+              memory[--sp] = memory[fp + code[ip+1]];
+              ip += 2;
+              break;
+            case RVMParser.PUSHFP :
+              memory[--sp] = fp;
+              ip++;
+              break;
+            case RVMParser.ENTER :
+              fp = sp;
+              sp = fp - code[ip+1];
+              if (sp < hp) {
+                fault("Stack overflow", ip, fp);
+                return;
+              }
+              memory[fp-1] = ra;
+              ip += 2;
+              break;
+            case RVMParser.CALL :
+              ra = ip + 2;
+              ip = memory[fp + code[ip+1]];
+              break;
+            case RVMParser.RET :
+              rv = memory[fp + code[ip+1]];
+              sp = fp + code[ip+2] + 1;   // pop arguments, access link and control link
+              ip = memory[fp-1];
+              fp = memory[sp-1];
+              break;
+            case RVMParser.RV :
+              memory[fp + code[ip+1]] = rv;
+              ip += 2;
+              break;
+            case RVMParser.PRINT :
+              System.out.println(memory[fp + code[ip+1]]);
+              ip += 2;
+              break;
+            case RVMParser.HALT :
+              return;
+            default :
+              System.out.println("Illegal instruction at address "+ip);
+              return;
+          }
+        }
+      } catch (ArrayIndexOutOfBoundsException e) {
+        fault(sp < 0 ? "Stack overflow" : "Invalid memory access ("+e.getMessage()+")", ip, fp);
+      } catch (ArithmeticException e) {
+        fault("Division by zero", ip, fp);
+      } finally {
+        this.ip = ip; this.fp = fp; this.executed = executed;
+      }
+    }
+
+    private void fault(String reason, int address, int fp) {
+      System.out.println(reason+" at address "+address+": sp="+sp+" fp="+fp+" hp="+hp);
+    }
+
+}
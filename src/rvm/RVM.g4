@@ -0,0 +1,104 @@
+grammar RVM;
+
+/*
+ * Assembly language of the register virtual machine (rvm.ExecuteVM).
+ *
+ * Registers are the slots of the current activation record: register k is the
+ * memory cell at address fp+k. Parameters (k>0), access link (k=0), return address
+ * (k=-1), local declarations and temporaries (k<-1) are therefore all directly
+ * addressable operands and expressions do not move values through push/pop.
+ * Operands are written as integers (register numbers or immediates) or labels.
+ */
+
+@parser::header {
+import java.util.*;
+}
+
+@lexer::members {
+public int lexicalErrors=0;
+}
+
+@parser::members {
+public int[] code = new int[ExecuteVM.CODESIZE];
+private int i = 0;
+public Map<String,Integer> labelDef = new HashMap<>();
+private Map<Integer,String> labelRef = new HashMap<>();
+private void codem(int ... c) {
+   	for (int x : c) code[i++] = x;
+}
+private int n(Token t) {
+	return Integer.parseInt(t.getText());
+}
+}
+
+/*------------------------------------------------------------------
+ * PARSER RULES
+ *------------------------------------------------------------------*/
+
+assembly: instruction* EOF 	{ for (Integer j: labelRef.keySet())
+								code[j]=labelDef.get(labelRef.get(j));
+							} ;
+
+instruction:
+        LI d=INTEGER n=INTEGER            { codem(LI, n($d), n($n)); }						//R[d] = n
+	  | LI d=INTEGER l=LABEL              { codem(LI, n($d)); labelRef.put(i++,$l.text); }	//R[d] = address of LABEL
+	  | MOV d=INTEGER s=INTEGER           { codem(MOV, n($d), n($s)); }						//R[d] = R[s]
+	  | ADD d=INTEGER a=INTEGER b=INTEGER { codem(ADD, n($d), n($a), n($b)); }				//R[d] = R[a] + R[b]
+	  | SUB d=INTEGER a=INTEGER b=INTEGER { codem(SUB, n($d), n($a), n($b)); }				//R[d] = R[a] - R[b]
+	  | MULT d=INTEGER a=INTEGER b=INTEGER { codem(MULT, n($d), n($a), n($b)); }			//R[d] = R[a] * R[b]
+	  | DIV d=INTEGER a=INTEGER b=INTEGER { codem(DIV, n($d), n($a), n($b)); }				//R[d] = R[a] / R[b]
+	  | SEQ d=INTEGER a=INTEGER b=INTEGER { codem(SEQ, n($d), n($a), n($b)); }				//R[d] = R[a] == R[b] ? 1 : 0
+	  | SLEQ d=INTEGER a=INTEGER b=INTEGER { codem(SLEQ, n($d), n($a), n($b)); }			//R[d] = R[a] <= R[b] ? 1 : 0
+	  | LOADW d=INTEGER a=INTEGER n=INTEGER { codem(LOADW, n($d), n($a), n($n)); }			//R[d] = memory[R[a] + n]
+	  | LOADFP d=INTEGER                  { codem(LOADFP, n($d)); }							//R[d] = fp
+	  | LOADHP d=INTEGER                  { codem(LOADHP, n($d)); }							//R[d] = hp
+	  | STOREHP s=INTEGER                 { codem(STOREHP, n($s)); }						//memory[hp] = R[s], hp = hp + 1
+	  | l=LABEL COL                       { labelDef.put($l.text, i); }						//LABEL points at the location of the subsequent instruction
+	  | BRANCH l=LABEL                    { codem(BRANCH); labelRef.put(i++,$l.text); }		//jump at the instruction pointed by LABEL
+	  | BRANCHTRUE a=INTEGER l=LABEL      { codem(BRANCHTRUE, n($a)); labelRef.put(i++,$l.text); } //jump at LABEL if R[a] is 1
+	  | PUSH s=INTEGER                    { codem(PUSH, n($s)); }							//push R[s] on the stack (outgoing call arguments)
+	  | PUSHFP                            { codem(PUSHFP); }								//push fp on the stack (control link)
+	  | ENTER n=INTEGER                   { codem(ENTER, n($n)); }							//fp = sp, R[-1] = ra, reserve n cells for the frame
+	  | CALL s=INTEGER                    { codem(CALL, n($s)); }							//ra = address of the next instruction, jump to R[s]
+	  | RET s=INTEGER n=INTEGER           { codem(RET, n($s), n($n)); }						//rv = R[s], pop the frame up to the control link at R[n], restore fp and jump to the saved ra
+	  | RV d=INTEGER                      { codem(RV, n($d)); }								//R[d] = value returned by the last call
+	  | PRINT s=INTEGER                   { codem(PRINT, n($s)); }							//print R[s]
+	  | HALT                              { codem(HALT); }									//terminate the execution
+	  ;
+
+/*------------------------------------------------------------------
+ * LEXER RULES
+ *------------------------------------------------------------------*/
+
+LI			: 'li' ;
+MOV			: 'mov' ;
+ADD	 		: 'add' ;
+SUB	 		: 'sub' ;
+MULT	 	: 'mult' ;
+DIV	 		: 'div' ;
+SEQ			: 'seq' ;
+SLEQ		: 'sleq' ;
+LOADW	 	: 'lw' ;
+LOADFP	 	: 'lfp' ;
+LOADHP	 	: 'lhp' ;
+STOREHP	 	: 'shp' ;
+BRANCH	 	: 'b' ;
+BRANCHTRUE	: 'bt' ;
+PUSH		: 'push' ;
+PUSHFP		: 'pushfp' ;
+ENTER		: 'enter' ;
+CALL		: 'call' ;
+RET			: 'ret' ;
+RV			: 'rv' ;
+PRINT	 	: 'print' ;
+HALT	 	: 'halt' ;
+
+COL	 		: ':' ;
+LABEL	 	: ('a'..'z'|'A'..'Z')('a'..'z' | 'A'..'Z' | '0'..'9')* ;
+INTEGER	 	: '0' | ('-')?(('1'..'9')('0'..'9')*) ;
+
+COMMENT : '/*' .*? '*/' -> channel(HIDDEN) ;
+
+WHITESP  	: (' '|'\t'|'\n'|'\r')+ -> channel(HIDDEN) ;
+
+ERR	     	: . { System.out.println("Invalid char: "+ getText()); lexicalErrors++; } -> channel(HIDDEN);
@@ -0,0 +1,404 @@
+package svm;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Streaming assembler of the SVM code, accepting the same syntax as SVM.g4 and giving
+ * the same Program as the SVMParser, for the files too large for it: the ANTLR parser
+ * buffers every token and keeps the label fixups in maps of boxed integers, and its
+ * code[] cannot grow past ExecuteVM.CODESIZE.
+ *
+ * The input is read in blocks of bytes and tokenized by hand, with the longest match
+ * of the lexer rules ("pushx" is a label, "007" three integers). Labels are interned
+ * in an open addressing table of ids over a pool of their bytes: a label costs no
+ * object until the end, when the label table of the Program is built, and a reference
+ * to it is an entry of two int[] fixups, resolved in one pass once the whole input is
+ * read (as in the parser, the last definition of a label wins). The code goes into an
+ * int[] that doubles when full. The time is linear in the input.
+ *
+ * Errors are counted as by the SVMLexer and the SVMParser: an invalid char is printed
+ * and skipped; a token out of place is reported on System.err with its line and
+ * skipped, as are an integer out of range and a label never defined.
+ */
+public class Assembler {
+
+	private static final int EOF = -1;
+	private static final int BLOCK = 1 << 16;
+
+	private static final String[] KEYWORDS = new String[SVMParser.SCOPE + 1];
+	static {
+		for (int t = SVMParser.PUSH; t <= SVMParser.SCOPE; t++)
+			KEYWORDS[t] = SVMParser.VOCABULARY.getLiteralName(t).replace("'", "");
+	}
+	private static final byte[][][] BY_LENGTH = new byte[16][][]; // keywords by length
+	private static final int[][] TYPES = new int[16][];
+	static {
+		for (int len = 0; len < BY_LENGTH.length; len++) {
+			List<byte[]> k = new ArrayList<>();
+			List<Integer> t = new ArrayList<>();
+			for (int type = SVMParser.PUSH; type < KEYWORDS.length; type++)
+				if (KEYWORDS[type].length() == len) {
+					k.add(KEYWORDS[type].getBytes());
+					t.add(type);
+				}
+			BY_LENGTH[len] = k.toArray(new byte[0][]);
+			TYPES[len] = t.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	public int lexicalErrors, syntaxErrors;
+
+	private final InputStream in;
+	private final byte[] block = new byte[BLOCK];
+	private int position, limit;
+	private byte[] back = new byte[0];	// chars given back to the input, read before the block
+	private int backPosition;
+	private int line = 1, column;
+
+	// the current token
+	private int type, tokenLine, tokenColumn;
+	private byte[] text = new byte[64];
+	private int length;
+
+	// the output
+	private int[] code = new int[1024];
+	private int i;
+	private final HashMap<Integer,int[]> roots = new HashMap<>();
+	private final HashMap<Integer,int[]> frames = new HashMap<>();
+	private final HashMap<Integer,Integer> lines = new HashMap<>();
+	private final HashMap<Integer,String> scopes = new HashMap<>();
+
+	// labels: slots of the hash table hold id+1, 0 if free
+	private int[] slots = new int[1024];
+	private byte[] pool = new byte[4096];
+	private int poolSize, labelCount;
+	private int[] start = new int[256], size = new int[256], address = new int[256];
+	private int[] fixAt = new int[256], fixLabel = new int[256];
+	private int fixups;
+
+	private Assembler(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Assembles the code read from in; the errors are counted in the returned assembler.
+	 */
+	public static Assembler assemble(InputStream in) throws IOException {
+		Assembler a = new Assembler(in);
+		a.assembly();
+		return a;
+	}
+
+	public static Assembler assemble(String file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return assemble(in);
+		}
+	}
+
+	public int errors() {
+		return lexicalErrors + syntaxErrors;
+	}
+
+	/**
+	 * The assembled program: its code[] holds at least ExecuteVM.CODESIZE words, as the
+	 * one of the SVMParser, the words past the code trapping.
+	 */
+	public Program program() {
+		Map<String,Integer> labels = new HashMap<>(2 * labelCount);
+		for (int id = 0; id < labelCount; id++)
+			if (address[id] >= 0) labels.put(new String(pool, start[id], size[id], StandardCharsets.ISO_8859_1), address[id]);
+		return new Program(Arrays.copyOf(code, Math.max(i, ExecuteVM.CODESIZE)), labels, roots, frames, lines, scopes);
+	}
+
+	private void assembly() throws IOException {
+		next();
+		while (type != EOF) instruction();
+		for (int k = 0; k < fixups; k++) {
+			int id = fixLabel[k];
+			if (address[id] >= 0) code[fixAt[k]] = address[id];
+			else {
+				syntaxErrors++;
+				System.err.println("undefined label "+new String(pool, start[id], size[id], StandardCharsets.ISO_8859_1));
+			}
+		}
+	}
+
+	private void instruction() throws IOException {
+		int t = type, l = tokenLine, c = tokenColumn;
+		int id = t == SVMParser.LABEL ? label() : -1; // interned before next() overwrites the text
+		next();
+		switch (t) {
+			case SVMParser.PUSH:
+			case SVMParser.BRANCH:
+			case SVMParser.BRANCHEQ:
+			case SVMParser.BRANCHLESSEQ:
+			case SVMParser.RESERVE:
+			case SVMParser.TAILCALL:
+			case SVMParser.LEAVE:
+			case SVMParser.DISPLAY:
+			case SVMParser.LOADDISPLAY:
+			case SVMParser.LOADGLOBAL:
+				if (type == SVMParser.INTEGER) {
+					emit(t);
+					emit(integer());
+				} else if (type == SVMParser.LABEL && Decoder.takesLabel(t)) {
+					emit(t);
+					fixup(label());
+					emit(0);
+				} else {
+					error(l, c, "missing operand of "+KEYWORDS[t]);
+					return;
+				}
+				next();
+				return;
+			case SVMParser.LABEL:
+				if (type != SVMParser.COL) {
+					error(l, c, "label without ':'");
+					return;
+				}
+				address[id] = i;
+				next();
+				return;
+			case SVMParser.ROOTS:
+			case SVMParser.FRAME: {
+				int n = 0;
+				int[] w = new int[8];
+				for (; type == SVMParser.INTEGER; next()) {
+					if (n == w.length) w = Arrays.copyOf(w, 2 * n);
+					w[n++] = integer();
+				}
+				(t == SVMParser.ROOTS ? roots : frames).put(i, Arrays.copyOf(w, n));
+				return;
+			}
+			case SVMParser.LINE:
+				if (type != SVMParser.INTEGER) {
+					error(l, c, "missing line number");
+					return;
+				}
+				lines.put(i, integer());
+				next();
+				return;
+			case SVMParser.SCOPE:
+				if (type != SVMParser.STRING) {
+					error(l, c, "missing scope name");
+					return;
+				}
+				scopes.put(i, new String(text, 1, length - 2, StandardCharsets.ISO_8859_1));
+				next();
+				return;
+			case SVMParser.INTEGER:
+			case SVMParser.COL:
+			case SVMParser.STRING:
+				error(l, c, "extraneous input");
+				return;
+			default: // an instruction without operands
+				emit(t);
+		}
+	}
+
+	private void emit(int word) {
+		if (i == code.length) code = Arrays.copyOf(code, 2 * i);
+		code[i++] = word;
+	}
+
+	private void fixup(int id) {
+		if (fixups == fixAt.length) {
+			fixAt = Arrays.copyOf(fixAt, 2 * fixups);
+			fixLabel = Arrays.copyOf(fixLabel, 2 * fixups);
+		}
+		fixAt[fixups] = i;
+		fixLabel[fixups++] = id;
+	}
+
+	private void error(int l, int c, String message) {
+		syntaxErrors++;
+		System.err.println("line "+l+":"+c+" "+message);
+	}
+
+	// value of the INTEGER token, 0 if out of range (an error)
+	private int integer() {
+		long v = 0;
+		int k = text[0] == '-' ? 1 : 0;
+		for (int j = k; j < length && v <= Integer.MAX_VALUE + 1L; j++) v = 10 * v + text[j] - '0';
+		if (k == 1) v = -v;
+		if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+			error(tokenLine, tokenColumn, "integer out of range");
+			return 0;
+		}
+		return (int) v;
+	}
+
+	/*
+	 * Id of the label in the token, interning it if new.
+	 */
+	private int label() {
+		int h = 0;
+		for (int j = 0; j < length; j++) h = 31 * h + text[j];
+		int mask = slots.length - 1;
+		for (int s = h & mask; ; s = (s + 1) & mask) {
+			int id = slots[s] - 1;
+			if (id < 0) {
+				slots[s] = intern() + 1;
+				if (2 * labelCount > slots.length) rehash();
+				return labelCount - 1;
+			}
+			if (size[id] == length && Arrays.equals(pool, start[id], start[id] + length, text, 0, length)) return id;
+		}
+	}
+
+	private int intern() {
+		if (poolSize + length > pool.length) pool = Arrays.copyOf(pool, Math.max(2 * pool.length, poolSize + length));
+		if (labelCount == start.length) {
+			start = Arrays.copyOf(start, 2 * labelCount);
+			size = Arrays.copyOf(size, 2 * labelCount);
+			address = Arrays.copyOf(address, 2 * labelCount);
+		}
+		System.arraycopy(text, 0, pool, poolSize, length);
+		start[labelCount] = poolSize;
+		size[labelCount] = length;
+		address[labelCount] = -1;
+		poolSize += length;
+		return labelCount++;
+	}
+
+	private void rehash() {
+		slots = new int[2 * slots.length];
+		int mask = slots.length - 1;
+		for (int id = 0; id < labelCount; id++) {
+			int h = 0;
+			for (int j = 0; j < size[id]; j++) h = 31 * h + pool[start[id] + j];
+			int s = h & mask;
+			while (slots[s] != 0) s = (s + 1) & mask;
+			slots[s] = id + 1;
+		}
+	}
+
+	/*
+	 * The tokenizer: longest match of the rules of SVM.g4, whitespace skipped.
+	 */
+
+	private int peek() throws IOException {
+		if (backPosition < back.length) return back[backPosition] & 0xFF;
+		if (position == limit) {
+			limit = in.read(block, 0, BLOCK);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		return block[position] & 0xFF;
+	}
+
+	private void take(int ch) {
+		if (backPosition < back.length) backPosition++; else position++;
+		if (ch == '\n') {
+			line++;
+			column = 0;
+		} else column++;
+		if (length == text.length) text = Arrays.copyOf(text, 2 * length);
+		text[length++] = (byte) ch;
+	}
+
+	private void next() throws IOException {
+		while (true) {
+			int ch = peek();
+			length = 0;
+			tokenLine = line;
+			tokenColumn = column;
+			if (ch == EOF) {
+				type = EOF;
+				return;
+			}
+			if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+				take(ch);
+				continue;
+			}
+			if (letter(ch)) {
+				do {
+					take(ch);
+					ch = peek();
+				} while (letter(ch) || digit(ch));
+				type = keyword();
+				return;
+			}
+			if (ch == '0') {
+				take(ch);
+				type = SVMParser.INTEGER;
+				return;
+			}
+			if (ch == '-' || digit(ch)) {
+				take(ch);
+				if (ch == '-' && !nonZero(peek())) { // a lone '-' (ERR), or "-0"
+					invalid();
+					continue;
+				}
+				while (digit(ch = peek())) take(ch);
+				type = SVMParser.INTEGER;
+				return;
+			}
+			if (ch == ':') {
+				take(ch);
+				type = SVMParser.COL;
+				return;
+			}
+			if (ch == '"' && string()) return;
+			take(ch);
+			invalid();
+		}
+	}
+
+	// a STRING if it is closed on its line, else only the '"' is taken (ERR)
+	private boolean string() throws IOException {
+		take('"');
+		int l = line, c = column;
+		while (true) {
+			int ch = peek();
+			if (ch == '"') {
+				take(ch);
+				type = SVMParser.STRING;
+				return true;
+			}
+			if (ch == EOF || ch == '\r' || ch == '\n') break;
+			take(ch);
+		}
+		// give back what follows the '"', to be tokenized again
+		byte[] rest = Arrays.copyOfRange(back, backPosition, back.length);
+		back = Arrays.copyOf(Arrays.copyOfRange(text, 1, length), length - 1 + rest.length);
+		System.arraycopy(rest, 0, back, length - 1, rest.length);
+		backPosition = 0;
+		line = l;
+		column = c;
+		length = 1;
+		return false;
+	}
+
+	private void invalid() {
+		System.out.println("Invalid char: "+(char) text[0]);
+		lexicalErrors++;
+		length = 0;
+	}
+
+	private int keyword() {
+		if (length < BY_LENGTH.length) {
+			byte[][] k = BY_LENGTH[length];
+			for (int j = 0; j < k.length; j++)
+				if (Arrays.equals(k[j], 0, length, text, 0, length)) return TYPES[length][j];
+		}
+		return SVMParser.LABEL;
+	}
+
+	private static boolean letter(int ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+	}
+
+	private static boolean digit(int ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	private static boolean nonZero(int ch) {
+		return ch >= '1' && ch <= '9';
+	}
+}
@@ -0,0 +1,99 @@
+package svm;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import org.antlr.v4.runtime.*;
+
+/**
+ * Throughput of the Assembler against the SVMParser, on synthetic code shaped as the
+ * one of the code generator: functions with their metadata, calls, branches and
+ * labels.
+ *
+ * The parser is measured on a file within its ExecuteVM.CODESIZE words; the Assembler
+ * on the same file and on files of growing size, up to millions of instructions, to
+ * show its time is linear. Each measure is the best of a few runs after a second of warm-up,
+ * with the bytes allocated by the thread, if the JVM counts them.
+ *
+ * Usage: AssemblerBenchmark [instructions of the largest file, default 2000000]
+ */
+public class AssemblerBenchmark {
+
+	private static final int RUNS = 5;
+	private static final long WARMUP = 1_000_000_000L; // ns
+	private static final int FUNCTION = 21; // instructions of a function, 28 words
+
+	private interface Run {
+		void run(String file) throws IOException;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int largest = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Run parser = file -> {
+			SVMLexer lexer = new SVMLexer(CharStreams.fromFileName(file));
+			SVMParser p = new SVMParser(new CommonTokenStream(lexer));
+			p.assembly();
+			if (lexer.lexicalErrors + p.getNumberOfSyntaxErrors() > 0) throw new IllegalStateException("errors in "+file);
+		};
+		Run assembler = file -> {
+			if (Assembler.assemble(file).errors() > 0) throw new IllegalStateException("errors in "+file);
+		};
+		Path dir = Files.createTempDirectory("svm-asm");
+		try {
+			System.out.printf("%-10s %12s %12s %10s %10s %14s %14s%n", "", "instructions", "bytes", "ms", "MB/s",
+					"instr/s", "allocated");
+			int functions = (ExecuteVM.CODESIZE - 8) / 28;
+			Path small = write(dir.resolve("small.asm"), functions);
+			measure("SVMParser", parser, small, functions);
+			measure("Assembler", assembler, small, functions);
+			for (int n = largest / 100; n <= largest; n *= 10) {
+				functions = n / FUNCTION;
+				measure("Assembler", assembler, write(dir.resolve(n+".asm"), functions), functions);
+			}
+		} finally {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+				for (Path f : files) Files.delete(f);
+			}
+			Files.delete(dir);
+		}
+	}
+
+	private static void measure(String name, Run run, Path file, int functions) throws IOException {
+		for (long end = System.nanoTime() + WARMUP; System.nanoTime() < end; ) run.run(file.toString());
+		long best = Long.MAX_VALUE, allocated = -1;
+		for (int k = 0; k < RUNS; k++) {
+			long a = allocated();
+			long t = System.nanoTime();
+			run.run(file.toString());
+			best = Math.min(best, System.nanoTime() - t);
+			if (a >= 0) allocated = allocated() - a;
+		}
+		long bytes = Files.size(file), instructions = 6 + (long) FUNCTION * functions;
+		double seconds = best / 1e9;
+		System.out.printf("%-10s %12d %12d %10.1f %10.1f %14.0f %14s%n", name, instructions, bytes, best / 1e6,
+				bytes / 1e6 / seconds, instructions / seconds, allocated < 0 ? "n/a" : String.valueOf(allocated));
+	}
+
+	private static long allocated() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	/*
+	 * A main calling a chain of the given number of functions.
+	 */
+	private static Path write(Path file, int functions) throws IOException {
+		try (Writer w = new BufferedWriter(new FileWriter(file.toFile()))) {
+			w.write("push 0\nline 1\nlfp\npush function0\njs\nprint\nhalt\n");
+			for (int k = 0; k < functions; k++) {
+				String next = k + 1 < functions ? "push function"+(k + 1)+"\njs\n" : "push 1\nadd\n";
+				w.write("function"+k+":\nscope \"f"+k+"\"\nline "+(k + 2)+"\nframe 0 0\ncfp\nlra\nlfp\npush 1\nadd\nlw\n"
+						+"push 2\nbeq label"+k+"a\npush 0\nb label"+k+"b\nlabel"+k+"a:\npush -1\nlabel"+k+"b:\n"
+						+"roots 0\nlfp\n"+next+"stm\nsra\npop\nsfp\nltm\nlra\njs\n");
+			}
+		}
+		return file;
+	}
+}
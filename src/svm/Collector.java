@@ -0,0 +1,268 @@
+package svm;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Precise mark-compact garbage collector of the heap segment.
+ *
+ * The code of "new" stores the fields of an object at hp after a "reserve n" which
+ * makes room for its n words: reserve is the only point at which the collector runs.
+ * An object is laid out as its fields followed by its dispatch pointer, which the
+ * object pointer addresses; the dispatch table of each class is preceded by the layout
+ * of its objects, written by the code generator: the number of fields at dp-1 and,
+ * for each field k, 1 at dp-2-k if the field holds an object pointer. The dispatch
+ * tables are built by the class declarations, before any object is created: the heap
+ * below hp at the first reserve is never collected.
+ *
+ * The roots are found from the metadata emitted by the code generator (SVMParser.roots
+ * and frames). Every reserve and every call ("js", "call") has a stack map telling which
+ * words of the frame between the RA and sp are object pointers (for a call, those
+ * under its CL); the frame of each function tells whether its AL is an object
+ * (methods) and which parameters are. Starting from the reserve the frames are
+ * walked through their RA and CL.
+ *
+ * Fields are written when an object is created, so an object mostly points to older
+ * objects, at lower addresses: a single scan from hp downwards marks the heap, and the
+ * live objects slide down keeping their order. The exception is "fill", which writes
+ * the last field of an object after it was created (tail recursion modulo cons, see
+ * CodeGenerationASTVisitor): the younger objects it points to have already been passed
+ * by the scan, and are marked from a stack. In nursery mode the objects are allocated
+ * in a nursery above the old generation: when it is full only the nursery is collected
+ * (minor collection) and the survivors are promoted; the whole heap is collected (major
+ * collection) when the old generation leaves no room in the heap for the next nursery,
+ * before the heap grows for it. A pointer goes from
+ * the old generation to the nursery only through a "fill": the fields it writes are
+ * remembered (filled()) as roots of the next minor collection.
+ */
+public class Collector {
+
+	private final Map<Integer,int[]> roots;
+	private final TreeMap<Integer,int[]> frames;
+	private final int nursery;	// words of the nursery, 0 if every collection is a major one
+
+	private ExecuteVM vm;
+	private int base = -1;		// first address of the collected heap, -1 before the first reserve
+	private int old;			// end of the old generation
+	private int lastHp;			// hp after the last collection
+	private int[] remembered = new int[16];	// old fields written by "fill" since the last collection
+	private int filled;
+
+	private int minor, major;
+	private long start, pauses, maxPause;	// nanoseconds
+	private long allocated, reclaimed, promoted;	// words
+
+	public Collector(Map<Integer,int[]> roots, Map<Integer,int[]> frames) {
+		this(roots, frames, 0);
+	}
+
+	/**
+	 * @param roots		stack maps by address (SVMParser.roots)
+	 * @param frames	frame layouts by function address (SVMParser.frames)
+	 * @param nursery	words of the nursery, 0 to collect the whole heap every time
+	 */
+	public Collector(Map<Integer,int[]> roots, Map<Integer,int[]> frames, int nursery) {
+		this.roots = roots;
+		this.frames = new TreeMap<>(frames);
+		this.nursery = nursery;
+	}
+
+	/**
+	 * Called by "reserve words" at address when hp+words passes the allocation limit
+	 * returned by the previous call: collects the heap if needed and returns the new
+	 * limit, making sure that the heap reaches it.
+	 */
+	int reserve(ExecuteVM vm, int address, int words) {
+		if (base < 0) {
+			this.vm = vm;
+			base = old = lastHp = vm.hp;
+			start = System.nanoTime();
+		} else {
+			long t = System.nanoTime();
+			allocated += vm.hp - lastHp;
+			if (nursery > 0) {
+				minor++;
+				collect(vm, address, old);
+				promoted += vm.hp - old;
+				old = vm.hp;
+			}
+			if (nursery == 0 || old + (long) nursery + words > vm.heapLimit) { // no room for the next nursery without growing
+				major++;
+				collect(vm, address, base);
+				old = vm.hp;
+				if (2L * (old - base) > vm.heapLimit - base && vm.heapLimit < vm.layout.size(vm.maxHeap)) vm.grow(vm.heapLimit); // keep it at most half full
+			}
+			lastHp = vm.hp;
+			t = System.nanoTime() - t;
+			pauses += t;
+			maxPause = Math.max(maxPause, t);
+		}
+		int end = vm.layout.heapBase() + vm.maxHeap;
+		int limit = nursery > 0 ? (int) Math.min(old + (long) nursery, end) : vm.heapLimit;
+		limit = Math.max(limit, vm.hp + words);
+		if (limit > vm.heapLimit) vm.grow(limit - 1);
+		return nursery > 0 ? limit : vm.heapLimit;
+	}
+
+	/**
+	 * Collects the objects from "from" to hp, the safepoint being address.
+	 */
+	private void collect(ExecuteVM vm, int address, int from) {
+		final int[] m = vm.memory;
+		final int top = vm.hp;
+		final int[] forward = new int[top - from];	// 0 unreachable, -1 reachable, then the new address
+		IntConsumer reach = slot -> {
+			int p = m[slot];
+			if (p >= from && p < top) forward[p - from] = -1;
+		};
+		walk(vm, address, reach);
+		for (int k = 0; k < filled; k++) if (remembered[k] < from) reach.accept(remembered[k]);
+
+		// mark: an object is reached before it is scanned, unless a "fill" made it younger
+		// than an object pointing to it; those are scanned at once, from pending
+		int[] live = new int[64], pending = new int[16];
+		int n = 0;
+		boolean ordered = true;
+		for (int op = top - 1; op >= from; ) {
+			int size = m[m[op] - 1] + 1;
+			if (forward[op - from] != 0) {
+				int p = 0;
+				pending[p++] = op;
+				while (p > 0) {
+					int o = pending[--p], dp = m[o], fields = m[dp - 1];
+					for (int k = 0; k < fields; k++) {
+						int q = m[o - 1 - k];
+						if (m[dp - 2 - k] == 0 || q < from || forward[q - from] != 0) continue;
+						forward[q - from] = -1;
+						if (q > op) {
+							if (p == pending.length) pending = Arrays.copyOf(pending, 2 * p);
+							pending[p++] = q;
+							ordered = false;
+						}
+					}
+					if (n == live.length) live = Arrays.copyOf(live, 2 * n);
+					live[n++] = o;
+				}
+			}
+			op -= size;
+		}
+		if (!ordered) {	// from the highest address down, as the scan finds them
+			Arrays.sort(live, 0, n);
+			for (int i = 0, j = n - 1; i < j; i++, j--) {
+				int t = live[i];
+				live[i] = live[j];
+				live[j] = t;
+			}
+		}
+
+		// new addresses, from the bottom
+		int to = from;
+		for (int j = n - 1; j >= 0; j--) {
+			int op = live[j];
+			to += m[m[op] - 1] + 1;
+			forward[op - from] = to - 1;
+		}
+
+		// update the pointers, then slide the objects down
+		IntConsumer update = slot -> {
+			int p = m[slot];
+			if (p >= from && p < top) m[slot] = forward[p - from];
+		};
+		walk(vm, address, update);
+		for (int k = 0; k < filled; k++) if (remembered[k] < from) update.accept(remembered[k]);
+		for (int j = n - 1; j >= 0; j--) {
+			int op = live[j], dp = m[op], fields = m[dp - 1];
+			for (int k = 0; k < fields; k++)
+				if (m[dp - 2 - k] != 0 && m[op - 1 - k] >= from) m[op - 1 - k] = forward[m[op - 1 - k] - from];
+		}
+		for (int j = n - 1; j >= 0; j--) {
+			int op = live[j], size = m[m[op] - 1] + 1;
+			System.arraycopy(m, op - size + 1, m, forward[op - from] - size + 1, size);
+		}
+		reclaimed += top - to;
+		vm.hp = to;
+		filled = 0;	// the survivors are old now
+	}
+
+	/**
+	 * Called by "fill" after it wrote an object pointer in the field at slot: the field
+	 * is remembered if it is in the old generation and points to the nursery.
+	 */
+	void filled(int slot) {
+		if (nursery == 0 || base < 0 || slot >= old || vm.memory[slot] < old) return;
+		if (filled == remembered.length) remembered = Arrays.copyOf(remembered, 2 * filled);
+		remembered[filled++] = slot;
+	}
+
+	/**
+	 * Passes to root the address of every stack word holding an object pointer,
+	 * walking the frames from the one of the safepoint at address.
+	 */
+	private void walk(ExecuteVM vm, int address, IntConsumer root) {
+		int[] m = vm.memory;
+		int pc = address, sp = vm.sp, fp = vm.fp;
+		while (true) {
+			int[] map = roots.get(pc);
+			if (map == null || sp != fp - 1 - map.length) throw new IllegalStateException("No stack map for address "+pc);
+			for (int k = 0; k < map.length; k++) if (map[k] != 0) root.accept(fp - 2 - k);
+			if (fp == vm.layout.stack) return; // the frame of the main program
+			Map.Entry<Integer,int[]> f = frames.floorEntry(pc);
+			if (f == null) throw new IllegalStateException("No frame layout for address "+pc);
+			int[] frame = f.getValue(); // AL, then the parameters; the CL follows them
+			if (frame[0] != 0) root.accept(fp);
+			for (int j = 1; j < frame.length; j++) if (frame[j] != 0) root.accept(fp + j);
+			pc = m[fp - 1] - 1; // the "js" or "call" of the call
+			sp = fp + frame.length + 1;
+			fp = m[fp + frame.length];
+		}
+	}
+
+	/*
+	 * The first address of the collected heap and the end of the old generation, -1
+	 * before the first reserve: saved by a Snapshot, and given back to the collector
+	 * of the restored VM by resume().
+	 */
+	int base() {
+		return base;
+	}
+
+	Map<Integer,int[]> roots() {
+		return roots;
+	}
+
+	Map<Integer,int[]> frames() {
+		return frames;
+	}
+
+	int old() {
+		return filled == 0 ? old : vm.hp;	// the remembered fields are not saved: the nursery is saved as old
+	}
+
+	void resume(ExecuteVM vm, int base, int old) {
+		if (base < 0) return;
+		this.vm = vm;
+		this.base = base;
+		this.old = old;
+		lastHp = vm.hp;
+		start = System.nanoTime();
+	}
+
+	public int collections() {
+		return minor + major;
+	}
+
+	public String report() {
+		long total = System.nanoTime() - start;
+		long words = allocated + (vm == null ? 0 : vm.hp - lastHp);
+		int n = collections();
+		StringBuilder s = new StringBuilder("GC: "+n+" collections");
+		if (nursery > 0) s.append(" ("+minor+" minor, "+major+" major, nursery "+nursery+" words)");
+		s.append(String.format(", pauses %.3f ms total, %.3f ms max, %.3f ms mean",
+				pauses / 1e6, maxPause / 1e6, n > 0 ? pauses / 1e6 / n : 0.0));
+		s.append("\n  "+words+" words allocated, "+reclaimed+" reclaimed");
+		if (nursery > 0) s.append(", "+promoted+" promoted");
+		if (vm != null) s.append(String.format(", throughput %.1f%% (%.1f ms in GC out of %.1f ms)",
+				100.0 * (total - pauses) / total, pauses / 1e6, total / 1e6));
+		return s.toString();
+	}
+}
@@ -0,0 +1,146 @@
+package svm;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact encoding of the assembled code[], for the files that keep it (Program,
+ * Snapshot): a byte per opcode instead of a word, and operands of variable length.
+ *
+ * The low 5 bits of the first byte of an instruction hold its opcode (SVMParser
+ * token types are 1..HALT), or 31 for the opcodes from 31 on, which then take a
+ * second byte, the high 3 bits the form of its operand:
+ *
+ *   1..7		short form: the operand is form-3 (-2..4), in the byte itself
+ *   0			the operand follows as a varint (zigzag, 7 bits per byte), if the
+ *				opcode has one
+ *
+ * A word that is not an opcode (opcode 0) is escaped: the byte 0, then the word as a
+ * varint. The code decoded is the same code[], word for word, so it keeps its word
+ * addresses: labels, return addresses and dispatch tables are data the program pushes
+ * and stores, which cannot be told apart from integers and relocated to byte offsets.
+ * The interpreter keeps running the pre-decoded slots (see Decoder): the compact form
+ * saves space on disk and in the page cache, not dispatch time.
+ */
+public class CompactCode {
+
+	private static final int OPCODE = 0x1F;
+	private static final int EXTENDED = OPCODE;	// the opcode is in the next byte
+	private static final int SHORT_BIAS = 3;
+	private static final int SHORT_MIN = 1 - SHORT_BIAS, SHORT_MAX = 7 - SHORT_BIAS;
+
+	private CompactCode() {}
+
+	/**
+	 * Encodes the first n words of code, n being at the end of an instruction.
+	 */
+	public static byte[] encode(int[] code, int n) {
+		ByteArrayOutputStream b = new ByteArrayOutputStream(n + n / 2);
+		int a = 0;
+		while (a < n) {
+			int op = code[a];
+			if (op <= 0 || op > SVMParser.HALT) {
+				b.write(0);
+				varint(b, op);
+				a++;
+			} else if (Decoder.length(op) == 2) {
+				int arg = a + 1 < code.length ? code[a + 1] : 0;
+				if (arg >= SHORT_MIN && arg <= SHORT_MAX) opcode(b, op, (arg + SHORT_BIAS) << 5);
+				else {
+					opcode(b, op, 0);
+					varint(b, arg);
+				}
+				a += 2;
+			} else {
+				opcode(b, op, 0);
+				a++;
+			}
+		}
+		return b.toByteArray();
+	}
+
+	/**
+	 * Encodes code up to its last word that is not 0.
+	 */
+	public static byte[] encode(int[] code) {
+		return encode(code, used(code));
+	}
+
+	static int used(int[] code) {
+		int n = code.length;
+		while (n > 0 && code[n - 1] == 0) n--;
+		return n;
+	}
+
+	private static void opcode(ByteArrayOutputStream b, int op, int form) {
+		if (op < EXTENDED) b.write(op | form);
+		else {
+			b.write(EXTENDED | form);
+			b.write(op);
+		}
+	}
+
+	private static void varint(ByteArrayOutputStream b, int v) {
+		int z = (v << 1) ^ (v >> 31);
+		while ((z & ~0x7F) != 0) {
+			b.write(z & 0x7F | 0x80);
+			z >>>= 7;
+		}
+		b.write(z);
+	}
+
+	/**
+	 * Decodes bytes of compact code from b into a code[] of length words.
+	 */
+	public static int[] decode(ByteBuffer b, int bytes, int length) {
+		int[] code = new int[length];
+		int end = b.position() + bytes, a = 0;
+		while (b.position() < end) {
+			int first = b.get() & 0xFF, op = first & OPCODE;
+			if (op == 0) code[a++] = varint(b);
+			else {
+				if (op == EXTENDED) op = b.get() & 0xFF;
+				code[a++] = op;
+				if (Decoder.length(op) == 2) {
+					int form = first >>> 5;
+					int arg = form != 0 ? form - SHORT_BIAS : varint(b);
+					if (a < length) code[a] = arg;
+					a++;
+				}
+			}
+		}
+		return code;
+	}
+
+	private static int varint(ByteBuffer b) {
+		int z = 0;
+		for (int shift = 0; ; shift += 7) {
+			int x = b.get();
+			z |= (x & 0x7F) << shift;
+			if (x >= 0) break;
+		}
+		return (z >>> 1) ^ -(z & 1);
+	}
+
+	/**
+	 * Size of the code in the assembled code[], in the pre-decoded long[] of the
+	 * interpreter and in the compact encoding.
+	 */
+	public static String report(int[] code) {
+		int n = used(code), instructions = 0, operands = 0, shortForm = 0;
+		for (int a = 0; a < n; a += code[a] > 0 && code[a] <= SVMParser.HALT ? Decoder.length(code[a]) : 1) {
+			instructions++;
+			if (code[a] > 0 && code[a] <= SVMParser.HALT && Decoder.length(code[a]) == 2) {
+				operands++;
+				if (a + 1 < code.length && code[a + 1] >= SHORT_MIN && code[a + 1] <= SHORT_MAX) shortForm++;
+			}
+		}
+		int bytes = encode(code, n).length;
+		return String.format("Code size: %d instructions, %d with an operand (%d in short form)%n"
+				+ "  code[]      %8d bytes (%d words)%n"
+				+ "  decoded     %8d bytes%n"
+				+ "  compact     %8d bytes, %.2f bytes per instruction, %.1f%% of code[]",
+				instructions, operands, shortForm, 4 * n, n, 8 * (n + 1), bytes,
+				instructions == 0 ? 0.0 : (double) bytes / instructions, n == 0 ? 0.0 : 100.0 * bytes / (4 * n));
+	}
+}
@@ -0,0 +1,101 @@
+package svm;
+
+/**
+ * Pre-decoder for the code produced by the SVMParser.
+ *
+ * The assembled code[] stores each instruction as an opcode word followed by
+ * its operand word (if any). Before execution it is translated once into a dense
+ * long[] in which every instruction occupies a single slot: the opcode is kept in
+ * the low 32 bits and the operand inline in the high 32 bits, so a dispatch costs
+ * one memory load instead of two.
+ *
+ * The address space is preserved: the instruction at code address a is decoded
+ * into slot a, therefore labels pushed on the stack, return addresses and dispatch
+ * tables remain valid without any relocation. The slot of an operand word
+ * (and every slot past the end of the program) is decoded as TRAP, which stops the
+ * machine instead of running into garbage.
+ */
+class Decoder {
+
+	static final int TRAP = 0; // never produced by the SVMLexer, token types start from 1
+
+	// superinstructions, only produced by Fusion; they follow HALT to keep the opcodes dense
+	static final int LOADLOCAL = SVMParser.HALT + 1;	// lfp push k add lw		(5 words)
+	static final int LOADOFFSET = SVMParser.HALT + 2;	// push k add lw			(4 words)
+	static final int HEAPSTORE = SVMParser.HALT + 3;	// lhp sw lhp push 1 add shp	(7 words)
+	static final int INCHP = SVMParser.HALT + 4;		// lhp push 1 add shp		(5 words)
+	static final int DUPTM = SVMParser.HALT + 5;		// stm ltm ltm				(3 words)
+	static final int BRANCHTRUE = SVMParser.HALT + 6;	// push 1 beq L				(4 words)
+	static final int INVOKE = SVMParser.HALT + 7;		// lw push k add lw js		(6 words)
+
+	static long encode(int op, int arg) {
+		return ((long) arg << 32) | (op & 0xFFFFFFFFL);
+	}
+
+	static int op(long insn) {
+		return (int) insn;
+	}
+
+	static int arg(long insn) {
+		return (int) (insn >> 32);
+	}
+
+	/**
+	 * Number of words an instruction takes in the assembled code[].
+	 */
+	static int length(int op) {
+		switch (op) {
+			case SVMParser.PUSH:
+			case SVMParser.BRANCH:
+			case SVMParser.BRANCHEQ:
+			case SVMParser.BRANCHLESSEQ:
+			case SVMParser.RESERVE:
+			case SVMParser.TAILCALL:
+			case SVMParser.LEAVE:
+			case SVMParser.DISPLAY:
+			case SVMParser.LOADDISPLAY:
+			case SVMParser.LOADGLOBAL:
+				return 2;
+			default:
+				return 1;
+		}
+	}
+
+	/**
+	 * Whether the operand of an instruction may be a label (an address of the code).
+	 */
+	static boolean takesLabel(int op) {
+		return op == SVMParser.PUSH || op == SVMParser.BRANCH || op == SVMParser.BRANCHEQ || op == SVMParser.BRANCHLESSEQ;
+	}
+
+	/**
+	 * Mnemonic of an opcode, in lower case for superinstructions too.
+	 */
+	static String name(int op) {
+		if (op == TRAP) return "trap";
+		if (op > SVMParser.HALT) return Fusion.Pattern.values()[op - SVMParser.HALT - 1].name().toLowerCase();
+		String literal = SVMParser.VOCABULARY.getLiteralName(op);
+		return literal == null ? SVMParser.VOCABULARY.getSymbolicName(op) : literal.replace("'", "");
+	}
+
+	static long[] decode(int[] code) {
+		long[] prog = new long[code.length + 1]; // the extra slot traps a fall-through past the last word
+		int a = 0;
+		while (a < code.length) {
+			int op = code[a];
+			if (op <= TRAP || op > SVMParser.HALT) {
+				prog[a] = encode(TRAP, a);
+				a++;
+			} else if (length(op) == 2 && a + 1 < code.length) {
+				prog[a] = encode(op, code[a + 1]);
+				prog[a + 1] = encode(TRAP, a + 1);
+				a += 2;
+			} else {
+				prog[a] = encode(op, 0);
+				a++;
+			}
+		}
+		prog[code.length] = encode(TRAP, code.length);
+		return prog;
+	}
+}
@@ -1,126 +1,686 @@
 package svm;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
 public class ExecuteVM {
-    
+
     public static final int CODESIZE = 10000;
-    public static final int MEMSIZE = 10000;
-    
-    private int[] code;
-    private int[] memory = new int[MEMSIZE];
-    
+    public static final int MEMSIZE = Memory.DEFAULT_STACK; // address of the global AR with the default Memory
+
+    private final int[] code;    // as assembled, kept for a Snapshot
+    private final long[] prog;   // pre-decoded code: one slot per instruction, operand inline (see Decoder)
+    private final Jit jit;
+    private final InlineCache inlineCache;
+
+    private final Collector collector;
+    private final Output out;
+    private final Map<String,Integer> labels;
+    private Monitor monitor;
+    private SourceMap sourceMap;
+    private int allocLimit;     // "reserve" goes to the slow path when hp passes it
+    private Limits limits;
+    private long budget, fuel;  // fuel given and left, in words of code
+    private int segment;        // first address of the code run since the last jump, charged at the next one
+    private int stackFloor = Integer.MIN_VALUE; // sp below it at a jump exceeds the stack limit
+    private int[] depths;       // maximum stack depth of the function at each entry, for verified code
+    private Result result;
+
+    // package-private: also read and written by the code compiled by the Jit and by the Collector
+    final Memory layout;
+    int heapLimit;              // first heap address not allocated in memory[]
+    int maxHeap;                // words the heap can grow to: the Memory layout or the Limits
+    int[] memory;               // null with an off-heap backend
+    private final OffHeapMemory words; // null with the HEAP backend
+    private final Words mem;    // memory or words, as the interpreter reads them
+
     private int ip = 0;
-    private int sp = MEMSIZE;
-    
-    private int hp = 0;       
-    private int fp = MEMSIZE; 
-    private int ra;           
-    private int tm;
-    
+    private int faultAddress = -1;  // instruction of compiled code that faulted, -1 if none (see faulted)
+    int sp;
+
+    int hp;
+    int fp;
+    int ra;
+    int tm;
+
+    int[] display = new int[8]; // AR of each nesting level (see display), valid up to level
+    int level;
+
     public ExecuteVM(int[] code) {
+      this(code, null, null);
+    }
+
+    public ExecuteVM(int[] code, Map<String,Integer> labels, Fusion fusion) {
+      this(code, labels, fusion, null);
+    }
+
+    /**
+     * @param labels	label table built by the SVMParser (labelDef), may be null
+     * @param fusion	superinstruction fusion applied to the code before running it, may be null
+     * @param jit		compiles the hot functions to JVM bytecode, may be null; it needs the labels
+     */
+    public ExecuteVM(int[] code, Map<String,Integer> labels, Fusion fusion, Jit jit) {
+      this(code, labels, fusion, jit, new Memory());
+    }
+
+    /**
+     * @param layout	sizes of the stack and heap segments, the same given to the code generator
+     */
+    public ExecuteVM(int[] code, Map<String,Integer> labels, Fusion fusion, Jit jit, Memory layout) {
+      this(code, labels, fusion, jit, layout, null);
+    }
+
+    /**
+     * @param collector	garbage collector of the heap, may be null to let the heap grow up to its maximum
+     */
+    public ExecuteVM(int[] code, Map<String,Integer> labels, Fusion fusion, Jit jit, Memory layout, Collector collector) {
+      this(code, labels, fusion, jit, layout, collector, Output.buffered());
+    }
+
+    /**
+     * @param out	sink of "print" and of the faults, flushed when the machine stops
+     */
+    public ExecuteVM(int[] code, Map<String,Integer> labels, Fusion fusion, Jit jit, Memory layout, Collector collector, Output out) {
       this.code = code;
+      this.layout = layout;
+      this.collector = collector;
+      this.out = out;
+      this.labels = labels;
+      if (layout.backend == Memory.Backend.HEAP) {
+        this.memory = new int[layout.size(layout.heap)];
+        this.words = null;
+        this.mem = new Words.Heap(memory);
+        this.heapLimit = memory.length;
+      } else {
+        if (jit != null || collector != null) throw new IllegalArgumentException("The JIT and the collector need the HEAP memory backend");
+        this.memory = null;
+        this.mem = OffHeapMemory.create(layout); // as Words, not to load OffHeapMemory on the HEAP backend (see Words)
+        this.words = (OffHeapMemory) mem;
+        this.heapLimit = words.size();
+      }
+      this.sp = this.fp = this.display[0] = layout.stack;
+      this.hp = layout.heapBase();
+      this.maxHeap = layout.maxHeap;
+      this.allocLimit = collector == null ? heapLimit : -1; // the first reserve tells the collector where the heap starts
+      this.prog = Decoder.decode(code);
+      this.inlineCache = new InlineCache(prog.length);
+      if (fusion != null) fusion.apply(prog, labels == null ? null : labels.values());
+      this.jit = labels == null ? null : jit;
+      if (this.jit != null) this.jit.attach(code, labels);
+    }
+
+    /**
+     * Runs the program under the given monitor (a Profiler, a Sampler, a Trace), without the
+     * JIT; null runs it normally.
+     */
+    public void setMonitor(Monitor monitor) {
+      if (monitor != null && words != null) throw new IllegalArgumentException("Monitors need the HEAP memory backend");
+      if (monitor != null) monitor.attach(this, labels);
+      this.monitor = monitor;
+    }
+
+    /**
+     * Runs the program within the given limits, without the JIT; null runs it without
+     * limits. The fuel is charged at the jumps ("js", "call", "ret", INVOKE and the
+     * backward branches) for the words of code from the target of the previous jump up
+     * to the jump, and the stack depth is checked there too: the other instructions run
+     * exactly as they do without limits. The heap limit lowers the maximum of the
+     * Memory layout.
+     */
+    public void setLimits(Limits limits) {
+      this.limits = limits;
+      this.budget = this.fuel = limits == null || limits.fuel == 0 ? Long.MAX_VALUE : limits.fuel;
+      this.segment = ip;
+      this.stackFloor = limits == null || limits.stack == 0 ? Integer.MIN_VALUE : layout.stack - limits.stack;
+      this.maxHeap = limits == null || limits.heap == 0 ? layout.maxHeap : Math.min(limits.heap, layout.maxHeap);
+      heapLimit = Math.min(memory != null ? memory.length : words.size(), layout.size(maxHeap));
+      if (allocLimit >= 0) allocLimit = heapLimit;
+    }
+
+    /**
+     * Declares the code verified by verifier: the stack limit is then checked at each
+     * call for the whole frame of the callee, its maximum depth being known, so that a
+     * run never goes past the limit, instead of being checked for the sp reached at
+     * the jumps only.
+     */
+    public void setVerified(Verifier verifier) {
+      if (!verifier.verified()) throw new IllegalArgumentException("the code did not verify");
+      this.depths = verifier.depths();
+    }
+
+    /**
+     * Map of the code back to the FOOL source, used to report faults and by the monitors:
+     * set it before the monitor.
+     */
+    public void setSourceMap(SourceMap sourceMap) {
+      this.sourceMap = sourceMap;
+    }
+
+    SourceMap sourceMap() {
+      return sourceMap;
+    }
+
+    int codeSize() {
+      return prog.length;
     }
-    
-    public void cpu() {
-      while ( true ) {
-        int bytecode = code[ip++]; // fetch
-        int v1,v2;
-        int address;
-        switch ( bytecode ) {
-          case SVMParser.PUSH:
-            push( code[ip++] );
-            break;
-          case SVMParser.POP:
-            pop();
-            break;
-          case SVMParser.ADD :
-            v1=pop();
-            v2=pop();
-            push(v2 + v1);
-            break;
-          case SVMParser.MULT :
-            v1=pop();
-            v2=pop();
-            push(v2 * v1);
-            break;
-          case SVMParser.DIV :
-            v1=pop();
-            v2=pop();
-            push(v2 / v1);
-            break;
-          case SVMParser.SUB :
-            v1=pop();
-            v2=pop();
-            push(v2 - v1);
-            break;
-          case SVMParser.STOREW : //
-            address = pop();
-            memory[address] = pop();    
-            break;
-          case SVMParser.LOADW : //
-            push(memory[pop()]);
-            break;
-          case SVMParser.BRANCH : 
-            address = code[ip];
-            ip = address;
-            break;
-          case SVMParser.BRANCHEQ :
-            address = code[ip++];
-            v1=pop();
-            v2=pop();
-            if (v2 == v1) ip = address;
-            break;
-          case SVMParser.BRANCHLESSEQ :
-            address = code[ip++];
-            v1=pop();
-            v2=pop();
-            if (v2 <= v1) ip = address;
-            break;
-          case SVMParser.JS : //
-            address = pop();
-            ra = ip;
-            ip = address;
-            break;
-         case SVMParser.STORERA : //
-            ra=pop();
-            break;
-         case SVMParser.LOADRA : //
-            push(ra);
-            break;
-         case SVMParser.STORETM : 
-            tm=pop();
-            break;
-         case SVMParser.LOADTM : 
-            push(tm);
-            break;
-         case SVMParser.LOADFP : //
-            push(fp);
-            break;
-         case SVMParser.STOREFP : //
-            fp=pop();
-            break;
-         case SVMParser.COPYFP : //
-            fp=sp;
-            break;
-         case SVMParser.STOREHP : //
-            hp=pop();
-            break;
-         case SVMParser.LOADHP : //
-            push(hp);
-            break;
-         case SVMParser.PRINT :
-            System.out.println((sp<MEMSIZE)?memory[sp]:"Empty stack!");
-            break;
-         case SVMParser.HALT :
-            return;
+
+    /*
+     * The state saved and restored by a Snapshot.
+     */
+    int[] code() {
+      return code;
+    }
+
+    Map<String,Integer> labels() {
+      return labels;
+    }
+
+    Collector collector() {
+      return collector;
+    }
+
+    int ip() {
+      return ip;
+    }
+
+    /*
+     * Sets the registers of a restored machine, making room for the heap up to hp.
+     */
+    void resume(int ip, int sp, int fp, int hp, int ra, int tm) {
+      if (hp - layout.heapBase() > layout.maxHeap || sp < 0 || sp > layout.stack + 1)
+        throw new IllegalArgumentException("the registers do not fit the Memory layout");
+      this.ip = this.segment = ip;
+      this.sp = sp;
+      this.fp = fp;
+      this.hp = hp;
+      this.ra = ra;
+      this.tm = tm;
+      if (hp >= heapLimit) {
+        grow(hp);
+        if (collector == null) allocLimit = heapLimit;
+      }
+    }
+
+    /*
+     * Bulk copies of n words of the memory from or to address, for a Snapshot.
+     */
+    void read(int address, IntBuffer to, int n) {
+      if (words == null) to.put(memory, address, n); else words.read(address, to, n);
+    }
+
+    void write(int address, IntBuffer from, int n) {
+      if (words == null) from.get(memory, address, n); else words.write(address, from, n);
+    }
+
+    /**
+     * Hit and miss counters of the virtual calls fused by the INVOKE pattern.
+     */
+    public InlineCache inlineCache() {
+      return inlineCache;
+    }
+
+    /**
+     * Runs the program until it halts, faults or exceeds its limits; the faults are
+     * printed and returned, not thrown.
+     */
+    public Result cpu() {
+      result = null;
+      run();
+      return result;
+    }
+
+    /*
+     * ip and sp, touched by every instruction, live in locals for the whole run and
+     * are written back only when the machine stops; code and memory are read through
+     * locals. fp, hp, ra and tm stay in fields: they are touched only around calls and
+     * allocations, and keeping them out of the loop-carried state measurably helps C2's
+     * register allocation of the dispatch switch. Rare instructions (print, trap) are
+     * kept out of the loop body.
+     *
+     * The one loop serves every backend and monitor: the memory is read through Words,
+     * whose call sites C2 inlines for the single backend of the run, and the monitor,
+     * told about every instruction and every jump of "js", "call", "ret" and INVOKE, is
+     * a null test when there is none. The JIT runs only on the HEAP backend, without a
+     * monitor and limits.
+     *
+     * Memory faults are not checked by the instructions: a stack overflow or a wrong
+     * address fails the bounds check of the JVM (or of the buffers of an OffHeapMemory)
+     * and is reported by fault().
+     */
+    private void run() {
+      final long[] prog = this.prog;
+      final Words m = this.mem;
+      final Monitor p = this.monitor;
+      final Jit jit = limits == null && p == null ? this.jit : null;
+      final boolean metered = limits != null;
+      int ip = this.ip, sp = this.sp;
+      int v;
+      if (p != null) p.start();
+      try {
+        while ( true ) {
+          long insn = prog[ip++]; // fetch: opcode and operand in one load
+          if (p != null) p.step(ip - 1, (int) insn, sp);
+          switch ( (int) insn ) {
+            case SVMParser.PUSH:
+              m.set(--sp, (int) (insn >> 32));
+              ip++; // skip the operand slot
+              break;
+            case SVMParser.POP:
+              sp++;
+              break;
+            case SVMParser.ADD :
+              v = m.get(sp++);
+              m.set(sp, m.get(sp) + v);
+              break;
+            case SVMParser.MULT :
+              v = m.get(sp++);
+              m.set(sp, m.get(sp) * v);
+              break;
+            case SVMParser.DIV :
+              v = m.get(sp++);
+              m.set(sp, m.get(sp) / v);
+              break;
+            case SVMParser.SUB :
+              v = m.get(sp++);
+              m.set(sp, m.get(sp) - v);
+              break;
+            case SVMParser.STOREW : //
+              v = m.get(sp++);
+              m.set(v, m.get(sp++));
+              break;
+            case SVMParser.LOADW : //
+              m.set(sp, m.get(m.get(sp)));
+              break;
+            case SVMParser.BRANCH :
+              v = (int) (insn >> 32);
+              if (v < ip && metered && !meter(ip + 1, v, sp)) return;
+              ip = v;
+              break;
+            case SVMParser.BRANCHEQ :
+              v = m.get(sp++);
+              if (m.get(sp++) == v) {
+                v = (int) (insn >> 32);
+                if (v < ip && metered && !meter(ip + 1, v, sp)) return;
+                ip = v;
+              } else ip++;
+              break;
+            case SVMParser.BRANCHLESSEQ :
+              v = m.get(sp++);
+              if (m.get(sp++) <= v) {
+                v = (int) (insn >> 32);
+                if (v < ip && metered && !meter(ip + 1, v, sp)) return;
+                ip = v;
+              } else ip++;
+              break;
+            case SVMParser.JS : //
+              ra = ip;
+              ip = m.get(sp++);
+              if (jit != null) { // run the target compiled, if it is hot
+                this.sp = sp;
+                ip = jit.enter(this, ip);
+                sp = this.sp;
+              } else if (metered && !meter(ra, ip, sp)) return;
+              if (p != null) p.jump(ip);
+              break;
+            case SVMParser.CALL : { // the AL in place of the address of the closure
+              int closure = m.get(sp);
+              m.set(sp, m.get(closure));
+              ra = ip;
+              ip = m.get(closure - 1);
+              if (jit != null) {
+                this.sp = sp;
+                ip = jit.enter(this, ip);
+                sp = this.sp;
+              } else if (metered && !meter(ra, ip, sp)) return;
+              if (p != null) p.jump(ip);
+              break;
+            }
+            case SVMParser.ENTER : //
+              fp = sp;
+              m.set(--sp, ra);
+              break;
+            case SVMParser.LEAVE : // the value in place of the CL, under the parameters and the AL
+              v = m.get(sp);
+              ra = m.get(fp - 1);
+              sp = fp + (int) (insn >> 32) + 1;
+              fp = m.get(sp);
+              m.set(sp, v);
+              ip++;
+              break;
+            case SVMParser.RET : //
+              v = ip;
+              ip = ra;
+              if (metered && !meter(v, ip, sp)) return;
+              if (p != null) p.jump(ip);
+              break;
+            case SVMParser.DISPLAY : //
+              display((int) (insn >> 32));
+              ip++;
+              break;
+            case SVMParser.LOADDISPLAY : //
+              m.set(--sp, display[(int) (insn >> 32)]);
+              ip++;
+              break;
+            case SVMParser.LOADGLOBAL : //
+              m.set(--sp, m.get((int) (insn >> 32)));
+              ip++;
+              break;
+            case SVMParser.STORERA : //
+              ra = m.get(sp++);
+              break;
+            case SVMParser.LOADRA : //
+              m.set(--sp, ra);
+              break;
+            case SVMParser.STORETM :
+              tm = m.get(sp++);
+              break;
+            case SVMParser.LOADTM :
+              m.set(--sp, tm);
+              break;
+            case SVMParser.LOADFP : //
+              m.set(--sp, fp);
+              break;
+            case SVMParser.STOREFP : //
+              fp = m.get(sp++);
+              break;
+            case SVMParser.COPYFP : //
+              fp = sp;
+              break;
+            case SVMParser.STOREHP : //
+              hp = m.get(sp++);
+              if (hp >= heapLimit) grow(hp);
+              break;
+            case SVMParser.RESERVE :
+              v = (int) (insn >> 32);
+              if (hp + v > allocLimit) {
+                this.sp = sp;
+                reserve(ip - 1, v);
+              }
+              ip++;
+              break;
+            case SVMParser.TAILCALL : { // the frame of the callee replaces the one of the running function, under its CL
+              int words = (int) (insn >> 32), cl = m.get(sp++), target = m.get(sp++);
+              ra = m.get(fp - 1); // the callee returns where the running function would have
+              m.move(sp, cl - words, words);
+              sp = cl - words;
+              level = 0; // see display
+              int end = ip + 1;
+              ip = target; // the frame has moved: a run stopped here resumes at the target
+              if (jit != null) {
+                this.sp = sp;
+                ip = jit.enter(this, ip);
+                sp = this.sp;
+              } else if (metered && !meter(end, ip, sp)) return;
+              if (p != null) p.tailCall(ip);
+              break;
+            }
+            case SVMParser.LOADHP : //
+              m.set(--sp, hp);
+              break;
+            case SVMParser.FILL :
+              fill(sp++);
+              break;
+            case SVMParser.PRINT :
+              print(sp);
+              break;
+            case SVMParser.HALT :
+              halted(ip);
+              return;
+            // superinstructions (see Fusion): ip skips the slots of the fused sequence
+            case Decoder.LOADLOCAL :
+              m.set(--sp, m.get(fp + (int) (insn >> 32)));
+              ip += 4;
+              break;
+            case Decoder.LOADOFFSET :
+              m.set(sp, m.get(m.get(sp) + (int) (insn >> 32)));
+              ip += 3;
+              break;
+            case Decoder.HEAPSTORE :
+              m.set(hp++, m.get(sp++));
+              if (hp >= heapLimit) grow(hp);
+              ip += 6;
+              break;
+            case Decoder.INCHP :
+              if (++hp >= heapLimit) grow(hp);
+              ip += 4;
+              break;
+            case Decoder.DUPTM :
+              tm = m.get(sp);
+              m.set(--sp, tm);
+              ip += 2;
+              break;
+            case Decoder.BRANCHTRUE :
+              if (m.get(sp++) == 1) {
+                v = (int) (insn >> 32);
+                if (v < ip && metered && !meter(ip + 3, v, sp)) return;
+                ip = v;
+              } else ip += 3;
+              break;
+            case Decoder.INVOKE :
+              v = m.get(sp++); // object pointer
+              ra = ip + 5;
+              ip = inlineCache.target(m, ip - 1, m.get(v), (int) (insn >> 32));
+              if (jit != null) {
+                this.sp = sp;
+                ip = jit.enter(this, ip);
+                sp = this.sp;
+              } else if (metered && !meter(ra, ip, sp)) return;
+              if (p != null) p.jump(ip);
+              break;
+            default : // Decoder.TRAP
+              trap(ip-1);
+              return;
+          }
+        }
+      } catch (RuntimeException e) {
+        if (faultAddress >= 0) { // raised by compiled code: the instruction and sp it published
+          ip = faultAddress + 1;
+          sp = this.sp;
+          faultAddress = -1;
+        }
+        fault(e, ip-1, sp);
+      } catch (StackOverflowError e) { // compiled code nesting on the JVM stack: sp as it published it on its last call
+        fault("Stack overflow", ip-1, sp = this.sp);
+      } finally {
+        this.ip = ip; this.sp = sp;
+        if (p != null) p.stop();
+        if (words != null) { // the registers in the image, for a later inspection
+          words.save(sp, fp, hp, ip);
+          words.close();
         }
+        out.flush();
       }
-    } 
-    
-    private int pop() {
-      return memory[sp++];
     }
-    
-    private void push(int v) {
-      memory[--sp] = v;
+
+    private static class OutOfHeap extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      OutOfHeap() {
+        super(null, null, false, false);
+      }
+    }
+
+    /**
+     * Enlarges the heap segment so that address is inside it (doubling its size, up to
+     * maxHeap) and returns the new memory, null with an off-heap backend. address may be
+     * the end of a full heap: hp is moved there by the allocation that fills it, which
+     * writes nothing at hp.
+     */
+    int[] grow(int address) {
+      int base = layout.heapBase();
+      if (address - base > maxHeap) throw new OutOfHeap();
+      if (words != null) {
+        words.ensure(Math.min(address, layout.size(maxHeap) - 1));
+        heapLimit = Math.min(words.size(), layout.size(maxHeap));
+        return null;
+      }
+      long n = Math.max(2L * (heapLimit - base), (long) address - base + 1);
+      int size = layout.size((int) Math.min(n, maxHeap));
+      if (size > memory.length) ((Words.Heap) mem).array = memory = Arrays.copyOf(memory, size); // else the heap was capped by the Limits
+      heapLimit = size;
+      return memory;
+    }
+
+    /**
+     * "shp" executed by compiled code.
+     */
+    void storeHp(int value) {
+      hp = value;
+      if (hp >= heapLimit) grow(hp);
+    }
+
+    /**
+     * "reserve words" at address: makes room for words at hp. When hp+words passes
+     * the allocation limit the collector is asked for a new one, which it may make
+     * room for by collecting the heap; without a collector the heap just grows.
+     * Returns the memory, which may have been replaced. sp must be up to date.
+     */
+    int[] reserve(int address, int words) {
+      if (hp + words > allocLimit) {
+        if (collector != null) allocLimit = collector.reserve(this, address, words);
+        else {
+          if (hp + words > heapLimit) grow(hp + words - 1);
+          allocLimit = heapLimit;
+        }
+      }
+      return memory;
+    }
+
+    /**
+     * A "js" executed by compiled code: ra and sp are already set.
+     */
+    int call(int target) {
+      return jit.enter(this, target);
+    }
+
+    /**
+     * A "tail words" executed by compiled code, sp being up to date: moves the frame of
+     * the callee and returns its address.
+     */
+    int tailCall(int words) {
+      int cl = memory[sp++], target = memory[sp++];
+      ra = memory[fp - 1];
+      System.arraycopy(memory, sp, memory, cl - words, words);
+      sp = cl - words;
+      level = 0; // see display
+      return target;
+    }
+
+    /**
+     * A "fill", the object pointer being at sp over the value: writes the value in the
+     * last field of the object, telling the collector if the field holds object pointers,
+     * since the value may be younger than the object.
+     */
+    void fill(int sp) {
+      Words m = mem;
+      int o = m.get(sp), dp = m.get(o), fields = m.get(dp - 1);
+      m.set(o - fields, m.get(sp + 1));
+      if (collector != null && m.get(dp - 1 - fields) != 0) collector.filled(o - fields);
+    }
+
+    /**
+     * "display n", the frame at fp being the AR of nesting level n: writes it and the ARs
+     * of its static chain in the entries n..1 of the display, which are valid from then
+     * on. The walk stops at the first entry already holding its AR, if valid: the ones
+     * under it then hold its chain. Entry 0 is the global AR, for the whole run.
+     *
+     * A "tail" invalidates the display: the callee takes the place of the running
+     * function, so its frame can be at an address of the display with another static
+     * chain under it.
+     *
+     * The display is not saved by a Snapshot: a run resumes at the target of a jump,
+     * where code reading the display runs a "display" first, and it finds only entry 0
+     * valid, as at the start.
+     */
+    void display(int n) {
+      if (n >= display.length) display = Arrays.copyOf(display, Math.max(2 * display.length, n + 1));
+      int[] d = display;
+      int ar = fp, k = n;
+      while (k > 0 && (k > level || d[k] != ar)) {
+        d[k--] = ar;
+        ar = mem.get(ar); // its AL
+      }
+      level = n;
+    }
+
+    void print(int sp) {
+      if (sp < layout.stack) out.println(mem.get(sp)); else out.println("Empty stack!");
+    }
+
+    /*
+     * A jump from end-1 to target: charges the words from segment to end and checks
+     * the stack depth, with the frame of the function at target if the code is
+     * verified. False if a limit is exceeded, which ends the run.
+     */
+    private boolean meter(int end, int target, int sp) {
+      fuel -= end - segment;
+      segment = target;
+      if (fuel < 0) fault(Result.Status.OUT_OF_FUEL, "Out of fuel", end - 1, sp);
+      else if (sp - (depths != null && target >= 0 && target < depths.length ? depths[target] : 0) < stackFloor) fault(Result.Status.STACK_LIMIT, "Stack limit exceeded", end - 1, sp);
+      else return true;
+      return false;
+    }
+
+    private void halted(int ip) {
+      if (limits != null) fuel -= ip - segment;
+      result = new Result(Result.Status.HALTED, null, ip - 1, budget - fuel);
+    }
+
+    /**
+     * Called by the handler of compiled code whose instruction at address raised e, sp
+     * being its copy of the register: publishes them for the interpreter, which reports
+     * the fault, unless compiled code called by this one already did. Returns e, which
+     * compiled code throws again.
+     */
+    Throwable faulted(Throwable e, int address, int sp) {
+      if (faultAddress < 0) {
+        faultAddress = address;
+        this.sp = sp;
+      }
+      return e;
+    }
+
+    /**
+     * Reports e, raised by the instruction at address, sp being the value of the register
+     * then: a write under the stack (sp negative) is a stack overflow. An exception that is
+     * not a fault of the program, a bug of the VM, is thrown again: the monitor sees it,
+     * the caller gets it.
+     */
+    private void fault(RuntimeException e, int address, int sp) {
+      if (e instanceof IndexOutOfBoundsException) // of an array or of the buffers of an OffHeapMemory
+        fault(sp < 0 ? "Stack overflow" : "Invalid memory access ("+e.getMessage()+")", address, sp);
+      else if (e instanceof OutOfHeap) outOfHeap(address, sp);
+      else if (e instanceof ArithmeticException) fault("Division by zero", address, sp);
+      else if (e instanceof IllegalStateException) fault(e.getMessage(), address, sp); // thrown by the Collector
+      else {
+        if (monitor != null) monitor.fault(e+" at address "+address);
+        throw e;
+      }
+    }
+
+    private void outOfHeap(int address, int sp) {
+      if (maxHeap < layout.maxHeap) fault(Result.Status.HEAP_LIMIT, "Heap limit exceeded", address, sp);
+      else fault("Heap exhausted", address, sp);
+    }
+
+    private void fault(String reason, int address, int sp) {
+      fault(Result.Status.FAULT, reason, address, sp);
+    }
+
+    private void fault(Result.Status status, String reason, int address, int sp) {
+      String s = reason+" at address "+address+(sourceMap == null ? "" : " ("+sourceMap.location(address)+")")
+          +": sp="+sp+" fp="+fp+" hp="+hp+" ("+layout+")";
+      out.println(s);
+      if (monitor != null) monitor.fault(s);
+      result = new Result(status, s, address, budget - fuel);
+    }
+
+    private void trap(int address) {
+      String s = "Illegal instruction at address "+address+(sourceMap == null ? "" : " ("+sourceMap.location(address)+")");
+      out.println(s);
+      if (monitor != null) monitor.fault(s);
+      result = new Result(Result.Status.TRAP, s, address, budget - fuel);
     }
-    
+
 }
\ No newline at end of file
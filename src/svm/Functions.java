@@ -0,0 +1,55 @@
+package svm;
+
+import java.util.*;
+
+/**
+ * The functions of the code, found from the "functionN" labels of the SVMParser label
+ * table (labelDef): each one goes from its label up to the label of the next one (the
+ * code generator emits them one after the other), the code before the first one is
+ * the main program. With a SourceMap the functions are named after the FOOL source.
+ */
+class Functions {
+
+	static final int MAIN = 0;
+
+	private final String[] names;		// by function
+	private final int[] function;		// function containing each address
+	private final boolean[] entry;		// address starting a function
+
+	Functions(int size, Map<String,Integer> labels, SourceMap source) {
+		TreeMap<Integer,String> starts = new TreeMap<>();
+		if (labels != null)
+			for (Map.Entry<String,Integer> l : labels.entrySet())
+				if (l.getKey().startsWith("function")) starts.put(l.getValue(), l.getKey());
+		names = new String[starts.size() + 1];
+		names[MAIN] = "main";
+		function = new int[size];
+		entry = new boolean[size];
+		int f = MAIN, a = 0;
+		for (Map.Entry<Integer,String> l : starts.entrySet()) {
+			for (; a < l.getKey() && a < size; a++) function[a] = f;
+			names[++f] = source == null ? l.getValue() : source.scope(l.getKey());
+			if (l.getKey() < size) entry[l.getKey()] = true;
+		}
+		for (; a < size; a++) function[a] = f;
+	}
+
+	int count() {
+		return names.length;
+	}
+
+	String name(int f) {
+		return names[f];
+	}
+
+	/**
+	 * Function containing address, MAIN for an address out of the code.
+	 */
+	int of(int address) {
+		return address >= 0 && address < function.length ? function[address] : MAIN;
+	}
+
+	boolean isEntry(int address) {
+		return address >= 0 && address < entry.length && entry[address];
+	}
+}
@@ -0,0 +1,151 @@
+package svm;
+
+import java.util.*;
+
+/**
+ * Load-time superinstruction fusion.
+ *
+ * The code generator emits the same short instruction sequences over and over
+ * (local variable loads, heap pointer increments, the "stm ltm ltm" duplication,
+ * the "push 1 beq" test of a boolean condition...). This stage runs between the
+ * assembler and the ExecuteVM on the pre-decoded code and replaces every occurrence
+ * of an enabled pattern with a single fused instruction, so that one dispatch
+ * executes the whole sequence.
+ *
+ * The fused instruction is written in the slot of the first instruction of the
+ * sequence and jumps over the remaining slots, which are left untouched: addresses
+ * do not change. A sequence is fused only if no jump can land inside it, that is
+ * none of its instructions but the first is a label or a return address (the
+ * instruction following a "js" or a "call").
+ */
+public class Fusion {
+
+	public enum Pattern {
+		LOADLOCAL,	// lfp push k add lw			-> push memory[fp+k]
+		LOADOFFSET,	// push k add lw				-> replace top with memory[top+k]
+		HEAPSTORE,	// lhp sw lhp push 1 add shp	-> memory[hp++] = pop
+		INCHP,		// lhp push 1 add shp			-> hp++
+		DUPTM,		// stm ltm ltm					-> tm = top, duplicate top
+		BRANCHTRUE,	// push 1 beq L				-> pop and jump to L if it is 1
+		INVOKE		// lw push k add lw js			-> call method k of the popped object through the InlineCache
+	}
+
+	private final EnumSet<Pattern> enabled;
+	private final int[] fusions = new int[Pattern.values().length];
+
+	public Fusion() {
+		this(EnumSet.allOf(Pattern.class));
+	}
+
+	public Fusion(EnumSet<Pattern> enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Parses a comma separated list of pattern names (case insensitive),
+	 * e.g. "loadlocal,inchp"; "all" enables every pattern.
+	 */
+	public static Fusion parse(String patterns) {
+		if (patterns.equalsIgnoreCase("all")) return new Fusion();
+		EnumSet<Pattern> enabled = EnumSet.noneOf(Pattern.class);
+		for (String p : patterns.split(","))
+			if (!p.isBlank()) enabled.add(Pattern.valueOf(p.trim().toUpperCase()));
+		return new Fusion(enabled);
+	}
+
+	public int fusions(Pattern p) {
+		return fusions[p.ordinal()];
+	}
+
+	public int fusions() {
+		return Arrays.stream(fusions).sum();
+	}
+
+	public String report() {
+		StringBuilder s = new StringBuilder("Superinstruction fusion: "+fusions()+" sequences fused");
+		for (Pattern p : enabled) s.append("\n  ").append(String.format("%-10s %6d", p.name().toLowerCase(), fusions(p)));
+		return s.toString();
+	}
+
+	/**
+	 * Rewrites the decoded code in place.
+	 *
+	 * @param prog	code pre-decoded by the Decoder
+	 * @param labels	addresses of the labels defined in the source (SVMParser.labelDef);
+	 * 				if null every pushed value and branch operand that could be an
+	 * 				address is conservatively considered a jump target
+	 */
+	void apply(long[] prog, Collection<Integer> labels) {
+		boolean[] leader = leaders(prog, labels);
+		int a = 0;
+		while (a < prog.length) {
+			int len = fuse(prog, leader, a);
+			a += len > 0 ? len : Math.max(1, Decoder.length(Decoder.op(prog[a])));
+		}
+	}
+
+	private boolean[] leaders(long[] prog, Collection<Integer> labels) {
+		boolean[] leader = new boolean[prog.length + 1];
+		if (labels != null) for (int l : labels) if (l >= 0 && l < leader.length) leader[l] = true;
+		for (int a = 0; a < prog.length; a += Math.max(1, Decoder.length(Decoder.op(prog[a])))) {
+			int op = Decoder.op(prog[a]);
+			if (op == SVMParser.JS || op == SVMParser.CALL) leader[a + 1] = true; // return address
+			if (labels == null && Decoder.takesLabel(op)) {
+				int target = Decoder.arg(prog[a]);
+				if (target >= 0 && target < leader.length) leader[target] = true;
+			}
+		}
+		return leader;
+	}
+
+	/**
+	 * Tries the enabled patterns at address a, longest first.
+	 * Returns the number of words fused, 0 if none matched.
+	 */
+	private int fuse(long[] prog, boolean[] leader, int a) {
+		if (enabled.contains(Pattern.INVOKE)
+				&& match(prog, leader, a, SVMParser.LOADW, SVMParser.PUSH, SVMParser.ADD, SVMParser.LOADW, SVMParser.JS))
+			return rewrite(prog, a, Pattern.INVOKE, Decoder.INVOKE, Decoder.arg(prog[a + 1]), 6);
+		if (enabled.contains(Pattern.HEAPSTORE)
+				&& match(prog, leader, a, SVMParser.LOADHP, SVMParser.STOREW, SVMParser.LOADHP, SVMParser.PUSH, SVMParser.ADD, SVMParser.STOREHP)
+				&& Decoder.arg(prog[a + 3]) == 1)
+			return rewrite(prog, a, Pattern.HEAPSTORE, Decoder.HEAPSTORE, 0, 7);
+		if (enabled.contains(Pattern.LOADLOCAL)
+				&& match(prog, leader, a, SVMParser.LOADFP, SVMParser.PUSH, SVMParser.ADD, SVMParser.LOADW))
+			return rewrite(prog, a, Pattern.LOADLOCAL, Decoder.LOADLOCAL, Decoder.arg(prog[a + 1]), 5);
+		if (enabled.contains(Pattern.INCHP)
+				&& match(prog, leader, a, SVMParser.LOADHP, SVMParser.PUSH, SVMParser.ADD, SVMParser.STOREHP)
+				&& Decoder.arg(prog[a + 1]) == 1)
+			return rewrite(prog, a, Pattern.INCHP, Decoder.INCHP, 0, 5);
+		if (enabled.contains(Pattern.LOADOFFSET)
+				&& match(prog, leader, a, SVMParser.PUSH, SVMParser.ADD, SVMParser.LOADW))
+			return rewrite(prog, a, Pattern.LOADOFFSET, Decoder.LOADOFFSET, Decoder.arg(prog[a]), 4);
+		if (enabled.contains(Pattern.BRANCHTRUE)
+				&& match(prog, leader, a, SVMParser.PUSH, SVMParser.BRANCHEQ)
+				&& Decoder.arg(prog[a]) == 1)
+			return rewrite(prog, a, Pattern.BRANCHTRUE, Decoder.BRANCHTRUE, Decoder.arg(prog[a + 2]), 4);
+		if (enabled.contains(Pattern.DUPTM)
+				&& match(prog, leader, a, SVMParser.STORETM, SVMParser.LOADTM, SVMParser.LOADTM))
+			return rewrite(prog, a, Pattern.DUPTM, Decoder.DUPTM, 0, 3);
+		return 0;
+	}
+
+	/**
+	 * True if the instructions starting at address a have the given opcodes
+	 * and no jump can land on any of them but the first.
+	 */
+	private static boolean match(long[] prog, boolean[] leader, int a, int... ops) {
+		for (int i = 0; i < ops.length; i++) {
+			if (a >= prog.length || Decoder.op(prog[a]) != ops[i]) return false;
+			if (i > 0 && leader[a]) return false;
+			a += Decoder.length(ops[i]);
+		}
+		return true;
+	}
+
+	private int rewrite(long[] prog, int a, Pattern p, int op, int arg, int words) {
+		prog[a] = Decoder.encode(op, arg);
+		fusions[p.ordinal()]++;
+		return words;
+	}
+}
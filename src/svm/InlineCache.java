@@ -0,0 +1,93 @@
+package svm;
+
+import java.util.Arrays;
+
+/**
+ * Inline caches of the virtual method calls.
+ *
+ * A call of a method compiles to "lw push k add lw js": load the dispatch pointer of
+ * the object, add the offset of the method and load its address from the dispatch
+ * table, three dependent loads. The INVOKE superinstruction (see Fusion) replaces the
+ * sequence and asks this cache, which remembers at every call site the dispatch
+ * pointers seen there and the method they resolved to: when the object has one of
+ * them (a hit) the address is known without reading the dispatch table.
+ *
+ * Each site caches up to WAYS dispatch pointers (monomorphic with one class,
+ * polymorphic up to WAYS classes); sites seeing more classes are megamorphic and
+ * simply look up the dispatch table, without caching. Dispatch tables never change
+ * once built, so an entry never needs to be invalidated.
+ */
+public class InlineCache {
+
+	public static final int WAYS = 4;
+
+	private final int size;
+	private int[][] sites;	// per call site: dispatch pointer and method address, in pairs; null until the first call
+	private long hits, misses, megamorphic;
+
+	InlineCache(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Address of the method at offset in the dispatch table dp, called at site.
+	 */
+	int target(Words memory, int site, int dp, int offset) {
+		int[] s = sites == null ? null : sites[site];
+		if (s != null) {
+			for (int i = 0; i < s.length && s[i] != -1; i += 2)
+				if (s[i] == dp) {
+					hits++;
+					return s[i + 1];
+				}
+		}
+		return miss(memory, site, dp, offset);
+	}
+
+	private int miss(Words memory, int site, int dp, int offset) {
+		int target = memory.get(dp + offset);
+		if (sites == null) sites = new int[size][];
+		int[] s = sites[site];
+		if (s == null) {
+			s = sites[site] = new int[2 * WAYS];
+			Arrays.fill(s, -1);
+		}
+		for (int i = 0; i < s.length; i += 2)
+			if (s[i] == -1) {
+				s[i] = dp;
+				s[i + 1] = target;
+				misses++;
+				return target;
+			}
+		megamorphic++;
+		return target;
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	public long megamorphic() {
+		return megamorphic;
+	}
+
+	/**
+	 * Number of call sites that saw more than one class.
+	 */
+	public int polymorphicSites() {
+		int n = 0;
+		if (sites != null) for (int[] s : sites) if (s != null && s[2] != -1) n++;
+		return n;
+	}
+
+	public String report() {
+		long calls = hits + misses + megamorphic;
+		return "Inline caches: "+calls+" virtual calls, "+hits+" hits, "+misses+" misses, "+megamorphic+" megamorphic"
+				+(calls > 0 ? String.format(" (%.1f%% hit rate)", 100.0 * hits / calls) : "")
+				+", "+polymorphicSites()+" polymorphic sites";
+	}
+}
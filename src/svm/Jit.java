@@ -0,0 +1,139 @@
+package svm;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+/**
+ * Tiered execution: the ExecuteVM interprets the code and counts the calls of every
+ * function (the "functionN" labels generated by FOOLlib.freshFunLabel, reached by "js");
+ * when a function becomes hot its code is translated by the JitCompiler into a JVM
+ * class that is run instead of the interpreter from then on.
+ *
+ * Compiled code works on the same machine state as the interpreter (memory, sp, fp,
+ * hp, ra, tm of the ExecuteVM), so it can stop at any instruction and let the
+ * interpreter continue: it does so whenever control leaves the function, e.g. on the
+ * return "js" or on a call to a function which is not compiled yet. Compiled and
+ * interpreted frames therefore interleave freely and the output does not change.
+ *
+ * A call from compiled code to compiled code nests on the JVM stack (ExecuteVM.call
+ * runs the callee through enter), so FOOL recursion would grow the JVM stack with
+ * its depth. The nesting is capped at MAX_NESTING: deeper, enter returns the callee
+ * to the compiled caller, which leaves it to the dispatcher of the level above, and
+ * the recursion goes on from there without growing the JVM stack.
+ */
+public class Jit {
+
+	/**
+	 * A compiled function: runs from the entry of the function and returns the address
+	 * at which the interpreter must continue.
+	 */
+	interface Code {
+		int run(ExecuteVM vm);
+	}
+
+	public static final int DEFAULT_THRESHOLD = 100;
+	static final int MAX_NESTING = 200;	// compiled runs nested on the JVM stack
+
+
+	private final int threshold;
+	private int[] calls;		// calls of the function starting at each address
+	private int[] end;			// end of the function starting at each address, 0 if not a function
+	private Code[] compiled;
+	private int[] code;
+	private final Map<Integer,String> names = new TreeMap<>();
+	private int failures;
+	private int nesting;		// compiled runs in progress on the JVM stack
+
+	private static int classes; // generated class names must be unique in the JVM
+
+	public Jit() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * @param threshold	number of calls after which a function is compiled
+	 */
+	public Jit(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Finds the functions of the program: each one goes from its label up to the
+	 * label of the next one (the code generator emits them one after the other).
+	 * A Jit attached again to the same code keeps the functions already compiled,
+	 * so that repeated runs of a program do not pay for the compilation again.
+	 */
+	void attach(int[] code, Map<String,Integer> labels) {
+		if (code == this.code) return;
+		this.code = code;
+		calls = new int[code.length + 1];
+		end = new int[code.length + 1];
+		compiled = new Code[code.length + 1];
+		TreeMap<Integer,String> functions = new TreeMap<>();
+		for (Map.Entry<String,Integer> l : labels.entrySet())
+			if (l.getKey().startsWith("function")) functions.put(l.getValue(), l.getKey());
+		Integer last = null;
+		for (int start : functions.keySet()) {
+			if (last != null) end[last] = start;
+			last = start;
+		}
+		if (last != null) end[last] = codeLength(code);
+		names.clear();
+		names.putAll(functions);
+	}
+
+	private static int codeLength(int[] code) {
+		int n = code.length;
+		while (n > 0 && code[n-1] == 0) n--;
+		return n;
+	}
+
+	/**
+	 * Called on every "js" to target: counts the call and runs the compiled code of
+	 * the function, if any. Returns the address at which the interpreter continues,
+	 * target itself when MAX_NESTING compiled runs are already in progress.
+	 */
+	int enter(ExecuteVM vm, int target) {
+		if (nesting >= MAX_NESTING) return target;
+		nesting++;
+		try {
+			while (target >= 0 && target < end.length && end[target] > 0) {
+				Code c = compiled[target];
+				if (c == null) {
+					if (++calls[target] < threshold || (c = compile(target)) == null) return target;
+				}
+				target = c.run(vm);
+			}
+			return target;
+		} finally {
+			nesting--;
+		}
+	}
+
+	private Code compile(int start) {
+		try {
+			byte[] bytes = new JitCompiler(code, start, end[start], "svm/Jit_"+names.get(start)+"_"+(classes++)).compile();
+			if (bytes != null) {
+				Class<?> c = MethodHandles.lookup().defineClass(bytes);
+				return compiled[start] = (Code) c.getDeclaredConstructor().newInstance();
+			}
+		} catch (ReflectiveOperationException | LinkageError e) {
+			System.err.println("JIT: cannot compile "+names.get(start)+": "+e);
+		}
+		failures++;
+		end[start] = -end[start]; // not a candidate anymore: keep interpreting it
+		return null;
+	}
+
+	public int compiled() {
+		return (int) Arrays.stream(compiled).filter(Objects::nonNull).count();
+	}
+
+	public String report() {
+		StringBuilder s = new StringBuilder("JIT: "+compiled()+" functions compiled (threshold "+threshold+" calls)");
+		if (failures > 0) s.append(", ").append(failures).append(" not compilable");
+		for (Map.Entry<Integer,String> f : names.entrySet())
+			if (compiled[f.getKey()] != null) s.append("\n  ").append(String.format("%-12s at %5d", f.getValue(), f.getKey()));
+		return s.toString();
+	}
+}
@@ -0,0 +1,414 @@
+package svm;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Translates the code of a function into a JVM class implementing Jit.Code.
+ *
+ * Every SVM instruction becomes the JVM bytecode performing the same operation on the
+ * state of the ExecuteVM: the operand stack stays in the VM memory (addressed through a
+ * local copy of sp), fp, hp, ra, tm and the display are read and written in the fields
+ * of the VM. What is saved is the dispatch: jumps inside the function become JVM jumps
+ * and the JVM JIT compiles the whole function body as a single method.
+ *
+ * A "js" or a "call" sets ra and asks the VM to run the target (Jit.enter): if the
+ * target returns to the instruction following it the compiled code goes on,
+ * otherwise (the function returned, or the target is not compiled) it stores sp and
+ * returns the address to the interpreter. Jumps outside the function, "ret", halt and
+ * invalid instructions also return to the interpreter.
+ *
+ * An instruction that faults (a RuntimeException: a stack overflow, a wrong address, a
+ * division by zero, ...) reaches a handler of the exception table that hands its address
+ * and sp to the VM (ExecuteVM.faulted) and throws the exception again, so that the
+ * interpreter reports the fault as if it had run the instruction itself.
+ *
+ * The class file has version 49 (Java 5), which is verified by type inference and
+ * therefore needs no StackMapTable.
+ */
+class JitCompiler {
+
+	private static final int MAX_CODE = 32767; // keeps every jump offset in 16 bits
+
+	// locals of run(ExecuteVM)
+	private static final int VM = 1, MEM = 2, SP = 3, V = 4;
+
+	private final int[] code;
+	private final int start, end;
+	private final String name;
+
+	private final ConstantPool cp = new ConstantPool();
+	private final ByteArrayOutputStream bc = new ByteArrayOutputStream();
+	private final Map<Integer,Integer> pcOf = new HashMap<>();				// SVM address -> bytecode offset
+	private final Map<Integer,List<Integer>> jumpsTo = new TreeMap<>();		// SVM address -> offsets of the jumps to patch
+	private final List<Integer> jumpsToExit = new ArrayList<>();
+	private final List<int[]> guarded = new ArrayList<>();	// SVM address, start and end of its bytecode
+
+	JitCompiler(int[] code, int start, int end, String name) {
+		this.code = code;
+		this.start = start;
+		this.end = end;
+		this.name = name;
+	}
+
+	/**
+	 * Returns the class file, null if the function is too large.
+	 */
+	byte[] compile() {
+		// prologue: m = vm.memory; sp = vm.sp;
+		reloadMemory();
+		load(VM); field(0xb4, "sp", "I"); op(0x36, SP);
+
+		int a = start;
+		while (a < end) {
+			pcOf.put(a, bc.size());
+			int op = code[a];
+			if (op <= Decoder.TRAP || op > SVMParser.HALT) {
+				exitTo(a);
+				a++;
+				continue;
+			}
+			int from = bc.size();
+			translate(op, a, a + 1 < code.length ? code[a + 1] : 0);
+			guarded.add(new int[] {a, from, bc.size()});
+			a += Decoder.length(op);
+		}
+		exitTo(a); // falls out of the function
+
+		// stubs returning to the interpreter the targets outside the function
+		for (int target : jumpsTo.keySet())
+			if (!pcOf.containsKey(target)) {
+				pcOf.put(target, bc.size());
+				exitTo(target);
+			}
+		// exit: the address is on the stack; vm.sp = sp; return address;
+		int exit = bc.size();
+		op(0x36, V);
+		load(VM); op(0x15, SP); field(0xb5, "sp", "I");
+		op(0x15, V); op(0xac);
+
+		// fault: the exception and the address are on the stack; throw vm.faulted(exception, address, sp)
+		int fault = bc.size();
+		op(0x36, V);
+		load(VM); op(0x5f); op(0x15, V); op(0x15, SP);
+		op(0xb6); u2(cp.member(10, "svm/ExecuteVM", "faulted", "(Ljava/lang/Throwable;II)Ljava/lang/Throwable;"));
+		op(0xbf);
+		// a handler for each instruction, pushing its address
+		int runtimeException = cp.type("java/lang/RuntimeException");
+		List<int[]> handlers = new ArrayList<>();
+		for (int[] g : guarded) {
+			if (g[1] == g[2]) continue;
+			handlers.add(new int[] {g[1], g[2], bc.size(), runtimeException});
+			constant(g[0]);
+			int at = bc.size();
+			op(0xa7); u2(fault - at);
+		}
+
+		if (bc.size() > MAX_CODE) return null;
+		byte[] body = bc.toByteArray();
+		for (Map.Entry<Integer,List<Integer>> j : jumpsTo.entrySet())
+			for (int at : j.getValue()) patch(body, at, pcOf.get(j.getKey()));
+		for (int at : jumpsToExit) patch(body, at, exit);
+		return classFile(body, handlers);
+	}
+
+	private void translate(int op, int a, int arg) {
+		switch (op) {
+			case SVMParser.PUSH :		// memory[--sp] = arg
+				op(0x84, SP, -1); load(MEM); op(0x15, SP); constant(arg); op(0x4f);
+				break;
+			case SVMParser.POP :
+				op(0x84, SP, 1);
+				break;
+			case SVMParser.ADD :
+				binary(0x60);
+				break;
+			case SVMParser.SUB :
+				binary(0x64);
+				break;
+			case SVMParser.MULT :
+				binary(0x68);
+				break;
+			case SVMParser.DIV :
+				binary(0x6c);
+				break;
+			case SVMParser.STOREW :		// v = memory[sp++]; memory[v] = memory[sp++]
+				pop(V);
+				load(MEM); op(0x15, V); top(); op(0x4f); op(0x84, SP, 1);
+				break;
+			case SVMParser.LOADW :		// memory[sp] = memory[memory[sp]]
+				load(MEM); op(0x15, SP); load(MEM); top(); op(0x2e); op(0x4f);
+				break;
+			case SVMParser.BRANCH :
+				jump(0xa7, arg);
+				break;
+			case SVMParser.BRANCHEQ :	// v = memory[sp++]; if (memory[sp++] == v) jump
+				pop(V); top(); op(0x84, SP, 1); op(0x15, V); jump(0x9f, arg);
+				break;
+			case SVMParser.BRANCHLESSEQ :
+				pop(V); top(); op(0x84, SP, 1); op(0x15, V); jump(0xa4, arg);
+				break;
+			case SVMParser.JS :			// ra = a+1; target = memory[sp++]; next = vm.call(target)
+				load(VM); constant(a + 1); field(0xb5, "ra", "I");
+				pop(V);
+				call(a + 1);
+				break;
+			case SVMParser.CALL :		// ra = a+1; v = memory[sp]; memory[sp] = memory[v]; next = vm.call(memory[v-1])
+				load(VM); constant(a + 1); field(0xb5, "ra", "I");
+				top(); op(0x36, V);
+				load(MEM); op(0x15, SP); load(MEM); op(0x15, V); op(0x2e); op(0x4f);
+				load(MEM); op(0x15, V); constant(1); op(0x64); op(0x2e); op(0x36, V);
+				call(a + 1);
+				break;
+			case SVMParser.ENTER :		// fp = sp; memory[--sp] = ra
+				load(VM); op(0x15, SP); field(0xb5, "fp", "I");
+				push("ra");
+				break;
+			case SVMParser.LEAVE :		// v = memory[sp]; ra = memory[fp-1]; sp = fp+arg+1; fp = memory[sp]; memory[sp] = v
+				top(); op(0x36, V);
+				load(VM); load(MEM); load(VM); field(0xb4, "fp", "I"); constant(1); op(0x64); op(0x2e); field(0xb5, "ra", "I");
+				load(VM); field(0xb4, "fp", "I"); constant(arg + 1); op(0x60); op(0x36, SP);
+				load(VM); top(); field(0xb5, "fp", "I");
+				load(MEM); op(0x15, SP); op(0x15, V); op(0x4f);
+				break;
+			case SVMParser.RET :		// the interpreter goes on at ra
+				load(VM); field(0xb4, "ra", "I");
+				jumpToExit(0xa7);
+				break;
+			case SVMParser.DISPLAY :	// vm.display(arg)
+				load(VM); constant(arg); method("display", "(I)V");
+				break;
+			case SVMParser.LOADDISPLAY :	// memory[--sp] = vm.display[arg]
+				op(0x84, SP, -1); load(MEM); op(0x15, SP); load(VM); field(0xb4, "display", "[I"); constant(arg); op(0x2e); op(0x4f);
+				break;
+			case SVMParser.LOADGLOBAL :	// memory[--sp] = memory[arg]
+				op(0x84, SP, -1); load(MEM); op(0x15, SP); load(MEM); constant(arg); op(0x2e); op(0x4f);
+				break;
+			case SVMParser.STORERA :
+				store("ra");
+				break;
+			case SVMParser.LOADRA :
+				push("ra");
+				break;
+			case SVMParser.STORETM :
+				store("tm");
+				break;
+			case SVMParser.LOADTM :
+				push("tm");
+				break;
+			case SVMParser.LOADFP :
+				push("fp");
+				break;
+			case SVMParser.STOREFP :
+				store("fp");
+				break;
+			case SVMParser.COPYFP :		// fp = sp
+				load(VM); op(0x15, SP); field(0xb5, "fp", "I");
+				break;
+			case SVMParser.STOREHP :	// vm.storeHp(memory[sp++]), which may grow the heap
+				load(VM); top(); method("storeHp", "(I)V"); op(0x84, SP, 1);
+				reloadMemory();
+				break;
+			case SVMParser.RESERVE :	// vm.sp = sp; memory = vm.reserve(a, arg), which may collect the heap
+				load(VM); op(0x15, SP); field(0xb5, "sp", "I");
+				load(VM); constant(a); constant(arg); method("reserve", "(II)[I"); op(0x3a, MEM);
+				break;
+			case SVMParser.TAILCALL :	// vm.sp = sp; target = vm.tailCall(arg); the interpreter jumps there
+				load(VM); op(0x15, SP); field(0xb5, "sp", "I");
+				load(VM); constant(arg); method("tailCall", "(I)I");
+				load(VM); field(0xb4, "sp", "I"); op(0x36, SP);
+				jumpToExit(0xa7);
+				break;
+			case SVMParser.LOADHP :
+				push("hp");
+				break;
+			case SVMParser.FILL :		// vm.fill(sp++)
+				load(VM); op(0x15, SP); method("fill", "(I)V"); op(0x84, SP, 1);
+				break;
+			case SVMParser.PRINT :
+				load(VM); op(0x15, SP); method("print", "(I)V");
+				break;
+			default : // HALT: the interpreter stops the machine
+				exitTo(a);
+		}
+	}
+
+	// vm.sp = sp; next = vm.call(v), continuing only if the call came back to next
+	private void call(int next) {
+		load(VM); op(0x15, SP); field(0xb5, "sp", "I");
+		load(VM); op(0x15, V); method("call", "(I)I");
+		load(VM); field(0xb4, "sp", "I"); op(0x36, SP);
+		reloadMemory();
+		op(0x59); constant(next); jumpToExit(0xa0);
+		op(0x57);
+	}
+
+	// m = vm.memory, after anything that may have grown the heap
+	private void reloadMemory() {
+		load(VM); field(0xb4, "memory", "[I"); op(0x3a, MEM);
+	}
+
+	// memory[sp] (on the JVM stack)
+	private void top() {
+		load(MEM); op(0x15, SP); op(0x2e);
+	}
+
+	// local = memory[sp++]
+	private void pop(int local) {
+		top(); op(0x36, local); op(0x84, SP, 1);
+	}
+
+	// v = memory[sp++]; memory[sp] = memory[sp] <op> v
+	private void binary(int opcode) {
+		pop(V);
+		load(MEM); op(0x15, SP); op(0x5c); op(0x2e); op(0x15, V); op(opcode); op(0x4f);
+	}
+
+	// memory[--sp] = vm.register
+	private void push(String register) {
+		op(0x84, SP, -1); load(MEM); op(0x15, SP); load(VM); field(0xb4, register, "I"); op(0x4f);
+	}
+
+	// vm.register = memory[sp++]
+	private void store(String register) {
+		load(VM); top(); field(0xb5, register, "I"); op(0x84, SP, 1);
+	}
+
+	private void exitTo(int address) {
+		constant(address);
+		jumpToExit(0xa7);
+	}
+
+	private void jump(int opcode, int target) {
+		jumpsTo.computeIfAbsent(target, t -> new ArrayList<>()).add(bc.size());
+		op(opcode); bc.write(0); bc.write(0);
+	}
+
+	private void jumpToExit(int opcode) {
+		jumpsToExit.add(bc.size());
+		op(opcode); bc.write(0); bc.write(0);
+	}
+
+	private static void patch(byte[] body, int at, int target) {
+		int offset = target - at;
+		body[at + 1] = (byte) (offset >> 8);
+		body[at + 2] = (byte) offset;
+	}
+
+	private void load(int local) {
+		op(0x2a + local); // aload_<n>
+	}
+
+	private void constant(int c) {
+		if (c >= -1 && c <= 5) op(0x03 + c);						// iconst_<c>
+		else if (c >= Byte.MIN_VALUE && c <= Byte.MAX_VALUE) op(0x10, c);	// bipush
+		else if (c >= Short.MIN_VALUE && c <= Short.MAX_VALUE) { op(0x11); u2(c); } // sipush
+		else { op(0x13); u2(cp.integer(c)); }						// ldc_w
+	}
+
+	private void field(int opcode, String field, String type) {
+		op(opcode); u2(cp.member(9, "svm/ExecuteVM", field, type));
+	}
+
+	private void method(String method, String type) {
+		op(0xb6); u2(cp.member(10, "svm/ExecuteVM", method, type)); // invokevirtual
+	}
+
+	private void op(int... bytes) {
+		for (int b : bytes) bc.write(b);
+	}
+
+	private void u2(int v) {
+		bc.write(v >> 8); bc.write(v);
+	}
+
+	private byte[] classFile(byte[] body, List<int[]> handlers) {
+		int thisClass = cp.type(name), superClass = cp.type("java/lang/Object"), codeInterface = cp.type("svm/Jit$Code");
+		int init = cp.utf8("<init>"), voidType = cp.utf8("()V"), objectInit = cp.member(10, "java/lang/Object", "<init>", "()V");
+		int run = cp.utf8("run"), runType = cp.utf8("(Lsvm/ExecuteVM;)I"), codeAttribute = cp.utf8("Code");
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0); out.writeShort(49);
+			cp.write(out);
+			out.writeShort(0x0030);		// final super
+			out.writeShort(thisClass); out.writeShort(superClass);
+			out.writeShort(1); out.writeShort(codeInterface);
+			out.writeShort(0);			// fields
+			out.writeShort(2);			// methods
+			// <init>: super()
+			out.writeShort(0x0001); out.writeShort(init); out.writeShort(voidType); out.writeShort(1);
+			byte[] initCode = {0x2a, (byte) 0xb7, (byte) (objectInit >> 8), (byte) objectInit, (byte) 0xb1};
+			codeAttribute(out, codeAttribute, 1, 1, initCode, List.of());
+			// public int run(ExecuteVM vm)
+			out.writeShort(0x0001); out.writeShort(run); out.writeShort(runType); out.writeShort(1);
+			codeAttribute(out, codeAttribute, 6, V + 1, body, handlers);
+			out.writeShort(0);			// attributes
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void codeAttribute(DataOutputStream out, int name, int maxStack, int maxLocals, byte[] code,
+			List<int[]> handlers) throws IOException {
+		out.writeShort(name);
+		out.writeInt(12 + code.length + 8 * handlers.size());
+		out.writeShort(maxStack); out.writeShort(maxLocals);
+		out.writeInt(code.length); out.write(code);
+		out.writeShort(handlers.size());	// exception table: start, end, handler, type
+		for (int[] h : handlers) for (int v : h) out.writeShort(v);
+		out.writeShort(0);				// attributes
+	}
+
+	/**
+	 * The constant pool of the generated class, entries are shared.
+	 */
+	private static class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String,Integer> entries = new HashMap<>();
+		private int count = 1;
+
+		int utf8(String s) {
+			return entry("U" + s, () -> { out.writeByte(1); out.writeUTF(s); });
+		}
+
+		int integer(int v) {
+			return entry("I" + v, () -> { out.writeByte(3); out.writeInt(v); });
+		}
+
+		int type(String internalName) {
+			int n = utf8(internalName);
+			return entry("C" + internalName, () -> { out.writeByte(7); out.writeShort(n); });
+		}
+
+		int member(int tag, String owner, String name, String type) {
+			int c = type(owner), n = utf8(name), t = utf8(type);
+			int nt = entry("N" + name + ":" + type, () -> { out.writeByte(12); out.writeShort(n); out.writeShort(t); });
+			return entry(tag + owner + "." + name + ":" + type, () -> { out.writeByte(tag); out.writeShort(c); out.writeShort(nt); });
+		}
+
+		private interface Writer {
+			void write() throws IOException;
+		}
+
+		private int entry(String key, Writer w) {
+			Integer i = entries.get(key);
+			if (i != null) return i;
+			try {
+				w.write();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			entries.put(key, count);
+			return count++;
+		}
+
+		void write(DataOutputStream to) throws IOException {
+			to.writeShort(count);
+			to.write(bytes.toByteArray());
+		}
+	}
+}
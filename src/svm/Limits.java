@@ -0,0 +1,54 @@
+package svm;
+
+/**
+ * Resource limits of a run of the ExecuteVM, for programs that cannot be trusted to
+ * terminate or to stay small: a budget of fuel, a maximum depth of the stack and a
+ * maximum size of the heap. 0 leaves a resource unlimited (up to the Memory layout).
+ *
+ * Fuel is charged in words of code, the straight-line code run between two jumps
+ * being charged all at once at the jump that ends it (see ExecuteVM.setLimits): a run
+ * may use a few words more than its budget before it is stopped, never an unbounded
+ * number. The stack depth is checked at the same points (for the whole frame of the
+ * callee at a call, if the code is verified: see ExecuteVM.setVerified), the heap on
+ * allocation.
+ */
+public class Limits {
+
+	public final long fuel;		// words of code run
+	public final int stack;		// words of stack
+	public final int heap;		// words of heap
+
+	public Limits(long fuel, int stack, int heap) {
+		if (fuel < 0 || stack < 0 || heap < 0) throw new IllegalArgumentException("invalid limits");
+		this.fuel = fuel;
+		this.stack = stack;
+		this.heap = heap;
+	}
+
+	/**
+	 * Parses a comma separated list of limits, e.g. "fuel=1000000,stack=5000,heap=100000".
+	 * Missing limits are not enforced.
+	 */
+	public static Limits parse(String limits) {
+		long fuel = 0;
+		int stack = 0, heap = 0;
+		for (String s : limits.split(",")) {
+			if (s.isBlank()) continue;
+			String[] kv = s.trim().split("=");
+			if (kv.length != 2) throw new IllegalArgumentException("invalid limit: "+s);
+			String v = kv[1].trim();
+			switch (kv[0].trim().toLowerCase()) {
+				case "fuel": fuel = Long.parseLong(v); break;
+				case "stack": stack = Integer.parseInt(v); break;
+				case "heap": heap = Integer.parseInt(v); break;
+				default: throw new IllegalArgumentException("unknown limit: "+kv[0]);
+			}
+		}
+		return new Limits(fuel, stack, heap);
+	}
+
+	public String toString() {
+		return "fuel "+(fuel == 0 ? "unlimited" : fuel+" words")+", stack "+(stack == 0 ? "unlimited" : stack+" words")
+				+", heap "+(heap == 0 ? "unlimited" : heap+" words");
+	}
+}
@@ -0,0 +1,101 @@
+package svm;
+
+/**
+ * Layout of the VM memory, chosen when the machine is started.
+ *
+ * The memory is split in two segments that can never overlap:
+ *
+ *   0 .. stack-1				stack, growing down from the global AR at address "stack"
+ *   stack+1 .. 				heap, growing up; it is enlarged on demand up to maxHeap words
+ *
+ * Overflowing the stack makes sp negative: the bounds check the JVM performs on every
+ * array access already catches it, and the VM turns it into a trap. The heap is
+ * checked only when hp is moved past the words allocated so far, i.e. on allocation.
+ * Neither check costs anything on the other instructions.
+ *
+ * The address of the global AR is baked into the code (dispatch pointers are read at
+ * "stack"+offset), so the same Memory must be given to the code generator and to the VM.
+ *
+ * The words are kept in an int[] on the Java heap (HEAP backend) or, for heaps too
+ * large for it, outside of it (see OffHeapMemory): in direct buffers (DIRECT) or in a
+ * file mapped in memory (MAPPED), which is left as an image of the memory at the end.
+ */
+public class Memory {
+
+	public static final int DEFAULT_STACK = 10000;
+	public static final int DEFAULT_HEAP = 10000;
+	public static final int DEFAULT_MAX_HEAP = 64 << 20;
+
+	public enum Backend { HEAP, DIRECT, MAPPED }
+
+	public final int stack;		// words of the stack segment, also the address of the global AR
+	public final int heap;		// initial words of the heap segment
+	public final int maxHeap;	// words the heap segment can grow to
+	public final Backend backend;
+	public final String file;	// image of the memory, for the MAPPED backend
+
+	public Memory() {
+		this(DEFAULT_STACK, DEFAULT_HEAP, DEFAULT_MAX_HEAP);
+	}
+
+	public Memory(int stack, int heap, int maxHeap) {
+		this(stack, heap, maxHeap, Backend.HEAP, null);
+	}
+
+	public Memory(int stack, int heap, int maxHeap, Backend backend, String file) {
+		if (stack < 1 || heap < 1 || maxHeap < heap || (long) stack + 1 + maxHeap > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("invalid memory sizes");
+		if ((backend == Backend.MAPPED) != (file != null)) throw new IllegalArgumentException("a file is needed by the mapped backend only");
+		this.stack = stack;
+		this.heap = heap;
+		this.maxHeap = maxHeap;
+		this.backend = backend;
+		this.file = file;
+	}
+
+	/**
+	 * Parses a comma separated list of sizes in words, e.g. "stack=100000,heap=1000000";
+	 * "maxheap" limits the growth of the heap. Missing sizes keep their default.
+	 * "backend=heap|direct" chooses where the words are kept, "file=name" maps them
+	 * to the given file (MAPPED backend).
+	 */
+	public static Memory parse(String sizes) {
+		int stack = DEFAULT_STACK, heap = DEFAULT_HEAP, maxHeap = DEFAULT_MAX_HEAP;
+		Backend backend = Backend.HEAP;
+		String file = null;
+		for (String s : sizes.split(",")) {
+			if (s.isBlank()) continue;
+			String[] kv = s.trim().split("=");
+			if (kv.length != 2) throw new IllegalArgumentException("invalid memory size: "+s);
+			String v = kv[1].trim();
+			switch (kv[0].trim().toLowerCase()) {
+				case "stack": stack = Integer.parseInt(v); break;
+				case "heap": heap = Integer.parseInt(v); break;
+				case "maxheap": maxHeap = Integer.parseInt(v); break;
+				case "backend": backend = Backend.valueOf(v.toUpperCase()); break;
+				case "file": file = v; backend = Backend.MAPPED; break;
+				default: throw new IllegalArgumentException("unknown memory segment: "+kv[0]);
+			}
+		}
+		return new Memory(stack, heap, Math.max(heap, maxHeap), backend, file);
+	}
+
+	/**
+	 * Address of the first word of the heap.
+	 */
+	public int heapBase() {
+		return stack + 1; // the global AR at address "stack" has no word of its own
+	}
+
+	/**
+	 * Size of the memory array able to hold words heap words of heap.
+	 */
+	int size(int words) {
+		return heapBase() + words;
+	}
+
+	public String toString() {
+		return "stack "+stack+" words, heap "+heap+" words (max "+maxHeap+")"
+				+(backend == Backend.HEAP ? "" : backend == Backend.DIRECT ? ", off-heap" : ", mapped to "+file);
+	}
+}
@@ -0,0 +1,57 @@
+package svm;
+
+import java.util.Map;
+
+/**
+ * Observer of the execution of an ExecuteVM (see ExecuteVM.setMonitor).
+ *
+ * The interpreter loop of the VM calls step() before every instruction, jump() after
+ * every "js", "call", "ret" and INVOKE and tailCall() after every "tail" of a run with
+ * a monitor set; without one each hook costs a test of a local. The JIT is not used
+ * while a monitor is set, so that every instruction is seen.
+ */
+public interface Monitor {
+
+	/**
+	 * Called when the monitor is set on vm, whose code has the given labels (may be null).
+	 */
+	void attach(ExecuteVM vm, Map<String,Integer> labels);
+
+	/**
+	 * Called when the VM starts running.
+	 */
+	default void start() {
+	}
+
+	/**
+	 * Called before the instruction at address is executed, with its opcode and sp.
+	 */
+	void step(int address, int opcode, int sp);
+
+	/**
+	 * Called after a "js", a "call", a "ret" or an INVOKE, with the address it jumped to.
+	 */
+	default void jump(int target) {
+	}
+
+	/**
+	 * Called after a "tail", with the address it jumped to: the running function returns
+	 * and the callee is called in its place.
+	 */
+	default void tailCall(int target) {
+		jump(-1);
+		jump(target);
+	}
+
+	/**
+	 * Called when the VM stops abnormally (a fault or a trap), before stop().
+	 */
+	default void fault(String reason) {
+	}
+
+	/**
+	 * Called when the VM stops.
+	 */
+	default void stop() {
+	}
+}
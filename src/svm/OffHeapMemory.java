@@ -0,0 +1,214 @@
+package svm;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Memory of the VM kept outside the Java heap, for the DIRECT and MAPPED backends of
+ * Memory: it does not count against the Java heap nor burden its collector.
+ *
+ * The words are stored in IntBuffers of up to CHUNK words each, allocated as the heap
+ * grows: direct buffers, or regions of a file mapped in memory. Word a is in chunk
+ * a >>> CHUNK_BITS, so a single chunk serves the usual sizes. Every access is bounds
+ * checked by the buffer, which also catches a stack overflow (a negative address).
+ *
+ * A mapped file is an image of the memory that outlives the VM and can be opened
+ * again to inspect it: a header page (magic, layout and the registers at the end
+ * of the run) followed by the words, little-endian, word a at DATA+4*a. It grows with
+ * the heap, as the direct chunks do, and its channel is closed at the end of each run
+ * (the mappings stay valid), to be opened again if the heap grows later.
+ */
+public class OffHeapMemory extends Words {
+
+	private static final int CHUNK_BITS = 28, CHUNK = 1 << CHUNK_BITS, MASK = CHUNK - 1;
+	private static final int MAGIC = 0x53564d4d; // "SVMM"
+	private static final int DATA = 4096; // bytes of the header page
+
+	private final Memory layout;
+	private final Path file;			// null for the DIRECT backend
+	private FileChannel channel;		// of the file, open while it may be mapped again
+	private IntBuffer[] chunks = new IntBuffer[0];
+	private MappedByteBuffer header;
+	private long size;					// words available, from address 0
+
+	// registers saved in the header of an image
+	private int sp, fp, hp, ip;
+
+	public OffHeapMemory(Memory layout) {
+		this.layout = layout;
+		try {
+			if (layout.backend == Memory.Backend.MAPPED) {
+				file = Paths.get(layout.file);
+				channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				header = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA);
+			} else file = null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		ensure(layout.size(layout.heap) - 1);
+	}
+
+	private OffHeapMemory(Path file) throws IOException {
+		this.file = file;
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA);
+		IntBuffer h = header.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		if (h.get(0) != MAGIC) throw new IOException(file+" is not an image of the SVM memory");
+		layout = new Memory(h.get(1), h.get(2), h.get(3), Memory.Backend.MAPPED, file.toString());
+		sp = h.get(4); fp = h.get(5); hp = h.get(6); ip = h.get(7);
+		long words = (channel.size() - DATA) / 4;
+		chunks = new IntBuffer[(int) ((words + CHUNK - 1) >>> CHUNK_BITS)];
+		for (int c = 0; c < chunks.length; c++)
+			chunks[c] = chunk(FileChannel.MapMode.READ_ONLY, c, (int) Math.min(CHUNK, words - ((long) c << CHUNK_BITS)));
+		size = words;
+	}
+
+	/**
+	 * A new memory for layout, as the interpreter sees it (see Words).
+	 */
+	static Words create(Memory layout) {
+		return new OffHeapMemory(layout);
+	}
+
+	/**
+	 * Opens, read only, the image of the memory left in file by a run with the MAPPED backend.
+	 */
+	public static OffHeapMemory open(String file) throws IOException {
+		return new OffHeapMemory(Paths.get(file));
+	}
+
+	public int get(int address) {
+		return chunks[address >>> CHUNK_BITS].get(address & MASK);
+	}
+
+	public void set(int address, int value) {
+		chunks[address >>> CHUNK_BITS].put(address & MASK, value);
+	}
+
+	/**
+	 * Words available, from address 0.
+	 */
+	public int size() {
+		return (int) size;
+	}
+
+	/**
+	 * Makes address available: the last chunk doubles (up to CHUNK words), a mapped one
+	 * being mapped again over a longer region of the file, which keeps its words.
+	 * Addresses past the maximum of the layout are not.
+	 */
+	public void ensure(int address) {
+		long end = layout.size(layout.maxHeap);
+		if (address < size) return;
+		if (address >= end) throw new IllegalStateException("Heap exhausted");
+		int last = address >>> CHUNK_BITS;
+		if (last >= chunks.length) chunks = java.util.Arrays.copyOf(chunks, last + 1);
+		for (int c = 0; c <= last; c++) {
+			int limit = (int) Math.min(CHUNK, end - ((long) c << CHUNK_BITS)); // words of a full chunk
+			int words = c < last ? limit : (int) Math.min(limit, Math.max(2L * capacity(c), (address & MASK) + 1L));
+			if (capacity(c) < words) {
+				IntBuffer old = chunks[c];
+				chunks[c] = chunk(FileChannel.MapMode.READ_WRITE, c, words);
+				if (file == null && old != null) chunks[c].put(old.duplicate().clear());
+			}
+		}
+		size = ((long) last << CHUNK_BITS) + capacity(last);
+	}
+
+	/**
+	 * Copies n words from address on to the buffer, with a bulk copy per chunk.
+	 */
+	void read(int address, IntBuffer to, int n) {
+		while (n > 0) {
+			IntBuffer c = chunks[address >>> CHUNK_BITS].duplicate();
+			int off = address & MASK, k = Math.min(n, c.capacity() - off);
+			c.position(off).limit(off + k);
+			to.put(c);
+			address += k;
+			n -= k;
+		}
+	}
+
+	/**
+	 * Copies n words of the buffer to address on, which must be available.
+	 */
+	void write(int address, IntBuffer from, int n) {
+		while (n > 0) {
+			IntBuffer c = chunks[address >>> CHUNK_BITS].duplicate();
+			int off = address & MASK, k = Math.min(n, c.capacity() - off);
+			IntBuffer src = from.duplicate();
+			src.limit(src.position() + k);
+			c.position(off);
+			c.put(src);
+			from.position(from.position() + k);
+			address += k;
+			n -= k;
+		}
+	}
+
+	private int capacity(int chunk) {
+		return chunks[chunk] == null ? 0 : chunks[chunk].capacity();
+	}
+
+	private IntBuffer chunk(FileChannel.MapMode mode, int c, int words) {
+		try {
+			if (file != null && (channel == null || !channel.isOpen()))
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			ByteBuffer b = file == null ? ByteBuffer.allocateDirect(4 * words)
+					: channel.map(mode, DATA + 4L * ((long) c << CHUNK_BITS), 4L * words);
+			return b.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Saves the registers in the header of the image (MAPPED backend).
+	 */
+	public void save(int sp, int fp, int hp, int ip) {
+		this.sp = sp; this.fp = fp; this.hp = hp; this.ip = ip;
+		if (file == null) return;
+		IntBuffer h = header.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		h.put(0, MAGIC).put(1, layout.stack).put(2, layout.heap).put(3, layout.maxHeap);
+		h.put(4, sp).put(5, fp).put(6, hp).put(7, ip);
+		header.force();
+	}
+
+	/**
+	 * Closes the file of the image, if any: the words mapped so far stay available.
+	 */
+	public void close() {
+		try {
+			if (channel != null) channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public Memory layout() {
+		return layout;
+	}
+
+	public int sp() {
+		return sp;
+	}
+
+	public int fp() {
+		return fp;
+	}
+
+	public int hp() {
+		return hp;
+	}
+
+	public int ip() {
+		return ip;
+	}
+
+	public String toString() {
+		return "SVM memory ("+layout+"): sp="+sp+" fp="+fp+" hp="+hp+" ip="+ip;
+	}
+}
@@ -0,0 +1,313 @@
+package svm;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink of the output of the VM ("print" and the faults), replacing a println per value.
+ *
+ * Integers are formatted in place into a large byte buffer, without creating a string
+ * and without taking any lock; the full buffer is handed to the backend:
+ *
+ *   buffered		written to a stream by the thread of the VM
+ *   async			queued to a writer thread, which writes it to a stream while the VM
+ *					fills the next buffer (see Async)
+ *   file=name		copied into a file mapped in memory, truncated to its length on close
+ *
+ * The bytes reach the backend in the order they were printed. flush() returns only when
+ * they have all been written: the VM flushes its output when it stops (halt or fault),
+ * so whatever is printed after the run comes after the output of the program.
+ */
+public abstract class Output implements Flushable, Closeable {
+
+	public static final int DEFAULT_BUFFER = 1 << 16;
+
+	private static final int MAX_LINE = 12; // "-2147483648\n"
+
+	private byte[] buffer;
+	private int count;
+
+	protected Output(int size) {
+		buffer = new byte[Math.max(size, MAX_LINE)];
+	}
+
+	/**
+	 * Buffered output to System.out.
+	 */
+	public static Output buffered() {
+		return buffered(System.out);
+	}
+
+	public static Output buffered(OutputStream out) {
+		return new Buffered(out, DEFAULT_BUFFER);
+	}
+
+	public static Output async(OutputStream out) {
+		return new Async(out, DEFAULT_BUFFER, Async.BUFFERS);
+	}
+
+	public static Output mapped(String file) {
+		return new Mapped(Paths.get(file), DEFAULT_BUFFER);
+	}
+
+	/**
+	 * Parses the backend of the output to System.out or to a file: "buffered", "async"
+	 * or "file=name".
+	 */
+	public static Output parse(String spec) {
+		String s = spec.trim();
+		if (s.equalsIgnoreCase("buffered")) return buffered();
+		if (s.equalsIgnoreCase("async")) return async(System.out);
+		if (s.toLowerCase().startsWith("file=")) return mapped(s.substring(5).trim());
+		throw new IllegalArgumentException("unknown output: "+spec);
+	}
+
+	/**
+	 * Prints v followed by a newline.
+	 */
+	public final void println(int v) {
+		if (count + MAX_LINE > buffer.length) drain();
+		byte[] b = buffer;
+		int end = count + digits(v) + (v < 0 ? 1 : 0);
+		b[end] = '\n';
+		int i = end;
+		long n = Math.abs((long) v);
+		do {
+			b[--i] = (byte) ('0' + n % 10);
+			n /= 10;
+		} while (n != 0);
+		if (v < 0) b[--i] = '-';
+		count = end + 1;
+	}
+
+	private static int digits(int v) {
+		long n = Math.abs((long) v);
+		int d = 1;
+		while (n >= 10) {
+			n /= 10;
+			d++;
+		}
+		return d;
+	}
+
+	/**
+	 * Prints s, encoded in ISO-8859-1, followed by a newline.
+	 */
+	public final void println(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (count == buffer.length) drain();
+			char c = s.charAt(i);
+			buffer[count++] = (byte) (c < 256 ? c : '?');
+		}
+		if (count == buffer.length) drain();
+		buffer[count++] = '\n';
+	}
+
+	private void drain() {
+		if (count > 0) buffer = write(buffer, count);
+		count = 0;
+	}
+
+	/**
+	 * Hands the first length bytes of b to the backend and returns the buffer to fill
+	 * next: b itself if the backend is done with it.
+	 */
+	protected abstract byte[] write(byte[] b, int length);
+
+	/**
+	 * Waits until every byte handed to the backend has been written.
+	 */
+	protected abstract void sync();
+
+	public void flush() {
+		drain();
+		sync();
+	}
+
+	public void close() {
+		flush();
+	}
+
+	private static class Buffered extends Output {
+
+		private final OutputStream out;
+
+		Buffered(OutputStream out, int size) {
+			super(size);
+			this.out = out;
+		}
+
+		protected byte[] write(byte[] b, int length) {
+			try {
+				out.write(b, 0, length);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return b;
+		}
+
+		protected void sync() {
+			try {
+				out.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/*
+	 * A ring of BUFFERS buffers shared by the VM (the only producer) and the writer
+	 * thread (the only consumer), without locks: the VM fills the buffer of slot head
+	 * and publishes it by incrementing head; the writer writes the buffer of slot tail
+	 * and frees it by incrementing tail. The slots between tail and head are full and the
+	 * VM fills the one at head, so it waits only when all the others are: the buffer it
+	 * fills next is handed back only once the writer is done with it. At most BUFFERS
+	 * buffers are ever allocated. head and tail are volatile: publishing a slot makes its bytes visible.
+	 * A thread waits by parking, and whoever moves the other index unparks it.
+	 */
+	private static class Async extends Output {
+
+		static final int BUFFERS = 8;
+
+		private final OutputStream out;
+		private final byte[][] ring;
+		private final int[] lengths;
+		private volatile long head, tail;
+		private volatile boolean closed;
+		private volatile Thread waiting; // the VM, while it waits for the writer
+		private volatile IOException failure;
+		private final Thread writer;
+
+		Async(OutputStream out, int size, int buffers) {
+			super(size);
+			this.out = out;
+			this.ring = new byte[buffers][];
+			this.lengths = new int[buffers];
+			this.writer = new Thread(this::run, "SVM output");
+			this.writer.setDaemon(true);
+			this.writer.start();
+		}
+
+		protected byte[] write(byte[] b, int length) {
+			long h = head;
+			int slot = (int) (h % ring.length);
+			ring[slot] = b;
+			lengths[slot] = length;
+			head = h + 1;
+			LockSupport.unpark(writer);
+			await(h + 2 - ring.length); // the slot to fill next was last filled at h+1-BUFFERS: it must have been written
+			byte[] next = ring[(int) ((h + 1) % ring.length)];
+			return next != null ? next : new byte[b.length]; // a slot is used for the first time
+		}
+
+		protected void sync() {
+			await(head);
+			try {
+				out.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		// waits until the writer has written the slots before t
+		private void await(long t) {
+			if (tail >= t) return;
+			waiting = Thread.currentThread();
+			while (tail < t) {
+				if (failure != null) throw new UncheckedIOException(failure);
+				LockSupport.park(this);
+			}
+			waiting = null;
+			if (failure != null) throw new UncheckedIOException(failure);
+		}
+
+		private void run() {
+			while (true) {
+				long t = tail;
+				if (t == head) {
+					if (closed) return;
+					LockSupport.park(this);
+					continue;
+				}
+				int slot = (int) (t % ring.length);
+				try {
+					if (failure == null) out.write(ring[slot], 0, lengths[slot]);
+				} catch (IOException e) {
+					failure = e;
+				}
+				tail = t + 1;
+				Thread w = waiting;
+				if (w != null) LockSupport.unpark(w);
+			}
+		}
+
+		public void close() {
+			flush();
+			closed = true;
+			LockSupport.unpark(writer);
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/*
+	 * The file is mapped in regions of REGION bytes, one after the other; mapping
+	 * extends the file, which close() truncates to the bytes written.
+	 */
+	private static class Mapped extends Output {
+
+		private static final int REGION = 1 << 24;
+
+		private final FileChannel channel;
+		private MappedByteBuffer region;
+		private long position; // of the region in the file
+
+		Mapped(Path file, int size) {
+			super(size);
+			try {
+				channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		protected byte[] write(byte[] b, int length) {
+			try {
+				for (int off = 0; off < length; ) {
+					if (!region.hasRemaining()) {
+						position += REGION;
+						region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION);
+					}
+					int n = Math.min(length - off, region.remaining());
+					region.put(b, off, n);
+					off += n;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return b;
+		}
+
+		protected void sync() {
+			region.force();
+		}
+
+		public void close() {
+			flush();
+			try {
+				channel.truncate(position + region.position());
+				channel.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package svm;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Checks that the async backend of Output writes the same bytes as the buffered one
+ * when the stream is slower than the VM: the VM then fills every buffer of the ring and
+ * waits for the writer thread at each of them, so a buffer handed back to the VM
+ * while the writer is still writing it shows up as corrupted output.
+ *
+ * Usage: OutputCheck [lines, default 1000000]; exits with status 1 if the outputs differ.
+ */
+public class OutputCheck {
+
+	/*
+	 * A stream that takes its time: it copies each write in small pieces, yielding
+	 * between them.
+	 */
+	private static class Slow extends ByteArrayOutputStream {
+
+		public synchronized void write(byte[] b, int off, int len) {
+			for (int i = 0; i < len; i += 512) {
+				super.write(b, off + i, Math.min(512, len - i));
+				Thread.yield();
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		print(Output.buffered(expected), lines);
+		Slow async = new Slow();
+		print(Output.async(async), lines);
+		boolean same = Arrays.equals(expected.toByteArray(), async.toByteArray());
+		System.out.println(lines+" lines, "+expected.size()+" bytes: async output "+(same ? "matches" : "DIFFERS from")+" the buffered one");
+		if (!same) System.exit(1);
+	}
+
+	private static void print(Output out, int lines) {
+		for (int i = 0; i < lines; i++) out.println(i * 7919 - lines);
+		out.close();
+	}
+}
@@ -0,0 +1,161 @@
+package svm;
+
+import java.util.*;
+
+/**
+ * Instrumenting profiler of the ExecuteVM: counts every instruction executed, by
+ * opcode and by function, and the calls of every function.
+ *
+ * The functions are those of the SVMParser label table (see Functions). A "js" (or a
+ * "call", an INVOKE) jumping to a function is a call, any other one and a "ret" are
+ * returns: the profiler keeps a shadow stack of the active functions, and an
+ * instruction counts as exclusive (self) time of the function on top of it and as
+ * inclusive time of all of them (once per function, also when it is recursive).
+ *
+ * The shadow stack also walks a calling context tree, whose paths are the distinct
+ * stacks seen: collapsed() prints them in the collapsed-stack format read by the
+ * flame graph tools ("main;function3;function7 count").
+ *
+ * Profiling is opt-in, as a Monitor of the VM (ExecuteVM.setMonitor). Superinstructions
+ * are counted as one instruction.
+ */
+public class Profiler implements Monitor {
+
+	private static final int MAIN = Functions.MAIN;
+	private static final int TOP_LINES = 10;
+
+	private Functions functions;
+	private SourceMap source;	// may be null
+
+	private final long[] opcodes = new long[Decoder.INVOKE + 1];
+	private long[] calls, self, inclusive;
+	private int[] active;		// activations of each function on the shadow stack
+	private long[] addresses;	// executed by address
+	private long executed;
+
+	private int[] stack = new int[64];		// shadow stack of the functions
+	private long[] entered = new long[64];	// executed when each one was called
+	private Context[] contexts = new Context[64];
+	private int depth;
+
+	private final Context root = new Context(MAIN);
+	private Context current = root;
+
+	/*
+	 * A node of the calling context tree.
+	 */
+	private static class Context {
+		final int function;
+		Context[] children = new Context[0];
+		long self;
+
+		Context(int function) {
+			this.function = function;
+		}
+
+		Context child(int f) {
+			for (Context c : children) if (c.function == f) return c;
+			Context c = new Context(f);
+			children = Arrays.copyOf(children, children.length + 1);
+			children[children.length - 1] = c;
+			return c;
+		}
+	}
+
+	public void attach(ExecuteVM vm, Map<String,Integer> labels) {
+		functions = new Functions(vm.codeSize(), labels, vm.sourceMap());
+		source = vm.sourceMap();
+		addresses = new long[vm.codeSize()];
+		int n = functions.count();
+		calls = new long[n];
+		self = new long[n];
+		inclusive = new long[n];
+		active = new int[n];
+		calls[MAIN] = 1;
+		active[MAIN] = 1;
+	}
+
+	public void step(int address, int opcode, int sp) {
+		opcodes[opcode]++;
+		addresses[address]++;
+		executed++;
+		self[current.function]++;
+		current.self++;
+	}
+
+	public void jump(int target) {
+		if (functions.isEntry(target)) {
+			int f = functions.of(target);
+			if (depth == stack.length) {
+				stack = Arrays.copyOf(stack, 2 * depth);
+				entered = Arrays.copyOf(entered, 2 * depth);
+				contexts = Arrays.copyOf(contexts, 2 * depth);
+			}
+			stack[depth] = f;
+			entered[depth] = executed;
+			contexts[depth++] = current;
+			calls[f]++;
+			active[f]++;
+			current = current.child(f);
+		} else if (depth > 0) {
+			int f = stack[--depth];
+			if (--active[f] == 0) inclusive[f] += executed - entered[depth];
+			current = contexts[depth];
+		}
+	}
+
+	public long executed() {
+		return executed;
+	}
+
+	// inclusive count of f, counting its activations still on the shadow stack
+	private long inclusive(int f) {
+		if (f == MAIN) return executed;
+		long n = inclusive[f];
+		for (int d = 0; d < depth; d++)
+			if (stack[d] == f) return n + executed - entered[d];
+		return n;
+	}
+
+	/**
+	 * Flat profile: the functions by exclusive count, then the opcodes by count and, with
+	 * a SourceMap, the FOOL lines.
+	 */
+	public String report() {
+		StringBuilder s = new StringBuilder("Profile: "+executed+" instructions executed\n");
+		s.append(String.format("  %-20s %10s %14s %7s %14s %7s%n", "function", "calls", "self", "%", "inclusive", "%"));
+		Integer[] order = new Integer[functions.count()];
+		for (int f = 0; f < order.length; f++) order[f] = f;
+		Arrays.sort(order, (a, b) -> Long.compare(self[b], self[a]));
+		for (int f : order)
+			if (calls[f] > 0) s.append(String.format("  %-20s %10d %14d %6.2f%% %14d %6.2f%%%n", functions.name(f), calls[f],
+					self[f], percent(self[f]), inclusive(f), percent(inclusive(f))));
+		s.append(String.format("  %-20s %14s %7s%n", "opcode", "count", "%"));
+		order = new Integer[opcodes.length];
+		for (int op = 0; op < order.length; op++) order[op] = op;
+		Arrays.sort(order, (a, b) -> Long.compare(opcodes[b], opcodes[a]));
+		for (int op : order)
+			if (opcodes[op] > 0) s.append(String.format("  %-20s %14d %6.2f%%%n", Decoder.name(op), opcodes[op], percent(opcodes[op])));
+		if (source != null) s.append(source.hotLines(addresses, executed, TOP_LINES));
+		return s.toString();
+	}
+
+	private double percent(long n) {
+		return executed == 0 ? 0 : 100.0 * n / executed;
+	}
+
+	/**
+	 * Exclusive counts of the distinct stacks, one per line in the collapsed-stack
+	 * format of the flame graph tools.
+	 */
+	public String collapsed() {
+		StringBuilder s = new StringBuilder();
+		collapsed(root, functions.name(MAIN), s);
+		return s.toString();
+	}
+
+	private void collapsed(Context c, String path, StringBuilder s) {
+		if (c.self > 0) s.append(path).append(' ').append(c.self).append('\n');
+		for (Context child : c.children) collapsed(child, path + ";" + functions.name(child.function), s);
+	}
+}
@@ -0,0 +1,173 @@
+package svm;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * An assembled program: the code with its labels resolved, the label table, the
+ * metadata of the Collector (roots and frames) and the source map (lines and scopes),
+ * as collected by the SVMParser.
+ *
+ * A program can be saved in a binary object file (.svmb) and loaded from it without
+ * lexing and parsing the .asm again. The file is little-endian, every item aligned to
+ * a word, and is loaded through a mapping in memory, the code being decoded straight
+ * from the mapped pages into the code array:
+ *
+ *   int			MAGIC, VERSION
+ *   2 int, n bytes	length of the code, n, its CompactCode (padded to a multiple of 4)
+ *   int			the number of labels, each one as a string and its address
+ *   int			the number of roots, each one as its address, n and n words
+ *   int			the number of frames, each one as its address, n and n words
+ *   int			the number of lines, each one as its address and the line
+ *   int			the number of scopes, each one as its address and a string
+ *
+ * A string is the number of its bytes in UTF-8 and the bytes, padded to a multiple of 4.
+ */
+public class Program {
+
+	private static final int MAGIC = 0x53564d42; // "SVMB"
+	private static final int VERSION = 8;
+
+	public final int[] code;
+	public final Map<String,Integer> labels;
+	public final Map<Integer,int[]> roots;		// stack maps of the safepoints, by address
+	public final Map<Integer,int[]> frames;		// frame layouts of the functions, by entry address
+	public final Map<Integer,Integer> lines;	// FOOL line of the code from each address on
+	public final Map<Integer,String> scopes;	// FOOL function or method of the code from each address on
+
+	public Program(int[] code, Map<String,Integer> labels, Map<Integer,int[]> roots, Map<Integer,int[]> frames,
+			Map<Integer,Integer> lines, Map<Integer,String> scopes) {
+		this.code = code;
+		this.labels = labels;
+		this.roots = roots;
+		this.frames = frames;
+		this.lines = lines;
+		this.scopes = scopes;
+	}
+
+	/**
+	 * The program assembled by parser.
+	 */
+	public Program(SVMParser parser) {
+		this(parser.code, parser.labelDef, parser.roots, parser.frames, parser.lines, parser.scopes);
+	}
+
+	public SourceMap sourceMap() {
+		return new SourceMap(lines, scopes);
+	}
+
+	/**
+	 * Loads the program saved in file.
+	 */
+	public static Program load(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			ByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			if (b.remaining() < 8 || b.getInt() != MAGIC) throw new IOException(file+" is not a program of the SVM");
+			if (b.getInt() != VERSION) throw new IOException(file+" is a program of another version of the SVM");
+			int[] code = getCode(b);
+			Map<String,Integer> labels = new HashMap<>();
+			for (int n = b.getInt(); n > 0; n--) labels.put(getString(b), b.getInt());
+			Map<Integer,int[]> roots = getWords(b), frames = getWords(b);
+			Map<Integer,Integer> lines = new HashMap<>();
+			for (int n = b.getInt(); n > 0; n--) lines.put(b.getInt(), b.getInt());
+			Map<Integer,String> scopes = new HashMap<>();
+			for (int n = b.getInt(); n > 0; n--) scopes.put(b.getInt(), getString(b));
+			return new Program(code, labels, roots, frames, lines, scopes);
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException(file+" is truncated");
+		}
+	}
+
+	/**
+	 * Saves the program to file.
+	 */
+	public void save(String file) throws IOException {
+		byte[] compact = CompactCode.encode(code);
+		long size = 4 * 2 + size(compact);
+		for (String l : labels.keySet()) size += size(l) + 4;
+		for (int[] w : roots.values()) size += 4 * (2 + w.length);
+		for (int[] w : frames.values()) size += 4 * (2 + w.length);
+		size += 4 * (5 + 2 * lines.size() + scopes.size());
+		for (String s : scopes.values()) size += size(s);
+		if (size > Integer.MAX_VALUE) throw new IOException("the program is too large");
+		ByteBuffer b = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(MAGIC).putInt(VERSION);
+		putCode(b, code.length, compact);
+		b.putInt(labels.size());
+		for (Map.Entry<String,Integer> l : labels.entrySet()) putString(b, l.getKey()).putInt(l.getValue());
+		putWords(b, roots);
+		putWords(b, frames);
+		b.putInt(lines.size());
+		for (Map.Entry<Integer,Integer> l : lines.entrySet()) b.putInt(l.getKey()).putInt(l.getValue());
+		b.putInt(scopes.size());
+		for (Map.Entry<Integer,String> s : scopes.entrySet()) putString(b.putInt(s.getKey()), s.getValue());
+		b.flip();
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (b.hasRemaining()) channel.write(b);
+		}
+	}
+
+	/*
+	 * Encoding of the code, of the strings and of the metadata, shared with the Snapshot.
+	 */
+
+	static Map<Integer,int[]> getWords(ByteBuffer b) {
+		Map<Integer,int[]> m = new HashMap<>();
+		for (int n = b.getInt(); n > 0; n--) {
+			int address = b.getInt();
+			int[] w = new int[b.getInt()];
+			b.asIntBuffer().get(w);
+			b.position(b.position() + 4 * w.length);
+			m.put(address, w);
+		}
+		return m;
+	}
+
+	static void putWords(ByteBuffer b, Map<Integer,int[]> m) {
+		b.putInt(m.size());
+		for (Map.Entry<Integer,int[]> e : m.entrySet()) {
+			b.putInt(e.getKey()).putInt(e.getValue().length);
+			b.asIntBuffer().put(e.getValue());
+			b.position(b.position() + 4 * e.getValue().length);
+		}
+	}
+
+	static long size(byte[] compact) {
+		return 8 + compact.length + (-compact.length & 3);
+	}
+
+	static void putCode(ByteBuffer b, int length, byte[] compact) {
+		b.putInt(length).putInt(compact.length).put(compact);
+		b.position(b.position() + (-compact.length & 3));
+	}
+
+	static int[] getCode(ByteBuffer b) {
+		int length = b.getInt(), n = b.getInt();
+		int[] code = CompactCode.decode(b, n, length);
+		b.position(b.position() + (-n & 3));
+		return code;
+	}
+
+	static long size(String s) {
+		int n = s.getBytes(StandardCharsets.UTF_8).length;
+		return 4 + n + (-n & 3);
+	}
+
+	static ByteBuffer putString(ByteBuffer b, String s) {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		b.putInt(bytes.length).put(bytes);
+		return b.position(b.position() + (-bytes.length & 3));
+	}
+
+	static String getString(ByteBuffer b) {
+		byte[] bytes = new byte[b.getInt()];
+		b.get(bytes);
+		b.position(b.position() + (-bytes.length & 3));
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,41 @@
+package svm;
+
+/**
+ * How a run of the ExecuteVM ended, returned by cpu(): a halt, a fault of the program
+ * (an illegal instruction, a stack overflow, a wrong address, a division by zero, the
+ * heap of the Memory exhausted) or one of its Limits exceeded. The faults are reported
+ * here rather than thrown, so that a caller running untrusted code can tell them apart
+ * without catching the exceptions of the JVM.
+ */
+public class Result {
+
+	public enum Status { HALTED, TRAP, FAULT, OUT_OF_FUEL, STACK_LIMIT, HEAP_LIMIT }
+
+	public final Status status;
+	public final String reason;	// as printed by the VM, null when HALTED
+	public final int address;	// of the instruction that stopped the run
+	public final long fuel;		// words of code charged, 0 without Limits
+
+	Result(Status status, String reason, int address, long fuel) {
+		this.status = status;
+		this.reason = reason;
+		this.address = address;
+		this.fuel = fuel;
+	}
+
+	public boolean halted() {
+		return status == Status.HALTED;
+	}
+
+	/**
+	 * Whether the run was stopped by one of its Limits.
+	 */
+	public boolean limited() {
+		return status == Status.OUT_OF_FUEL || status == Status.STACK_LIMIT || status == Status.HEAP_LIMIT;
+	}
+
+	public String toString() {
+		return status+" at address "+address+(fuel > 0 ? ", "+fuel+" words of fuel used" : "")
+				+(reason == null ? "" : ": "+reason);
+	}
+}
@@ -7,6 +7,7 @@ grammar SVM;
  */
 @header {
 	import java.util.HashMap;
+	import java.util.List;
 }
 
 @lexer::members {
@@ -34,12 +35,22 @@ private int i = 0; /*non stiamo eseguendo ma trasformando il testo in numeri la
 					/* ad ogni token viene associato in maniera automatica da antlr 
 					 * un numero(SVM.tokens)
 					 */
-private HashMap<String,Integer> labelDef = new HashMap<String,Integer>();	/* chiave id numerico
+public HashMap<String,Integer> labelDef = new HashMap<String,Integer>();	/* chiave id numerico
 																			 * le chiavi push pop 
 																			 */ 
 private HashMap<Integer,String> labelRef = new HashMap<Integer,String>();	/* id numerico chiave
 																			 * un numero per ogni token
 																			 */
+public HashMap<Integer,int[]> roots = new HashMap<Integer,int[]>();	// stack maps of the safepoints, by address (see Collector)
+public HashMap<Integer,int[]> frames = new HashMap<Integer,int[]>();	// frame layouts of the functions, by entry address (see Collector)
+public HashMap<Integer,Integer> lines = new HashMap<Integer,Integer>();	// FOOL line of the code from each address on (see SourceMap)
+public HashMap<Integer,String> scopes = new HashMap<Integer,String>();	// FOOL function or method of the code from each address on (see SourceMap)
+
+private static int[] words(List<Token> w) {
+	int[] a = new int[w.size()];
+	for (int k = 0; k < a.length; k++) a[k] = Integer.parseInt(w.get(k).getText());
+	return a;
+}
 }
 
 
@@ -152,6 +163,33 @@ instruction:
 	| COPYFP      {code[i++] = COPYFP;}			///copy in the FP register the current stack pointer    
 	| LOADHP      {code[i++] = LOADHP;}	///push in the stack the content of the HP register    
 	| STOREHP     {code[i++] = STOREHP;}	///pop the top of the stack and copy it in the HP register  
+	| RESERVE n=INTEGER {code[i++] = RESERVE;
+						code[i++] = Integer.parseInt($n.text);}	//make room for n words at hp, collecting the garbage if needed; hp is not moved
+	| TAILCALL n=INTEGER {code[i++] = TAILCALL;
+						code[i++] = Integer.parseInt($n.text);}	//pop the address of the CL of the running function and the one to jump to: the n words on the top of the stack
+																//(arguments and AL of the callee) replace its frame under its CL, and the jump keeps its RA in the RA register
+	| FILL		{code[i++] = FILL;}		//pop an object pointer and write the value on the top of the stack in the last field of the object, left as a hole by its "new":
+										//emitted by the code generator only, for the functions building an object around a recursive call (tail recursion modulo cons)
+	| CALL		{code[i++] = CALL;}		//pop the address of a closure (AR address, then label below it): push its AR address as the AL, copy the instruction pointer in the RA register
+										//and jump to its label
+	| ENTER		{code[i++] = ENTER;}	//start a frame: copy the stack pointer in the FP register and push the RA register
+	| LEAVE n=INTEGER {code[i++] = LEAVE;
+						code[i++] = Integer.parseInt($n.text);}	//end the frame of a function with n words of parameters: the value on the top of the stack replaces its CL,
+																//the RA and the FP registers get back the RA of the frame and its CL
+	| RET		{code[i++] = RET;}		//jump to the address in the RA register
+	| DISPLAY n=INTEGER {code[i++] = DISPLAY;
+						code[i++] = Integer.parseInt($n.text);}	//the frame at FP is the AR of nesting level n: it and the ARs on its static chain (followed through the ALs)
+																//become the entries 1..n of the display, of which they are the valid ones from now on
+	| LOADDISPLAY n=INTEGER {code[i++] = LOADDISPLAY;
+						code[i++] = Integer.parseInt($n.text);}	//push the AR of nesting level n from the display (entry 0 being the global AR)
+	| LOADGLOBAL n=INTEGER {code[i++] = LOADGLOBAL;
+						code[i++] = Integer.parseInt($n.text);}	//push the word at the address n, a global declaration in the AR of the main program
+	  
+	  /* metadata of the garbage collector, they generate no code */
+	| ROOTS (w+=INTEGER)* {roots.put(i, words($w));}	//the next address is a safepoint: 1 for each word of the frame under the RA holding an object pointer, 0 otherwise
+	| FRAME (w+=INTEGER)* {frames.put(i, words($w));}	//a function starts here: 1 if its AL is an object pointer (method), then 1 for each parameter word holding an object pointer
+	| LINE n=INTEGER {lines.put(i, Integer.parseInt($n.text));}	//the next instructions come from this line of the FOOL source
+	| SCOPE s=STRING {scopes.put(i, $s.text.substring(1, $s.text.length()-1));}	//the next instructions belong to this FOOL function or method
 	    
 	| PRINT       {code[i++] = PRINT;}	//visualize the top of the stack without removing it, ha argomenti implici perch lavora con lo stack
 	| HALT        {code[i++] = HALT;}		//terminate the execution, ha argomenti implici perch lavora con lo stack
@@ -183,9 +221,25 @@ STOREFP	 	: 'sfp' ;
 COPYFP   	: 'cfp' ;      
 LOADHP	 	: 'lhp' ;	
 STOREHP	 	: 'shp' ;	
+RESERVE	 	: 'reserve' ;	
+TAILCALL	: 'tail' ;
+FILL		: 'fill' ;
+CALL		: 'call' ;
+ENTER		: 'enter' ;
+LEAVE		: 'leave' ;
+RET			: 'ret' ;
+DISPLAY		: 'display' ;
+LOADDISPLAY	: 'ldisp' ;
+LOADGLOBAL	: 'lg' ;
 PRINT	 	: 'print' ;	
 HALT	 	: 'halt' ;	
 
+ROOTS		: 'roots' ;
+FRAME		: 'frame' ;
+LINE		: 'line' ;
+SCOPE		: 'scope' ;
+STRING		: '"' ~["\r\n]* '"' ;
+
 COL	 		: ':' ;
 LABEL	 	: ('a'..'z'|'A'..'Z')('a'..'z' | 'A'..'Z' | '0'..'9')* ;
 INTEGER	 	: '0' | ('-')?(('1'..'9')('0'..'9')*) ;
@@ -0,0 +1,197 @@
+package svm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sampling profiler of the ExecuteVM, for runs too long to count every instruction.
+ *
+ * As a Monitor the Sampler does nothing but publish the address of the instruction
+ * being executed, with an opaque store (a plain store on the common hardware: no fence
+ * and no lock). A daemon thread reads it every interval microseconds together with fp
+ * and walks the frames on the stack as the Collector does (RA at fp-1, CL after the AL
+ * and the parameters, see SVMParser.frames), mapping each return address back to its
+ * function (see Functions) and, with a SourceMap, to its FOOL line.
+ *
+ * The VM is not stopped: a sample taken while a call or a return is setting up its
+ * frame may miss a function or walk a wrong frame, and one that cannot be walked at
+ * all is dropped (counted as lost). The profile is statistical anyway, and its memory
+ * is bounded: per function and per address counts, at most MAX_DEPTH frames per sample
+ * and at most MAX_STACKS distinct stacks, further ones being counted as truncated.
+ */
+public class Sampler implements Monitor {
+
+	public static final int DEFAULT_INTERVAL = 1000; // microseconds
+
+	private static final int MAX_DEPTH = 64;
+	private static final int MAX_STACKS = 10000;
+	private static final int TOP_ADDRESSES = 10;
+
+	private static final VarHandle IP;
+	static {
+		try {
+			IP = MethodHandles.lookup().findVarHandle(Sampler.class, "ip", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final TreeMap<Integer,int[]> frames;
+	private final long interval;		// nanoseconds
+
+	private ExecuteVM vm;
+	private Functions functions;
+	private SourceMap source;			// may be null
+	@SuppressWarnings("unused") // accessed through IP
+	private int ip = -1;				// published by the VM, -1 while it is not running
+	private Thread thread;
+	private volatile boolean running;
+
+	// written by the sampling thread only, read once it has stopped
+	private long samples, lost, truncated;
+	private long[] self, inclusive;		// by function
+	private long[] addresses;			// samples by address
+	private final Map<String,long[]> stacks = new HashMap<>();
+	private final int[] walked = new int[MAX_DEPTH];
+	private int[] seen;					// sample in which each function was last counted
+
+	public Sampler(Map<Integer,int[]> frames) {
+		this(frames, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * @param frames	frame layouts by function address (SVMParser.frames)
+	 * @param interval	microseconds between two samples
+	 */
+	public Sampler(Map<Integer,int[]> frames, int interval) {
+		this.frames = new TreeMap<>(frames);
+		this.interval = 1000L * Math.max(interval, 1);
+	}
+
+	public void attach(ExecuteVM vm, Map<String,Integer> labels) {
+		this.vm = vm;
+		functions = new Functions(vm.codeSize(), labels, vm.sourceMap());
+		source = vm.sourceMap();
+		self = new long[functions.count()];
+		inclusive = new long[functions.count()];
+		seen = new int[functions.count()];
+		addresses = new long[vm.codeSize()];
+	}
+
+	public void start() {
+		running = true;
+		thread = new Thread(this::run, "SVM sampler");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void step(int address, int opcode, int sp) {
+		IP.setOpaque(this, address);
+	}
+
+	public void stop() {
+		IP.setOpaque(this, -1);
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		while (running) {
+			LockSupport.parkNanos(this, interval);
+			if (running) sample();
+		}
+	}
+
+	private void sample() {
+		final int top = (int) IP.getOpaque(this);
+		if (top < 0) return;
+		int[] m = vm.memory;
+		int pc = top, fp = vm.fp, depth = 0;
+		try {
+			while (depth < MAX_DEPTH) {
+				walked[depth++] = functions.of(pc);
+				if (fp == vm.layout.stack) break; // the frame of the main program
+				Map.Entry<Integer,int[]> f = frames.floorEntry(pc);
+				if (f == null) break;
+				pc = m[fp - 1] - 1; // the "js" or "call" of the call
+				fp = m[fp + f.getValue().length];
+			}
+		} catch (ArrayIndexOutOfBoundsException e) { // a frame changing under the walk
+			lost++;
+			return;
+		}
+		if (walked[depth - 1] != Functions.MAIN && depth < MAX_DEPTH) walked[depth++] = Functions.MAIN;
+		samples++;
+		self[walked[0]]++;
+		if (top < addresses.length) addresses[top]++;
+		for (int d = 0; d < depth; d++)
+			if (seen[walked[d]] != (int) samples) {
+				seen[walked[d]] = (int) samples;
+				inclusive[walked[d]]++;
+			}
+		StringBuilder key = new StringBuilder();
+		for (int d = depth - 1; d >= 0; d--) key.append(functions.name(walked[d])).append(d > 0 ? ";" : "");
+		long[] n = stacks.get(key.toString());
+		if (n == null) {
+			if (stacks.size() >= MAX_STACKS) {
+				truncated++;
+				return;
+			}
+			stacks.put(key.toString(), n = new long[1]);
+		}
+		n[0]++;
+	}
+
+	public long samples() {
+		return samples;
+	}
+
+	/**
+	 * Flat profile: the functions by samples on top of the stack (self) and anywhere on
+	 * it (inclusive), then the FOOL lines (or the addresses, without a SourceMap) sampled
+	 * most often.
+	 */
+	public String report() {
+		StringBuilder s = new StringBuilder(String.format("Samples: %d every %d us, %d lost, %d stacks truncated%n",
+				samples, interval / 1000, lost, truncated));
+		s.append(String.format("  %-20s %10s %7s %10s %7s%n", "function", "self", "%", "inclusive", "%"));
+		Integer[] order = new Integer[functions.count()];
+		for (int f = 0; f < order.length; f++) order[f] = f;
+		Arrays.sort(order, (a, b) -> Long.compare(self[b], self[a]));
+		for (int f : order)
+			if (inclusive[f] > 0) s.append(String.format("  %-20s %10d %6.2f%% %10d %6.2f%%%n", functions.name(f),
+					self[f], percent(self[f]), inclusive[f], percent(inclusive[f])));
+		if (source != null) return s.append(source.hotLines(addresses, samples, TOP_ADDRESSES)).toString();
+		s.append(String.format("  %-20s %10s %7s%n", "address", "samples", "%"));
+		order = new Integer[addresses.length];
+		for (int a = 0; a < order.length; a++) order[a] = a;
+		Arrays.sort(order, (a, b) -> Long.compare(addresses[b], addresses[a]));
+		for (int i = 0; i < TOP_ADDRESSES && i < order.length && addresses[order[i]] > 0; i++) {
+			int a = order[i];
+			s.append(String.format("  %-20s %10d %6.2f%%%n", a+" "+functions.name(functions.of(a)), addresses[a], percent(addresses[a])));
+		}
+		return s.toString();
+	}
+
+	private double percent(long n) {
+		return samples == 0 ? 0 : 100.0 * n / samples;
+	}
+
+	/**
+	 * Samples of the distinct stacks, one per line in the collapsed-stack format of
+	 * the flame graph tools.
+	 */
+	public String collapsed() {
+		StringBuilder s = new StringBuilder();
+		for (Map.Entry<String,long[]> e : new TreeMap<>(stacks).entrySet())
+			s.append(e.getKey()).append(' ').append(e.getValue()[0]).append('\n');
+		return s.toString();
+	}
+}
@@ -0,0 +1,208 @@
+package svm;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Snapshot of the complete state of a stopped ExecuteVM, from which a new machine
+ * resumes the run: the code as assembled with its labels and the metadata of the
+ * Collector, the Memory layout, the registers, the state of the Collector and the
+ * words of the memory in use. The restored machine can be given a collector built
+ * from the saved metadata (roots() and frames()), even if the saved one had none.
+ *
+ * A run stops at a clean point when it runs out of fuel (see Limits): long runs are
+ * made resumable by running them in slices of fuel and saving a snapshot after each.
+ *
+ * Only the used regions of the memory are saved, the stack from sp to the global AR
+ * and the heap up to hp, in a compact little-endian file:
+ *
+ *   int			MAGIC, VERSION
+ *   3 int			stack, heap, maxHeap of the layout
+ *   6 int			ip, sp, fp, hp, ra, tm
+ *   2 int			first address of the collected heap, end of the old generation (-1 without a collector)
+ *   2 int, n bytes	length of the code, n, its CompactCode (padded to a multiple of 4)
+ *   int			the number of labels, each one as a string and its address
+ *   int			the number of roots, each one as its address, n and n words
+ *   int			the number of frames, each one as its address, n and n words
+ *   int, n int		n, the words from sp on
+ *   int, n int		n, the words from the first address of the heap on
+ *
+ * The display of the VM is not saved: it is rebuilt by the code (see ExecuteVM.display).
+ *
+ * The file is written and read either through a mapping in memory, the words moving
+ * between the memory of the VM and the pages of the file with one bulk copy per
+ * region, or through a buffer and the FileChannel. The code, the labels and the
+ * strings and the metadata are encoded as in a Program.
+ */
+public class Snapshot {
+
+	private static final int MAGIC = 0x53564d53; // "SVMS"
+	private static final int VERSION = 9;
+	private static final int HEADER = 13; // words before the code
+
+	private final Memory layout;
+	private final int ip, sp, fp, hp, ra, tm, base, old;
+	private final int[] code;
+	private final Map<String,Integer> labels;
+	private final Map<Integer,int[]> roots, frames;
+	private final ByteBuffer file;	// positioned at the words of the stack
+	private final String name;
+
+	private Snapshot(String name, ByteBuffer b) throws IOException {
+		this.name = name;
+		this.file = b.order(ByteOrder.LITTLE_ENDIAN);
+		if (b.remaining() < 4 * HEADER || b.getInt() != MAGIC) throw new IOException(name+" is not a snapshot of the SVM");
+		if (b.getInt() != VERSION) throw new IOException(name+" is a snapshot of another version of the SVM");
+		layout = new Memory(b.getInt(), b.getInt(), b.getInt());
+		ip = b.getInt(); sp = b.getInt(); fp = b.getInt(); hp = b.getInt(); ra = b.getInt(); tm = b.getInt();
+		base = b.getInt(); old = b.getInt();
+		code = Program.getCode(b);
+		labels = new HashMap<>();
+		for (int n = b.getInt(); n > 0; n--) labels.put(Program.getString(b), b.getInt());
+		roots = Program.getWords(b);
+		frames = Program.getWords(b);
+	}
+
+	/**
+	 * Saves the state of vm, which must be stopped, to file, mapping it in memory, with
+	 * the metadata of its collector, if any.
+	 */
+	public static void save(ExecuteVM vm, String file) throws IOException {
+		Collector c = vm.collector();
+		save(vm, file, c == null ? Map.of() : c.roots(), c == null ? Map.of() : c.frames(), true);
+	}
+
+	/**
+	 * Saves the state of vm with the given metadata of the Collector (Program.roots and
+	 * frames), for the collector of a restored machine even if vm has none.
+	 */
+	public static void save(ExecuteVM vm, String file, Map<Integer,int[]> roots, Map<Integer,int[]> frames) throws IOException {
+		save(vm, file, roots, frames, true);
+	}
+
+	public static void save(ExecuteVM vm, String file, Map<Integer,int[]> roots, Map<Integer,int[]> frames, boolean mapped) throws IOException {
+		Memory layout = vm.layout;
+		int[] code = vm.code();
+		Map<String,Integer> labels = vm.labels() == null ? Map.of() : vm.labels();
+		byte[] compact = CompactCode.encode(code);
+		long size = Program.size(compact) + 4L * (HEADER + 1 + 2 + (layout.stack + 1 - vm.sp) + (vm.hp - layout.heapBase()));
+		for (String l : labels.keySet()) size += Program.size(l) + 4;
+		for (int[] w : roots.values()) size += 4 * (2 + w.length);
+		for (int[] w : frames.values()) size += 4 * (2 + w.length);
+		size += 4 * 2;
+		if (size > Integer.MAX_VALUE) throw new IOException("the state of the VM is too large for a snapshot");
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer b = (mapped ? channel.map(FileChannel.MapMode.READ_WRITE, 0, size) : ByteBuffer.allocate((int) size))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			Collector c = vm.collector();
+			b.putInt(MAGIC).putInt(VERSION).putInt(layout.stack).putInt(layout.heap).putInt(layout.maxHeap);
+			b.putInt(vm.ip()).putInt(vm.sp).putInt(vm.fp).putInt(vm.hp).putInt(vm.ra).putInt(vm.tm);
+			b.putInt(c == null ? -1 : c.base()).putInt(c == null ? -1 : c.old());
+			Program.putCode(b, code.length, compact);
+			b.putInt(labels.size());
+			for (Map.Entry<String,Integer> l : labels.entrySet()) Program.putString(b, l.getKey()).putInt(l.getValue());
+			Program.putWords(b, roots);
+			Program.putWords(b, frames);
+			region(vm, b, vm.sp, layout.stack + 1 - vm.sp);
+			region(vm, b, layout.heapBase(), vm.hp - layout.heapBase());
+			if (mapped) ((MappedByteBuffer) b).force();
+			else {
+				b.flip();
+				while (b.hasRemaining()) channel.write(b);
+			}
+		}
+	}
+
+	private static void region(ExecuteVM vm, ByteBuffer b, int address, int words) {
+		b.putInt(words);
+		IntBuffer to = b.asIntBuffer();
+		vm.read(address, to, words);
+		b.position(b.position() + 4 * words);
+	}
+
+	/**
+	 * Loads the snapshot in file, mapping it in memory or reading it whole.
+	 */
+	public static Snapshot load(String file, boolean mapped) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) throw new IOException(file+" is not a snapshot of the SVM");
+			ByteBuffer b;
+			if (mapped) b = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			else {
+				b = ByteBuffer.allocate((int) channel.size());
+				while (b.hasRemaining() && channel.read(b) >= 0);
+				b.flip();
+			}
+			return new Snapshot(file, b); // a mapping stays valid after the channel is closed
+		}
+	}
+
+	public static Snapshot load(String file) throws IOException {
+		return load(file, true);
+	}
+
+	public Memory layout() {
+		return layout;
+	}
+
+	public int[] code() {
+		return code;
+	}
+
+	public Map<String,Integer> labels() {
+		return labels;
+	}
+
+	/**
+	 * Stack maps of the safepoints and frame layouts of the functions, by address, for
+	 * the Collector of the restored machine: empty if the snapshot was saved without them.
+	 */
+	public Map<Integer,int[]> roots() {
+		return roots;
+	}
+
+	public Map<Integer,int[]> frames() {
+		return frames;
+	}
+
+	/**
+	 * A new machine in the saved state, with the saved layout.
+	 */
+	public ExecuteVM restore(Fusion fusion, Jit jit, Collector collector, Output out) throws IOException {
+		return restore(layout, fusion, jit, collector, out);
+	}
+
+	/**
+	 * A new machine in the saved state, with the given layout, e.g. another backend or
+	 * a larger heap: its stack must be the saved one, whose address is in the code.
+	 * The collector, if any, is given the saved state of the one that was running.
+	 */
+	public ExecuteVM restore(Memory layout, Fusion fusion, Jit jit, Collector collector, Output out) throws IOException {
+		if (layout.stack != this.layout.stack) throw new IllegalArgumentException("the snapshot needs a stack of "+this.layout.stack+" words");
+		ExecuteVM vm = new ExecuteVM(code, labels, fusion, jit, layout, collector, out);
+		vm.resume(ip, sp, fp, hp, ra, tm);
+		ByteBuffer b = file.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			region(vm, b, sp);
+			region(vm, b, layout.heapBase());
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException(name+" is truncated");
+		}
+		if (collector != null) collector.resume(vm, base, old);
+		return vm;
+	}
+
+	private static void region(ExecuteVM vm, ByteBuffer b, int address) {
+		int words = b.getInt();
+		vm.write(address, b.asIntBuffer().limit(words), words);
+		b.position(b.position() + 4 * words);
+	}
+
+	public String toString() {
+		return "SVM snapshot "+name+" ("+layout+"): ip="+ip+" sp="+sp+" fp="+fp+" hp="+hp+", "+code.length+" words of code";
+	}
+}
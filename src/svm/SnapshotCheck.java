@@ -0,0 +1,58 @@
+package svm;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Checks that a run resumed from snapshots under a collector prints what the run in one
+ * go prints and keeps collecting: the program is run in slices of fuel, each one saved
+ * to a snapshot and resumed by a new machine whose Collector is built from the metadata
+ * saved in it (Snapshot.roots and frames), as Test does with -resume and -gc.
+ *
+ * Usage: SnapshotCheck file.fool.asm [nursery, default 1] [fuel of a slice, default 100000]
+ * with the code written by compiler.Test file.fool -svm, e.g. for resources/gc.fool;
+ * exits with status 1 if the outputs differ or the resumed runs never collect.
+ */
+public class SnapshotCheck {
+
+	public static void main(String[] args) throws IOException {
+		Program program = Assembler.assemble(args[0]).program();
+		int nursery = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		long slice = args.length > 2 ? Long.parseLong(args[2]) : 100_000;
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		Output out = Output.buffered(expected);
+		new ExecuteVM(program.code, program.labels, null, null, new Memory(), new Collector(program.roots, program.frames, nursery), out).cpu();
+		out.close();
+
+		ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+		out = Output.buffered(resumed);
+		Collector gc = new Collector(program.roots, program.frames, nursery);
+		ExecuteVM vm = new ExecuteVM(program.code, program.labels, null, null, new Memory(), gc, out);
+		Path file = Files.createTempFile("svm", ".snap");
+		int slices = 0, collections = 0, maxHp = 0;
+		Result result;
+		try {
+			while (true) {
+				vm.setLimits(new Limits(slice, 0, 0));
+				result = vm.cpu();
+				if (slices > 0) collections += gc.collections();
+				maxHp = Math.max(maxHp, vm.hp);
+				if (result.status != Result.Status.OUT_OF_FUEL) break;
+				Snapshot.save(vm, file.toString(), program.roots, program.frames);
+				Snapshot saved = Snapshot.load(file.toString());
+				gc = new Collector(saved.roots(), saved.frames(), nursery);
+				vm = saved.restore(null, null, gc, out);
+				slices++;
+			}
+		} finally {
+			out.close();
+			Files.delete(file);
+		}
+		String printed = resumed.toString().replaceAll("(?m)^Out of fuel at .*\n", ""); // each slice ends with one
+		boolean same = result.status == Result.Status.HALTED && expected.toString().equals(printed);
+		System.out.println(slices+" resumed slices, "+collections+" collections after a resume, hp up to "+maxHp
+				+": output "+(same ? "matches" : "DIFFERS from")+" the run in one go");
+		if (!same || slices > 0 && collections == 0) System.exit(1);
+	}
+}
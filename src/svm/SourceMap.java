@@ -0,0 +1,82 @@
+package svm;
+
+import java.util.*;
+
+/**
+ * Map from the addresses of the code to the FOOL source: the line and the enclosing
+ * function or method ("f", "f.g" for a function g nested in f, "List.first" for a
+ * method, "main" for the main program).
+ *
+ * The code generator emits a "line n" directive where the line changes and a
+ * "scope name" directive at the start of every function; the SVMParser collects them
+ * (lines and scopes) by the address of the next instruction. The map expands them
+ * into one entry per address, for a constant time lookup.
+ */
+public class SourceMap {
+
+	private final int[] lines;		// 0 where unknown
+	private final int[] scopes;		// index in names
+	private final String[] names;
+
+	public SourceMap(Map<Integer,Integer> lines, Map<Integer,String> scopes) {
+		int size = 1 + Math.max(lines.keySet().stream().max(Integer::compare).orElse(0),
+				scopes.keySet().stream().max(Integer::compare).orElse(0));
+		this.lines = new int[size];
+		this.scopes = new int[size];
+		List<String> names = new ArrayList<>(List.of("main"));
+		int line = 0, scope = 0;
+		for (int a = 0; a < size; a++) {
+			if (scopes.containsKey(a)) {
+				scope = names.indexOf(scopes.get(a));
+				if (scope < 0) {
+					scope = names.size();
+					names.add(scopes.get(a));
+				}
+			}
+			if (lines.containsKey(a)) line = lines.get(a);
+			this.lines[a] = line;
+			this.scopes[a] = scope;
+		}
+		this.names = names.toArray(new String[0]);
+	}
+
+	public SourceMap(SVMParser parser) {
+		this(parser.lines, parser.scopes);
+	}
+
+	/**
+	 * FOOL line of the instruction at address, 0 if unknown.
+	 */
+	public int line(int address) {
+		return address < 0 ? 0 : lines[Math.min(address, lines.length - 1)];
+	}
+
+	/**
+	 * FOOL function or method of the instruction at address.
+	 */
+	public String scope(int address) {
+		return address < 0 ? names[0] : names[scopes[Math.min(address, scopes.length - 1)]];
+	}
+
+	/**
+	 * The top lines by the given counts of each address, with their percentage of total.
+	 */
+	String hotLines(long[] counts, long total, int top) {
+		Map<String,Long> byLine = new HashMap<>();
+		for (int a = 0; a < counts.length; a++)
+			if (counts[a] > 0) byLine.merge(location(a), counts[a], Long::sum);
+		StringBuilder s = new StringBuilder(String.format("  %-30s %10s %7s%n", "FOOL line", "count", "%"));
+		byLine.entrySet().stream().sorted((x, y) -> Long.compare(y.getValue(), x.getValue())).limit(top)
+				.forEach(e -> s.append(String.format("  %-30s %10d %6.2f%%%n", e.getKey(), e.getValue(),
+						total == 0 ? 0 : 100.0 * e.getValue() / total)));
+		return s.toString();
+	}
+
+	/**
+	 * "line n in scope", or just "in scope" if the line is unknown.
+	 */
+	public String location(int address) {
+		int line = line(address);
+		return (line > 0 ? "line "+line+" " : "")+"in "+scope(address);
+	}
+}
@@ -0,0 +1,151 @@
+package svm;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.antlr.v4.runtime.*;
+
+/**
+ * Execution trace of the ExecuteVM, for post-mortem analysis of a run that ends with
+ * a fault or a trap.
+ *
+ * As a Monitor the Trace records the last instructions executed, (address, opcode, sp,
+ * fp) each, in a ring of preallocated int[] entries which is only ever written by the
+ * thread of the VM: recording an instruction takes four stores and no allocation, and
+ * needs no lock. When the VM stops abnormally the ring is dumped to a file, oldest
+ * instruction first, in a compact binary form:
+ *
+ *   int		MAGIC
+ *   UTF		reason of the stop
+ *   long		number of instructions executed
+ *   int		n, the number of entries that follow
+ *   n x 4 int	address, opcode, sp, fp
+ *
+ * decode() prints a dump back, with the line of the .asm file of every address and
+ * its FOOL location, from the source map in the .asm (see SourceMap).
+ */
+public class Trace implements Monitor {
+
+	public static final int DEFAULT_SIZE = 1024;
+
+	private static final int MAGIC = 0x53564d54; // "SVMT"
+
+	private final int[] ring;	// 4 words per entry
+	private final int mask;
+	private final String file;
+	private ExecuteVM vm;
+	private long count;			// instructions recorded so far
+	private boolean dumped;
+
+	public Trace(String file) {
+		this(file, DEFAULT_SIZE);
+	}
+
+	/**
+	 * @param file	where the trace is dumped on an abnormal stop
+	 * @param size	number of instructions kept, rounded up to a power of 2
+	 */
+	public Trace(String file, int size) {
+		int n = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+		this.ring = new int[4 * n];
+		this.mask = n - 1;
+		this.file = file;
+	}
+
+	public void attach(ExecuteVM vm, Map<String,Integer> labels) {
+		this.vm = vm;
+	}
+
+	public void step(int address, int opcode, int sp) {
+		int i = (int) (count++ & mask) << 2;
+		ring[i] = address;
+		ring[i + 1] = opcode;
+		ring[i + 2] = sp;
+		ring[i + 3] = vm.fp;
+	}
+
+	public void fault(String reason) {
+		if (dumped) return;
+		dumped = true;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			int n = (int) Math.min(count, mask + 1);
+			out.writeInt(MAGIC);
+			out.writeUTF(reason);
+			out.writeLong(count);
+			out.writeInt(n);
+			for (long k = count - n; k < count; k++) {
+				int i = (int) (k & mask) << 2;
+				for (int j = 0; j < 4; j++) out.writeInt(ring[i + j]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Whether the trace has been dumped, i.e. the VM stopped abnormally.
+	 */
+	public boolean dumped() {
+		return dumped;
+	}
+
+	public String file() {
+		return file;
+	}
+
+	/**
+	 * Decodes the dump in traceFile, showing the line of asmFile (the code that was run)
+	 * of every instruction; last limits the output to the last instructions.
+	 */
+	public static String decode(String traceFile, String asmFile, int last) throws IOException {
+		List<String> source = Files.readAllLines(Paths.get(asmFile));
+		int[] lines = lines(asmFile);
+		SVMParser parser = new SVMParser(new CommonTokenStream(new SVMLexer(CharStreams.fromFileName(asmFile))));
+		parser.assembly();
+		SourceMap map = new SourceMap(parser);
+		StringBuilder s = new StringBuilder();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(traceFile)))) {
+			if (in.readInt() != MAGIC) throw new IOException(traceFile+" is not a trace of the SVM");
+			String reason = in.readUTF();
+			long count = in.readLong();
+			int n = in.readInt();
+			s.append(reason+" after "+count+" instructions; the last "+Math.min(n, last)+":\n");
+			for (int k = 0; k < n; k++) {
+				int address = in.readInt(), opcode = in.readInt(), sp = in.readInt(), fp = in.readInt();
+				if (k < n - last) continue;
+				int line = address >= 0 && address < lines.length ? lines[address] : 0;
+				s.append(String.format("%6d  %-10s sp=%-6d fp=%-6d %-28s %s%n", address, Decoder.name(opcode), sp, fp,
+						map.location(address), line > 0 ? "| "+line+": "+source.get(line - 1).trim() : ""));
+			}
+		}
+		return s.toString();
+	}
+
+	/*
+	 * Line of the instruction at each address of the code assembled from asmFile: the
+	 * addresses are counted as the SVMParser does, label definitions, operands and
+	 * metadata taking no word of their own.
+	 */
+	private static int[] lines(String asmFile) throws IOException {
+		SVMLexer lexer = new SVMLexer(CharStreams.fromFileName(asmFile));
+		int[] lines = new int[ExecuteVM.CODESIZE];
+		int address = 0;
+		for (Token t = lexer.nextToken(); t.getType() != Token.EOF; t = lexer.nextToken())
+			if (t.getType() >= SVMParser.PUSH && t.getType() <= SVMParser.HALT && address < lines.length) {
+				lines[address] = t.getLine();
+				address += Decoder.length(t.getType());
+			}
+		return lines;
+	}
+
+	/**
+	 * Usage: Trace file.trace file.asm [last]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: Trace file.trace file.asm [last]");
+			System.exit(1);
+		}
+		System.out.print(decode(args[0], args[1], args.length > 2 ? Integer.parseInt(args[2]) : Integer.MAX_VALUE));
+	}
+}
@@ -0,0 +1,274 @@
+package svm;
+
+import java.util.*;
+
+/**
+ * Static verifier of the code generated for the SVM, run on the assembled Program
+ * before it is run: it proves that the stack is used consistently, without running
+ * the code, and computes the maximum depth of the stack of each function.
+ *
+ * The code is split in functions at the addresses of the "frame" directives, the code
+ * before the first one being the main program. The height of the stack is followed
+ * through every path of each function, from 0 at its entry (sp pointing to the AL
+ * pushed by the caller), and checked:
+ *
+ *   - every address reached has one height, whatever the path (joins of branches);
+ *   - no instruction pops words under the frame: under 0 in the main program, under
+ *     the CL pushed by the caller in a function (its parameters being given by the
+ *     length of its "frame" directive);
+ *   - branches target instructions of the same function, and no path runs past the
+ *     end of its function or into a word that is not an instruction;
+ *   - a "js" with a stack map ("roots" directive) is a call: it finds the RA, the
+ *     words of the map, the CL and the AL on the stack, and the callee leaves its
+ *     result in their place; a "js" without one returns, with a balanced frame: the
+ *     AL, the parameters and the CL popped and the result pushed;
+ *   - a "call" is a call as a "js" with a stack map, the AL taking the place of the
+ *     address of the closure; a "leave n" ends a frame with n words of parameters,
+ *     its value taking the place of the CL, and a "ret" then returns;
+ *   - a "tail n" finds the n words of the frame of the callee over the RA, and ends
+ *     the path as a return does (the VM moves the frame under the CL);
+ *   - the stack map of a "reserve" holds a flag for each word of the frame under the RA;
+ *   - the nesting level of a "display" or an "ldisp" is not negative.
+ *
+ * The metadata are the ones emitted by the code generator: code written by hand
+ * without them does not verify.
+ */
+public class Verifier {
+
+	private static final int UNSEEN = Integer.MIN_VALUE;
+
+	private final int[] code;
+	private final int end;					// words of code
+	private final Map<Integer,int[]> roots, frames;
+	private final SourceMap source;
+	private final boolean[] starts;			// addresses of instructions (not of operands)
+	private final int[] height;				// height of the stack before each instruction
+	private final TreeMap<Integer,Integer> maxStack = new TreeMap<>(); // by entry of function
+	private final List<String> errors = new ArrayList<>();
+	private final Deque<Integer> work = new ArrayDeque<>(); // addresses to follow
+
+	public Verifier(Program program) {
+		this.code = program.code;
+		this.end = CompactCode.used(code);
+		this.roots = program.roots;
+		this.frames = program.frames;
+		this.source = program.sourceMap();
+		this.starts = new boolean[end];
+		for (int a = 0; a < end; a += valid(code[a]) ? Decoder.length(code[a]) : 1) starts[a] = true;
+		this.height = new int[end];
+		Arrays.fill(height, UNSEEN);
+		TreeSet<Integer> entries = new TreeSet<>(frames.keySet());
+		entries.add(0);
+		for (int entry : entries) {
+			Integer next = entries.higher(entry);
+			function(entry, next == null ? end : next);
+		}
+	}
+
+	public boolean verified() {
+		return errors.isEmpty();
+	}
+
+	public List<String> errors() {
+		return errors;
+	}
+
+	/**
+	 * Maximum depth of the stack of each function, by its entry address: the words its
+	 * code pushes over the ones its caller left, the frames of its callees excluded.
+	 */
+	public Map<Integer,Integer> maxStack() {
+		return maxStack;
+	}
+
+	/**
+	 * The maximum depths by address: the one of the function starting at each entry,
+	 * 0 elsewhere (see ExecuteVM.setVerified).
+	 */
+	int[] depths() {
+		int[] d = new int[end + 1];
+		for (Map.Entry<Integer,Integer> f : maxStack.entrySet()) d[f.getKey()] = f.getValue();
+		return d;
+	}
+
+	/*
+	 * Follows every path of the function from entry up to limit.
+	 */
+	private void function(int entry, int limit) {
+		int[] frame = frames.get(entry);
+		int floor = frame == null ? 0 : -(frame.length + 1);	// the AL (the first flag), the parameters, the CL
+		int max = 0;
+		if (entry < end) {
+			height[entry] = 0;
+			work.push(entry);
+		}
+		while (!work.isEmpty()) {
+			int a = work.pop(), h = height[a];
+			int op = code[a];
+			if (!valid(op)) {
+				error(a, "not an instruction ("+op+")");
+				continue;
+			}
+			int pops = pops(op);
+			if (h - pops < floor) {
+				error(a, Decoder.name(op)+" pops "+pops+" words from a stack of "+(h - floor));
+				continue;
+			}
+			h += pushes(op) - pops;
+			max = Math.max(max, h);
+			int next = a + Decoder.length(op);
+			switch (op) {
+				case SVMParser.HALT:
+					break;
+				case SVMParser.BRANCH:
+					merge(entry, limit, a, code[a + 1], h);
+					break;
+				case SVMParser.BRANCHEQ:
+				case SVMParser.BRANCHLESSEQ:
+					merge(entry, limit, a, code[a + 1], h);
+					merge(entry, limit, a, next, h);
+					break;
+				case SVMParser.JS: {
+					int[] map = roots.get(a);
+					if (map != null) {					// a call: RA, the map, CL, the arguments, AL
+						if (h < map.length + 3) error(a, "call from a frame of "+h+" words, under its stack map of "+map.length);
+						else merge(entry, limit, a, next, map.length + 2);
+					} else if (frame == null) error(a, "return from the main program");
+					else if (h != floor + 1) error(a, "return with "+(h - floor - 1)+" words left on the frame");
+					break;
+				}
+				case SVMParser.CALL: {
+					int[] map = roots.get(a);
+					if (map == null) error(a, "call without a stack map");
+					else if (h < map.length + 3) error(a, "call from a frame of "+h+" words, under its stack map of "+map.length);
+					else merge(entry, limit, a, next, map.length + 2);
+					break;
+				}
+				case SVMParser.LEAVE:
+					if (frame == null) error(a, "leave from the main program");
+					else if (code[a + 1] != frame.length - 1) error(a, "leave with "+code[a + 1]+" words of parameters in a frame with "+(frame.length - 1));
+					else if (h < 1) error(a, "leave from a frame without its RA");
+					else merge(entry, limit, a, next, floor + 1);
+					break;
+				case SVMParser.RET:
+					if (frame == null) error(a, "return from the main program");
+					else if (h != floor + 1) error(a, "return with "+(h - floor - 1)+" words left on the frame");
+					break;
+				case SVMParser.TAILCALL:
+					if (frame == null) error(a, "tail call from the main program");
+					else if (h < code[a + 1] + 1) error(a, "tail call with "+code[a + 1]+" words from a frame of "+h);
+					break;
+				case SVMParser.RESERVE: {
+					int[] map = roots.get(a);
+					if (map != null && h != map.length + 1) error(a, "stack map of "+map.length+" words in a frame of "+(h - 1));
+					merge(entry, limit, a, next, h);
+					break;
+				}
+				case SVMParser.DISPLAY:
+				case SVMParser.LOADDISPLAY:
+					if (code[a + 1] < 0) error(a, Decoder.name(op)+" of the nesting level "+code[a + 1]);
+					else merge(entry, limit, a, next, h);
+					break;
+				default:
+					merge(entry, limit, a, next, h);
+			}
+		}
+		maxStack.put(entry, max);
+	}
+
+	/*
+	 * The height at target, reached from the instruction at a with height h.
+	 */
+	private void merge(int entry, int limit, int a, int target, int h) {
+		if (target < entry || target >= limit) {
+			error(a, target == limit && target == a + Decoder.length(code[a]) ? "runs past the end of its function"
+					: "jumps to "+target+", out of its function");
+			return;
+		}
+		if (!starts[target]) {
+			error(a, "jumps to "+target+", in the middle of an instruction");
+			return;
+		}
+		if (height[target] == UNSEEN) {
+			height[target] = h;
+			work.push(target);
+		} else if (height[target] != h) error(target, "stack of "+h+" words at a join with a stack of "+height[target]);
+	}
+
+	private void error(int address, String message) {
+		errors.add("address "+address+" ("+source.location(address)+"): "+message);
+	}
+
+	private static boolean valid(int op) {
+		return op >= SVMParser.PUSH && op <= SVMParser.HALT;
+	}
+
+	private static int pops(int op) {
+		switch (op) {
+			case SVMParser.ADD:
+			case SVMParser.SUB:
+			case SVMParser.MULT:
+			case SVMParser.DIV:
+			case SVMParser.STOREW:
+			case SVMParser.FILL:		// the object, then the value is pushed back
+			case SVMParser.BRANCHEQ:
+			case SVMParser.BRANCHLESSEQ:
+			case SVMParser.TAILCALL:	// and its frame, moved by the VM
+				return 2;
+			case SVMParser.POP:
+			case SVMParser.LOADW:
+			case SVMParser.JS:
+			case SVMParser.CALL:
+			case SVMParser.LEAVE:	// the value, which replaces the CL
+			case SVMParser.STORERA:
+			case SVMParser.STORETM:
+			case SVMParser.STOREFP:
+			case SVMParser.STOREHP:
+			case SVMParser.PRINT:
+				return 1;
+			default:
+				return 0;
+		}
+	}
+
+	private static int pushes(int op) {
+		switch (op) {
+			case SVMParser.PUSH:
+			case SVMParser.ADD:
+			case SVMParser.SUB:
+			case SVMParser.MULT:
+			case SVMParser.DIV:
+			case SVMParser.LOADW:
+			case SVMParser.LOADRA:
+			case SVMParser.LOADTM:
+			case SVMParser.LOADFP:
+			case SVMParser.LOADHP:
+			case SVMParser.CALL:	// the AL
+			case SVMParser.ENTER:	// the RA
+			case SVMParser.LOADDISPLAY:
+			case SVMParser.LOADGLOBAL:
+			case SVMParser.FILL:
+			case SVMParser.PRINT:
+				return 1;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * The outcome: the errors found, or the maximum depth of the stack of each function.
+	 */
+	public String report() {
+		StringBuilder s = new StringBuilder();
+		if (!verified()) {
+			s.append("Verification failed: "+errors.size()+" errors");
+			for (String e : errors.subList(0, Math.min(errors.size(), 20))) s.append("\n  "+e);
+			if (errors.size() > 20) s.append("\n  ...");
+			return s.toString();
+		}
+		s.append("Code verified: "+maxStack.size()+" functions, maximum stack depth in words");
+		for (Map.Entry<Integer,Integer> f : maxStack.entrySet())
+			s.append(String.format("%n  %-30s %6d", source.scope(f.getKey()), f.getValue()));
+		return s.toString();
+	}
+}
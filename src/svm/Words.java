@@ -0,0 +1,49 @@
+package svm;
+
+/**
+ * The words of the memory as the interpreter of ExecuteVM reads and writes them, whatever
+ * the backend: an int[] on the Java heap (Heap) or an OffHeapMemory.
+ *
+ * C2 binds the calls statically, with no type check, while Heap is the only subclass
+ * loaded: the interpreter then runs on the array as if it were written for it. So
+ * OffHeapMemory is loaded only by the runs that use it, ExecuteVM creating it through
+ * OffHeapMemory.create, typed Words, which the verifier does not need to load the class
+ * for. A run on an off-heap backend inlines its calls by their type profile instead.
+ */
+abstract class Words {
+
+	abstract int get(int address);
+
+	abstract void set(int address, int value);
+
+	/**
+	 * Copies n words from address from to address to, which may overlap it from above.
+	 */
+	void move(int from, int to, int n) {
+		for (int k = n - 1; k >= 0; k--) set(to + k, get(from + k));
+	}
+
+	/**
+	 * The HEAP backend: array is the memory of the VM, replaced when the heap grows.
+	 */
+	static final class Heap extends Words {
+
+		int[] array;
+
+		Heap(int[] array) {
+			this.array = array;
+		}
+
+		int get(int address) {
+			return array[address];
+		}
+
+		void set(int address, int value) {
+			array[address] = value;
+		}
+
+		void move(int from, int to, int n) {
+			System.arraycopy(array, from, array, to, n);
+		}
+	}
+}
@@ -4,8 +4,11 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 
+import svm.Memory;
+import svm.OffHeapMemory;
 import svm.SVMParser;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Vector;
 import java.util.stream.*;
@@ -29,19 +32,22 @@ public class ExecuteVM {
 
 	private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
 
-    public static final int MEMSIZE = 10000;
+    public static final int MEMSIZE = Memory.DEFAULT_STACK; // address of the global AR with the default Memory
     public static final int CODESIZE = 10000;
 
 	private int[] code;
-	private int[] memory;
+	private int[] memory;			// null with an off-heap backend
+	private final OffHeapMemory words;	// null with the HEAP backend
+	private final Memory layout; // stack segment below the global AR, heap segment above it (see svm.Memory)
 
 	private int ip = 0;
-	private int sp = MEMSIZE; // punta al top dello stack
+	private int sp; // punta al top dello stack
 
 	private int tm;
-	private int hp = 0;
+	private int hp;
 	private int ra;
-	private int fp = MEMSIZE;
+	private int fp;
+	private int[] display = new int[8];	// AR of each nesting level, entry 0 being the global AR
 
 	private final JFrame frame;
 	private final JPanel mainPanel;
@@ -63,11 +69,24 @@ public class ExecuteVM {
 	private List<String> source;
 
 	public ExecuteVM(int[] code, int[] sourceMap, List<String> source) {
+		this(code, sourceMap, source, new Memory());
+	}
+
+	public ExecuteVM(int[] code, int[] sourceMap, List<String> source, Memory layout) {
 		
 		this.code = code;
 		this.sourceMap = sourceMap;
 		this.source = source;
-		this.memory = new int[MEMSIZE];
+		this.layout = layout;
+		if (layout.backend == Memory.Backend.HEAP) {
+			this.memory = new int[layout.heapBase() + layout.heap];
+			this.words = null;
+		} else {
+			this.memory = null;
+			this.words = new OffHeapMemory(layout);
+		}
+		this.sp = this.fp = this.display[0] = layout.stack;
+		this.hp = layout.heapBase();
 
 		this.frame = new JFrame("FOOL Virtual Machine");
 		this.mainPanel = new JPanel();
@@ -210,10 +229,10 @@ public class ExecuteVM {
 
 	private void setMem() {
 		this.stackList.setListData(new Vector<>(
-				IntStream.range(0, MEMSIZE).mapToObj(x -> String.format("%5d: %s", x, x <= hp || x >= sp ? this.memory[x] : ""))
+				IntStream.range(0, layout.stack).mapToObj(x -> String.format("%5d: %s", x, x >= sp ? read(x) : ""))
 						.collect(Collectors.toList())));
 		this.heapList.setListData(new Vector<>(
-				IntStream.range(0, MEMSIZE).mapToObj(x -> String.format("%5d: %s", x, x <= hp || x >= sp ? this.memory[x] : ""))
+				IntStream.range(layout.heapBase(), shown()).mapToObj(x -> String.format("%5d: %s", x, x < hp ? read(x) : ""))
 						.collect(Collectors.toList())));
 	}
 
@@ -254,6 +273,38 @@ public class ExecuteVM {
 	}
 
 	private boolean step() {
+		try {
+			return execute();
+		} catch (IndexOutOfBoundsException e) {
+			fault(sp < 0 ? "Stack overflow" : "Invalid memory access ("+e.getMessage()+")");
+		} catch (IllegalStateException e) {
+			fault(e.getMessage());
+		}
+		return false;
+	}
+
+	private void fault(String reason) {
+		final String output = reason+": sp="+sp+" fp="+fp+" hp="+hp+" ("+layout+")";
+		System.out.println(output);
+		this.outputText.append(output + "\n");
+	}
+
+	/**
+	 * Enlarges the heap segment so that address is inside it, doubling it up to the
+	 * maximum of the layout.
+	 */
+	private void growHeap(int address) {
+		if (words != null) {
+			words.ensure(address);
+			return;
+		}
+		int used = address - layout.heapBase();
+		if (used >= layout.maxHeap) throw new IllegalStateException("Heap exhausted");
+		int words = (int) Math.min(layout.maxHeap, Math.max(2L * (memory.length - layout.heapBase()), used + 1L));
+		memory = Arrays.copyOf(memory, layout.heapBase() + words);
+	}
+
+	private boolean execute() {
 		int bytecode = fetch();
 		int v1, v2;
 		int address;
@@ -287,10 +338,10 @@ public class ExecuteVM {
 			break;
 		case SVMParser.STOREW:
 			address = pop();
-			memory[address] = pop();
+			write(address, pop());
 			break;
 		case SVMParser.LOADW:
-			push(memory[pop()]);
+			push(read(pop()));
 			break;
 		case SVMParser.BRANCH:
 			ip = fetch();
@@ -338,29 +389,94 @@ public class ExecuteVM {
 			break;
 		case SVMParser.STOREHP:
 			hp = pop();
+			if (hp >= limit()) growHeap(hp);
+			break;
+		case SVMParser.RESERVE: // no garbage collection here: the heap just grows
+			v1 = fetch();
+			if (hp + v1 > limit()) growHeap(hp + v1 - 1);
+			break;
+		case SVMParser.TAILCALL: // the frame of the callee replaces the one of the running function, under its CL
+			v1 = fetch();
+			v2 = pop();
+			address = pop();
+			ra = read(fp - 1);
+			for (int k = v1 - 1; k >= 0; k--) write(v2 - v1 + k, read(sp + k));
+			sp = v2 - v1;
+			ip = address;
+			break;
+		case SVMParser.FILL: // the last field of the object, a hole left by its "new"
+			address = pop();
+			v1 = read(read(address) - 1);
+			write(address - v1, read(sp));
+			break;
+		case SVMParser.CALL: // the closure at the popped address: its AR address is the AL
+			address = pop();
+			push(read(address));
+			ra = ip;
+			ip = read(address - 1);
+			break;
+		case SVMParser.ENTER:
+			fp = sp;
+			push(ra);
+			break;
+		case SVMParser.LEAVE: // the result replaces the CL
+			v1 = fetch();
+			v2 = pop();
+			ra = read(fp - 1);
+			sp = fp + v1 + 1;
+			fp = read(sp);
+			write(sp, v2);
+			break;
+		case SVMParser.RET:
+			ip = ra;
+			break;
+		case SVMParser.DISPLAY: // the frame at fp and its static chain become the entries v1..1
+			v1 = fetch();
+			if (v1 >= display.length) display = Arrays.copyOf(display, v1 + 1);
+			for (address = fp; v1 > 0; address = read(address)) display[v1--] = address;
+			break;
+		case SVMParser.LOADDISPLAY:
+			push(display[fetch()]);
+			break;
+		case SVMParser.LOADGLOBAL:
+			push(read(fetch()));
 			break;
 		case SVMParser.PRINT:
-			final String output = sp == MEMSIZE ? "EMPTY STACK" : Integer.toString(memory[sp]);
+			final String output = sp == layout.stack ? "EMPTY STACK" : Integer.toString(read(sp));
 			System.out.println(output);
 			this.outputText.append(output + "\n");
 			break;
 		case SVMParser.HALT:
-			return false;
-		}
-		if (this.sp <= this.hp) {
-			System.out.println("Segmentation fault");
-			this.outputText.append("Segmentation fault\n");
+			if (words != null) words.save(sp, fp, hp, ip);
 			return false;
 		}
 		return true;
 	}
 
 	private int pop() {
-		return memory[sp++];
+		return read(sp++);
 	}
 
 	private void push(int v) {
-		memory[--sp] = v;
+		write(--sp, v);
+	}
+
+	private int read(int address) {
+		return words == null ? memory[address] : words.get(address);
+	}
+
+	private void write(int address, int v) {
+		if (words == null) memory[address] = v; else words.set(address, v);
+	}
+
+	// first address not allocated
+	private int limit() {
+		return words == null ? memory.length : words.size();
+	}
+
+	// first address not shown in the heap list: a mapped heap may be huge
+	private int shown() {
+		return words == null ? memory.length : Math.max(hp, layout.heapBase() + layout.heap);
 	}
 
 	private int fetch() {
@@ -55,6 +55,18 @@ instruction:
 	  | t=COPYFP               { codem($t.line, COPYFP); } //copy in the FP register the current stack pointer    
 	  | t=LOADHP               { codem($t.line, LOADHP); } //push in the stack the content of the HP register    
 	  | t=STOREHP              { codem($t.line, STOREHP); } //pop the top of the stack and copy it in the HP register    
+	  | t=RESERVE n=INTEGER    { codem($t.line, RESERVE, Integer.parseInt($n.text)); } //make room for n words at hp; hp is not moved
+	  | t=TAILCALL n=INTEGER   { codem($t.line, TAILCALL, Integer.parseInt($n.text)); } //tail call: the n words on the top of the stack replace the frame of the running function
+	  | t=FILL                 { codem($t.line, FILL); } //pop an object pointer and write the value on the top of the stack in the last field of the object
+	  | t=CALL                 { codem($t.line, CALL); } //pop the address of a closure: push its AR address as the AL and jump to its label, saving the return address in $ra
+	  | t=ENTER                { codem($t.line, ENTER); } //start a frame: set $fp to $sp and push $ra
+	  | t=LEAVE n=INTEGER      { codem($t.line, LEAVE, Integer.parseInt($n.text)); } //end the frame of a function with n words of parameters: the top of the stack replaces its CL
+	  | t=RET                  { codem($t.line, RET); } //jump to the address in $ra
+	  | t=DISPLAY n=INTEGER    { codem($t.line, DISPLAY, Integer.parseInt($n.text)); } //the frame at $fp is the AR of nesting level n: it and its static chain become the display entries 1..n
+	  | t=LOADDISPLAY n=INTEGER { codem($t.line, LOADDISPLAY, Integer.parseInt($n.text)); } //push the AR of nesting level n from the display
+	  | t=LOADGLOBAL n=INTEGER { codem($t.line, LOADGLOBAL, Integer.parseInt($n.text)); } //push the word at the address n, a global declaration
+	  | (ROOTS | FRAME) INTEGER*	//metadata of the garbage collector, not used here
+	  | LINE INTEGER | SCOPE STRING	//source map of the FOOL code, not used here
 	  | t=PRINT                { codem($t.line, PRINT); } //visualize the top of the stack without removing it   
 	  | t=HALT                 { codem($t.line, HALT); } //terminate the execution    
 	  ;
@@ -84,9 +96,25 @@ STOREFP	 	: 'sfp' ;
 COPYFP   	: 'cfp' ;      
 LOADHP	 	: 'lhp' ;	
 STOREHP	 	: 'shp' ;	
+RESERVE	 	: 'reserve' ;	
+TAILCALL	: 'tail' ;
+FILL		: 'fill' ;
+CALL		: 'call' ;
+ENTER		: 'enter' ;
+LEAVE		: 'leave' ;
+RET			: 'ret' ;
+DISPLAY		: 'display' ;
+LOADDISPLAY	: 'ldisp' ;
+LOADGLOBAL	: 'lg' ;
 PRINT	 	: 'print' ;	
 HALT	 	: 'halt' ;	
 
+ROOTS		: 'roots' ;
+FRAME		: 'frame' ;
+LINE		: 'line' ;
+SCOPE		: 'scope' ;
+STRING		: '"' ~["\r\n]* '"' ;
+
 COL	 		: ':' ;
 LABEL	 	: ('a'..'z'|'A'..'Z')('a'..'z' | 'A'..'Z' | '0'..'9')* ;
 INTEGER	 	: '0' | ('-')?(('1'..'9')('0'..'9')*) ;